@@ -0,0 +1,118 @@
+package com.github.pedroluiznogueira.testingapi.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// a page of employees written and read in every format the controller negotiates, with and without gzip;
+// payloadSize reports the encoded size of each combination as its bytes counter
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeFormatBenchmark {
+
+    private static final TypeReference<List<Employee>> EMPLOYEES = new TypeReference<>() {
+    };
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    @Param({"1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<Employee> employees;
+    private byte[] payload;
+
+    @Setup
+    public void setup() throws Exception {
+        switch (format) {
+            case "smile":
+                objectMapper = new ObjectMapper(new SmileFactory());
+                break;
+            case "cbor":
+                objectMapper = new ObjectMapper(new CBORFactory());
+                break;
+            default:
+                objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        }
+        employees = IntStream.range(0, size)
+                .mapToObj(i -> Employee.builder()
+                        .id((long) i + 1)
+                        .firstName("John" + i)
+                        .secondName("Willick" + i)
+                        .email("johnwillick" + i + "@johnwillick.com")
+                        .version(0L)
+                        .build())
+                .collect(Collectors.toList());
+        payload = encode();
+    }
+
+    @Benchmark
+    public byte[] encodeEmployees() throws Exception {
+        return encode();
+    }
+
+    @Benchmark
+    public List<Employee> decodeEmployees() throws Exception {
+        try (InputStream input = gzip ? new GZIPInputStream(new ByteArrayInputStream(payload)) : new ByteArrayInputStream(payload)) {
+            return objectMapper.readValue(input, EMPLOYEES);
+        }
+    }
+
+    // one shot, so the counter is read once and reports the size as is; its time is of no interest
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public void payloadSize(final PayloadSize payloadSize) {
+        payloadSize.bytes = payload.length;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+        public long bytes;
+    }
+
+    private byte[] encode() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream output = gzip ? new GZIPOutputStream(bytes) : bytes) {
+            objectMapper.writeValue(output, employees);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.pedroluiznogueira.testingapi.benchmark;
+
+import com.github.pedroluiznogueira.testingapi.TestingApiApplication;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.repository.EmployeeRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// every call opens a session of its own, so nothing is answered by the persistence context
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeSecondLevelCacheBenchmark {
+
+    private static final int EMPLOYEES = 1000;
+
+    @Param({"true", "false"})
+    private boolean secondLevelCache;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeRepository employeeRepository;
+    private Employee employee;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(TestingApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache,
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        for (int i = 0; i < EMPLOYEES; i++) {
+            employee = employeeRepository.save(Employee.builder()
+                    .firstName("John" + i)
+                    .secondName("Willick" + i)
+                    .email("johnwillick" + i + "@benchmark.com")
+                    .build());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Employee> findById() {
+        return employeeRepository.findById(employee.getId());
+    }
+}
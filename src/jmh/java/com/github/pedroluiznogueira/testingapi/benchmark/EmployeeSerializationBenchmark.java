@@ -0,0 +1,81 @@
+package com.github.pedroluiznogueira.testingapi.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// the mapper is built the way spring boot builds the one behind the controllers
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeSerializationBenchmark {
+
+    private static final TypeReference<List<Employee>> EMPLOYEES = new TypeReference<>() {
+    };
+
+    @Param({"1", "100", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private Employee employee;
+    private byte[] employeeJson;
+    private List<Employee> employees;
+    private byte[] employeesJson;
+
+    @Setup
+    public void setup() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        employees = IntStream.range(0, size)
+                .mapToObj(i -> Employee.builder()
+                        .id((long) i + 1)
+                        .firstName("John" + i)
+                        .secondName("Willick" + i)
+                        .email("johnwillick" + i + "@johnwillick.com")
+                        .version(0L)
+                        .build())
+                .collect(Collectors.toList());
+        employee = employees.get(0);
+        employeeJson = objectMapper.writeValueAsBytes(employee);
+        employeesJson = objectMapper.writeValueAsBytes(employees);
+    }
+
+    @Benchmark
+    public byte[] serializeEmployee() throws Exception {
+        return objectMapper.writeValueAsBytes(employee);
+    }
+
+    @Benchmark
+    public Employee deserializeEmployee() throws Exception {
+        return objectMapper.readValue(employeeJson, Employee.class);
+    }
+
+    @Benchmark
+    public byte[] serializeEmployees() throws Exception {
+        return objectMapper.writeValueAsBytes(employees);
+    }
+
+    @Benchmark
+    public List<Employee> deserializeEmployees() throws Exception {
+        return objectMapper.readValue(employeesJson, EMPLOYEES);
+    }
+}
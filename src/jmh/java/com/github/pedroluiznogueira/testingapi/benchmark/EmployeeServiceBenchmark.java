@@ -0,0 +1,94 @@
+package com.github.pedroluiznogueira.testingapi.benchmark;
+
+import com.github.pedroluiznogueira.testingapi.TestingApiApplication;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.EmployeePatch;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeCache;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// runs the real service against an in-memory h2, so the numbers include jpa, jdbc and the cache but no network
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeServiceBenchmark {
+
+    private static final int EMPLOYEES = 1000;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+    private EmployeeCache employeeCache;
+    private Long employeeId;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(TestingApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect");
+        employeeService = context.getBean(EmployeeService.class);
+        employeeCache = context.getBean(EmployeeCache.class);
+        for (int i = 0; i < EMPLOYEES; i++) {
+            createEmployee();
+        }
+        employeeId = employeeService.getEmployees(null, 1).get(0).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Employee createEmployee() {
+        final long next = sequence.incrementAndGet();
+        return employeeService.createEmployee(Employee.builder()
+                .firstName("John" + next)
+                .secondName("Willick" + next)
+                .email("johnwillick" + next + "@benchmark.com")
+                .build());
+    }
+
+    @Benchmark
+    public Employee getEmployeeByIdCached() {
+        return employeeService.getEmployeeById(employeeId);
+    }
+
+    @Benchmark
+    public Employee getEmployeeByIdUncached() {
+        employeeCache.invalidate(employeeId);
+        return employeeService.getEmployeeById(employeeId);
+    }
+
+    @Benchmark
+    public List<Employee> getEmployees() {
+        return employeeService.getEmployees(null, 100);
+    }
+
+    @Benchmark
+    public Long patchEmployee() {
+        return employeeService.patchEmployee(employeeId, EmployeePatch.builder().firstName("John" + sequence.incrementAndGet()).build(), null);
+    }
+}
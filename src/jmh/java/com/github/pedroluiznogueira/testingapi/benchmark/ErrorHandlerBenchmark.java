@@ -0,0 +1,71 @@
+package com.github.pedroluiznogueira.testingapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.pedroluiznogueira.testingapi.controller.EmployeeController;
+import com.github.pedroluiznogueira.testingapi.exception.ResourceNotFoundException;
+import com.github.pedroluiznogueira.testingapi.exception.error.Error;
+import com.github.pedroluiznogueira.testingapi.exception.error.ErrorHandler;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// a missing employee end to end through dispatch, the advice and json, and the advice alone
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorHandlerBenchmark {
+
+    private MockMvc mockMvc;
+    private ErrorHandler errorHandler;
+    private WebRequest webRequest;
+
+    @Setup
+    public void setup() {
+        final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        final EmployeeService employeeService = new EmployeeService(null, null, null, null, null, null, null, null) {
+            @Override
+            public Employee getEmployeeById(final Long id) {
+                throw new ResourceNotFoundException("Employee", "id", id.toString());
+            }
+        };
+        errorHandler = new ErrorHandler();
+        mockMvc = MockMvcBuilders.standaloneSetup(new EmployeeController(employeeService, null, null, null, null, null, null, objectMapper))
+                .setControllerAdvice(errorHandler)
+                .build();
+        webRequest = new ServletWebRequest(new MockHttpServletRequest("GET", "/api/employees/1"));
+    }
+
+    @Benchmark
+    public MvcResult notFoundThroughDispatcher() throws Exception {
+        return mockMvc.perform(get("/api/employees/1")).andReturn();
+    }
+
+    @Benchmark
+    public ResponseEntity<Error> notFoundThroughErrorHandler() {
+        return errorHandler.notFound(new ResourceNotFoundException("Employee", "id", "1"), webRequest);
+    }
+}
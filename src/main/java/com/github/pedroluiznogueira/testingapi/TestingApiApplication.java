@@ -2,10 +2,28 @@ package com.github.pedroluiznogueira.testingapi;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.AutoConfigurationExcludeFilter;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
 
+// the reactive variant lives in a sub package and is only compiled with -Preactive,
+// it is kept out of the servlet context together with the r2dbc auto configuration it brings along
 @Slf4j
-@SpringBootApplication
+@SpringBootApplication(excludeName = {
+		"org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration",
+		"org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration",
+		"org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration",
+		"org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration"
+})
+@ComponentScan(excludeFilters = {
+		@ComponentScan.Filter(type = FilterType.CUSTOM, classes = TypeExcludeFilter.class),
+		@ComponentScan.Filter(type = FilterType.CUSTOM, classes = AutoConfigurationExcludeFilter.class),
+		@ComponentScan.Filter(type = FilterType.REGEX, pattern = "com\\.github\\.pedroluiznogueira\\.testingapi\\.reactive\\..*")
+})
+@ConfigurationPropertiesScan
 public class TestingApiApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,36 @@
+package com.github.pedroluiznogueira.testingapi.client;
+
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.EmployeePatch;
+import feign.Headers;
+import feign.Param;
+import feign.RequestLine;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface EmployeeAsyncClient {
+    @RequestLine("GET ?after={after}&limit={limit}")
+    CompletableFuture<List<Employee>> getEmployees(@Param("after") final Long after, @Param("limit") final Integer limit);
+
+    @RequestLine("POST")
+    @Headers("Content-Type: application/json")
+    CompletableFuture<Employee> createEmployee(final Employee employee);
+
+    @RequestLine("GET /search?q={q}&limit={limit}")
+    CompletableFuture<List<Employee>> searchEmployees(@Param("q") final String query, @Param("limit") final Integer limit);
+
+    @RequestLine("GET /{id}")
+    CompletableFuture<Employee> getEmployeeById(@Param("id") final Long id);
+
+    @RequestLine("PUT")
+    @Headers("Content-Type: application/json")
+    CompletableFuture<Employee> updateEmployee(Employee employee);
+
+    @RequestLine("PATCH /{id}")
+    @Headers({"Content-Type: application/json", "If-Match: {ifMatch}"})
+    CompletableFuture<Void> patchEmployee(@Param("id") final Long id, @Param("ifMatch") final String ifMatch, final EmployeePatch patch);
+
+    @RequestLine("DELETE /{id}")
+    CompletableFuture<Void> deleteEmployee(@Param("id") final Long id);
+}
@@ -1,20 +1,58 @@
 package com.github.pedroluiznogueira.testingapi.client;
 
 import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.EmployeeChange;
+import com.github.pedroluiznogueira.testingapi.model.EmployeePatch;
+import com.github.pedroluiznogueira.testingapi.model.bulk.BulkOperation;
+import com.github.pedroluiznogueira.testingapi.model.bulk.BulkResult;
+import com.github.pedroluiznogueira.testingapi.model.imports.ImportJob;
+import com.github.pedroluiznogueira.testingapi.model.ingestion.IngestionTicket;
+import feign.CollectionFormat;
 import feign.Headers;
 import feign.Param;
 import feign.RequestLine;
 
 import java.util.List;
+import java.util.Map;
 
 public interface EmployeeClient {
-    @RequestLine("GET")
-    List<Employee> getEmployees();
+    @RequestLine("GET ?after={after}&limit={limit}")
+    List<Employee> getEmployees(@Param("after") final Long after, @Param("limit") final Integer limit);
 
     @RequestLine("POST")
     @Headers("Content-Type: application/json")
     Employee createEmployee(final Employee employee);
 
+    @RequestLine("POST /_bulk")
+    @Headers("Content-Type: application/x-ndjson")
+    List<BulkResult> bulk(final List<BulkOperation> operations);
+
+    @RequestLine("POST /_ingest")
+    @Headers("Content-Type: application/json")
+    IngestionTicket ingestEmployee(final Employee employee);
+
+    @RequestLine("GET /_ingest/{ticket}")
+    IngestionTicket getIngestion(@Param("ticket") final String ticket);
+
+    @RequestLine("POST /_import")
+    @Headers("Content-Type: application/x-ndjson")
+    ImportJob importEmployees(final List<Employee> employees);
+
+    @RequestLine("GET /_import/{job}")
+    ImportJob getImport(@Param("job") final String job);
+
+    @RequestLine("GET /changes?after={after}&limit={limit}")
+    List<EmployeeChange> getChanges(@Param("after") final Long after, @Param("limit") final Integer limit);
+
+    @RequestLine("GET /search?q={q}&limit={limit}")
+    List<Employee> searchEmployees(@Param("q") final String query, @Param("limit") final Integer limit);
+
+    @RequestLine("GET ?after={after}&limit={limit}&fields={fields}")
+    List<Map<String, Object>> getEmployees(@Param("after") final Long after, @Param("limit") final Integer limit, @Param("fields") final String fields);
+
+    @RequestLine("GET /{id}?fields={fields}")
+    Map<String, Object> getEmployeeById(@Param("id") final Long id, @Param("fields") final String fields);
+
     @RequestLine("GET /{id}")
     Employee getEmployeeById(@Param("id") final Long id);
 
@@ -22,6 +60,13 @@ public interface EmployeeClient {
     @Headers("Content-Type: application/json")
     Employee updateEmployee(Employee employee);
 
+    @RequestLine("PATCH /{id}")
+    @Headers({"Content-Type: application/json", "If-Match: {ifMatch}"})
+    void patchEmployee(@Param("id") final Long id, @Param("ifMatch") final String ifMatch, final EmployeePatch patch);
+
     @RequestLine("DELETE /{id}")
     void deleteEmployee(@Param("id") final Long id);
+
+    @RequestLine(value = "DELETE ?ids={ids}", collectionFormat = CollectionFormat.CSV)
+    int deleteEmployees(@Param("ids") final List<Long> ids);
 }
@@ -1,25 +1,158 @@
 package com.github.pedroluiznogueira.testingapi.client;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.pedroluiznogueira.testingapi.client.codec.GsonIteratorDecoder;
+import com.github.pedroluiznogueira.testingapi.client.codec.InstantTypeAdapter;
+import com.github.pedroluiznogueira.testingapi.client.codec.JacksonBinaryDecoder;
+import com.github.pedroluiznogueira.testingapi.client.codec.JacksonBinaryEncoder;
+import com.github.pedroluiznogueira.testingapi.client.codec.NdjsonEncoder;
+import com.github.pedroluiznogueira.testingapi.client.codec.StreamingDecoder;
+import com.github.pedroluiznogueira.testingapi.client.http.ETagCacheInterceptor;
+import com.github.pedroluiznogueira.testingapi.client.http.GzipRequestInterceptor;
+import com.github.pedroluiznogueira.testingapi.client.http.IdempotencyKeyInterceptor;
+import com.github.pedroluiznogueira.testingapi.client.http.OkHttpAsyncClient;
+import com.google.gson.GsonBuilder;
+import feign.AsyncFeign;
 import feign.Feign;
 import feign.Logger;
+import feign.Request;
+import feign.RequestInterceptor;
+import feign.Retryer;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
 import feign.gson.GsonDecoder;
 import feign.gson.GsonEncoder;
 import feign.okhttp.OkHttpClient;
 import feign.slf4j.Slf4jLogger;
 import lombok.Getter;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Getter
 public class EmployeeClientBuilder {
-    private EmployeeClient employeeClient = createClient(EmployeeClient.class, "http://localhost:8080/api/employees");
+    private static final String EMPLOYEES_URI = "http://localhost:8080/api/employees";
+
+    private final EmployeeClient employeeClient;
+    private final EmployeeAsyncClient employeeAsyncClient;
+    private final EmployeeStreamClient employeeStreamClient;
+
+    public EmployeeClientBuilder() {
+        this(EMPLOYEES_URI);
+    }
+
+    public EmployeeClientBuilder(final String uri) {
+        this(uri, Logger.Level.FULL);
+    }
+
+    public EmployeeClientBuilder(final String uri, final Logger.Level logLevel) {
+        this(uri, logLevel, EmployeeClientOptions.defaults());
+    }
+
+    public EmployeeClientBuilder(final String uri, final Logger.Level logLevel, final EmployeeClientOptions options) {
+        final okhttp3.OkHttpClient httpClient = createHttpClient(options);
+        final Request.Options requestOptions = new Request.Options(
+                options.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS,
+                options.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS,
+                true);
+        this.employeeClient = createClient(EmployeeClient.class, uri, logLevel, httpClient, requestOptions, options);
+        this.employeeAsyncClient = createAsyncClient(EmployeeAsyncClient.class, uri, logLevel, httpClient, requestOptions, options);
+        this.employeeStreamClient = createStreamClient(EmployeeStreamClient.class, uri, logLevel, httpClient, requestOptions);
+    }
 
-    private static <T> T createClient(Class<T> type, String uri) {
+    private static okhttp3.OkHttpClient createHttpClient(final EmployeeClientOptions options) {
+        final Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(options.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(options.getMaxRequestsPerHost());
+        final okhttp3.OkHttpClient.Builder builder = new okhttp3.OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(options.getMaxIdleConnections(), options.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS))
+                .connectTimeout(options.getConnectTimeout())
+                .readTimeout(options.getReadTimeout())
+                .callTimeout(options.getCallTimeout());
+        if (options.getResponseCacheEntries() > 0) {
+            builder.addInterceptor(new ETagCacheInterceptor(options.getResponseCacheEntries(), options.getResponseCacheMaxBodyBytes()));
+        }
+        return builder.build();
+    }
+
+    private static <T> T createClient(Class<T> type, String uri, Logger.Level logLevel, okhttp3.OkHttpClient httpClient, Request.Options options,
+                                      EmployeeClientOptions clientOptions) {
         return Feign.builder()
-                .client(new OkHttpClient())
-                .encoder(new GsonEncoder())
-                .decoder(new GsonDecoder())
+                .client(new OkHttpClient(httpClient))
+                .encoder(new NdjsonEncoder(encoder(clientOptions)))
+                .decoder(decoder())
+                .requestInterceptors(requestInterceptors(clientOptions))
+                .retryer(clientOptions.isRetries() ? new Retryer.Default() : Retryer.NEVER_RETRY)
+                .options(options)
                 .logger(new Slf4jLogger(type))
-                .logLevel(Logger.Level.FULL)
+                .logLevel(logLevel)
                 .target(type, uri);
 
     }
-}
\ No newline at end of file
+
+    // full logging would buffer the whole body to print it, so streaming clients log headers at most
+    private static <T> T createStreamClient(Class<T> type, String uri, Logger.Level logLevel, okhttp3.OkHttpClient httpClient, Request.Options options) {
+        return Feign.builder()
+                .client(new OkHttpClient(httpClient))
+                .decoder(new StreamingDecoder(new GsonIteratorDecoder(), new GsonDecoder()))
+                .doNotCloseAfterDecode()
+                .options(options)
+                .logger(new Slf4jLogger(type))
+                .logLevel(logLevel.compareTo(Logger.Level.HEADERS) > 0 ? Logger.Level.HEADERS : logLevel)
+                .target(type, uri);
+    }
+
+    private static <T> T createAsyncClient(Class<T> type, String uri, Logger.Level logLevel, okhttp3.OkHttpClient httpClient, Request.Options options,
+                                           EmployeeClientOptions clientOptions) {
+        return AsyncFeign.<Object>asyncBuilder()
+                .client(new OkHttpAsyncClient(httpClient))
+                .encoder(encoder(clientOptions))
+                .decoder(decoder())
+                .requestInterceptors(requestInterceptors(clientOptions))
+                .options(options)
+                .logger(new Slf4jLogger(type))
+                .logLevel(logLevel)
+                .target(type, uri);
+    }
+
+    private static Encoder encoder(final EmployeeClientOptions options) {
+        switch (options.getFormat()) {
+            case SMILE:
+                return new JacksonBinaryEncoder(new ObjectMapper(new SmileFactory()), options.getFormat().getMediaType());
+            case CBOR:
+                return new JacksonBinaryEncoder(new ObjectMapper(new CBORFactory()), options.getFormat().getMediaType());
+            default:
+                return new GsonEncoder();
+        }
+    }
+
+    // responses are decoded by their content type, so a json answer to a binary request still works
+    private static Decoder decoder() {
+        return new JacksonBinaryDecoder(Map.of(
+                EmployeeClientOptions.Format.SMILE.getMediaType(), new ObjectMapper(new SmileFactory()),
+                EmployeeClientOptions.Format.CBOR.getMediaType(), new ObjectMapper(new CBORFactory())),
+                new GsonDecoder(new GsonBuilder().registerTypeAdapter(Instant.class, new InstantTypeAdapter()).create()));
+    }
+
+    private static List<RequestInterceptor> requestInterceptors(final EmployeeClientOptions options) {
+        final List<RequestInterceptor> interceptors = new ArrayList<>();
+        if (options.isIdempotencyKeys()) {
+            interceptors.add(new IdempotencyKeyInterceptor());
+        }
+        if (options.getFormat() != EmployeeClientOptions.Format.JSON) {
+            interceptors.add(template -> template.header("Accept", options.getFormat().getMediaType() + ", application/json;q=0.5"));
+        }
+        if (options.isCompressRequests()) {
+            interceptors.add(new GzipRequestInterceptor(options.getCompressRequestMinBytes()));
+        }
+        return interceptors;
+    }
+}
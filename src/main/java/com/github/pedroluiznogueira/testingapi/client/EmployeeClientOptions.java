@@ -0,0 +1,80 @@
+package com.github.pedroluiznogueira.testingapi.client;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+// one pool and one dispatcher are shared by the blocking and the async client,
+// maxRequests bounds how many async calls are on the wire at once, the rest wait in the dispatcher queue
+@Value
+@Builder
+public class EmployeeClientOptions {
+
+    // the format bodies are sent in and asked for, json stays the fallback the server can always answer in
+    public enum Format {
+        JSON("application/json"),
+        SMILE("application/x-jackson-smile"),
+        CBOR("application/cbor");
+
+        private final String mediaType;
+
+        Format(String mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+    }
+
+    @Builder.Default
+    int maxRequests = 256;
+
+    @Builder.Default
+    int maxRequestsPerHost = 256;
+
+    @Builder.Default
+    int maxIdleConnections = 32;
+
+    @Builder.Default
+    Duration keepAlive = Duration.ofMinutes(5);
+
+    @Builder.Default
+    Duration connectTimeout = Duration.ofSeconds(2);
+
+    @Builder.Default
+    Duration readTimeout = Duration.ofSeconds(10);
+
+    @Builder.Default
+    Duration callTimeout = Duration.ofSeconds(30);
+
+    // zero entries turns the etag response cache off
+    @Builder.Default
+    int responseCacheEntries = 256;
+
+    @Builder.Default
+    long responseCacheMaxBodyBytes = 256 * 1024;
+
+    @Builder.Default
+    Format format = Format.JSON;
+
+    // only turn on against servers that inflate request bodies
+    @Builder.Default
+    boolean compressRequests = false;
+
+    @Builder.Default
+    int compressRequestMinBytes = 1024;
+
+    // creates and updates carry a key of their own, so a retry after a timeout is answered instead of applied twice
+    @Builder.Default
+    boolean idempotencyKeys = true;
+
+    // off for load generators, a retried call would be recorded as one slow request
+    @Builder.Default
+    boolean retries = true;
+
+    public static EmployeeClientOptions defaults() {
+        return EmployeeClientOptions.builder().build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.pedroluiznogueira.testingapi.client;
+
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import feign.Param;
+import feign.RequestLine;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// results hold the connection until they are exhausted or closed
+public interface EmployeeStreamClient {
+    @RequestLine("GET /stream")
+    Stream<Employee> streamEmployees();
+
+    @RequestLine("GET /stream")
+    Iterator<Employee> iterateEmployees();
+
+    @RequestLine("GET ?after={after}&limit={limit}")
+    Iterator<Employee> iterateEmployees(@Param("after") final Long after, @Param("limit") final Integer limit);
+}
@@ -1,33 +1,160 @@
 package com.github.pedroluiznogueira.testingapi.client.api;
 
+import com.github.pedroluiznogueira.testingapi.client.EmployeeAsyncClient;
 import com.github.pedroluiznogueira.testingapi.client.EmployeeClient;
 import com.github.pedroluiznogueira.testingapi.client.EmployeeClientBuilder;
+import com.github.pedroluiznogueira.testingapi.client.EmployeeStreamClient;
 import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.EmployeeChange;
+import com.github.pedroluiznogueira.testingapi.model.EmployeePatch;
+import com.github.pedroluiznogueira.testingapi.model.bulk.BulkOperation;
+import com.github.pedroluiznogueira.testingapi.model.bulk.BulkResult;
+import com.github.pedroluiznogueira.testingapi.model.imports.ImportJob;
+import com.github.pedroluiznogueira.testingapi.model.ingestion.IngestionTicket;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public abstract class EmployeeApi {
 
+    private static final int DELETE_IDS_PER_REQUEST = 500;
+    private static final int EMPLOYEES_PER_REQUEST = 1000;
     private static final EmployeeClientBuilder employeeClientBuilder = new EmployeeClientBuilder();
     private static final EmployeeClient employeeClient = employeeClientBuilder.getEmployeeClient();
+    private static final EmployeeAsyncClient employeeAsyncClient = employeeClientBuilder.getEmployeeAsyncClient();
+    private static final EmployeeStreamClient employeeStreamClient = employeeClientBuilder.getEmployeeStreamClient();
 
     public static Employee createEmployee(final Employee employee) {
         return employeeClient.createEmployee(employee);
     }
 
+    public static List<BulkResult> bulk(final List<BulkOperation> operations) {
+        return employeeClient.bulk(operations);
+    }
+
+    public static IngestionTicket ingestEmployee(final Employee employee) {
+        return employeeClient.ingestEmployee(employee);
+    }
+
+    public static IngestionTicket getIngestion(final String ticket) {
+        return employeeClient.getIngestion(ticket);
+    }
+
+    public static ImportJob importEmployees(final List<Employee> employees) {
+        return employeeClient.importEmployees(employees);
+    }
+
+    public static ImportJob getImport(final String job) {
+        return employeeClient.getImport(job);
+    }
+
+    public static List<EmployeeChange> getChanges(final Long after, final Integer limit) {
+        return employeeClient.getChanges(after, limit);
+    }
+
+    // follows the keyset cursor to the end, an empty page is the stop since the server may cap the page below the size asked for
     public static List<Employee> getEmployees() {
-        return employeeClient.getEmployees();
+        final List<Employee> employees = new ArrayList<>();
+        List<Employee> page = employeeClient.getEmployees(null, EMPLOYEES_PER_REQUEST);
+        while (!page.isEmpty()) {
+            employees.addAll(page);
+            page = employeeClient.getEmployees(page.get(page.size() - 1).getId(), EMPLOYEES_PER_REQUEST);
+        }
+        return employees;
+    }
+
+    public static List<Employee> getEmployees(final Long after, final Integer limit) {
+        return employeeClient.getEmployees(after, limit);
+    }
+
+    // the stream holds a connection until it is closed, use it in a try-with-resources block
+    public static Stream<Employee> streamEmployees() {
+        return employeeStreamClient.streamEmployees();
+    }
+
+    public static void forEachEmployee(final Consumer<Employee> consumer) {
+        try (Stream<Employee> employees = employeeStreamClient.streamEmployees()) {
+            employees.forEach(consumer);
+        }
+    }
+
+    public static List<Employee> searchEmployees(final String query, final Integer limit) {
+        return employeeClient.searchEmployees(query, limit);
+    }
+
+    public static List<Map<String, Object>> getEmployees(final Long after, final Integer limit, final String fields) {
+        return employeeClient.getEmployees(after, limit, fields);
     }
 
     public static Employee getEmployeeById(final Long id) {
         return employeeClient.getEmployeeById(id);
     }
 
+    public static Map<String, Object> getEmployeeById(final Long id, final String fields) {
+        return employeeClient.getEmployeeById(id, fields);
+    }
+
     public static Employee updateEmployee(final Employee employee) {
         return employeeClient.updateEmployee(employee);
     }
 
+    public static void patchEmployee(final Long id, final Long version, final EmployeePatch patch) {
+        employeeClient.patchEmployee(id, version == null ? null : "\"" + version + "\"", patch);
+    }
+
     public static void deleteEmployee(final Long id) {
         employeeClient.deleteEmployee(id);
     }
+
+    // ids are sent in slices so the query string stays well below common url length limits
+    public static int deleteEmployees(final List<Long> ids) {
+        int deleted = 0;
+        for (int from = 0; from < ids.size(); from += DELETE_IDS_PER_REQUEST) {
+            deleted += employeeClient.deleteEmployees(ids.subList(from, Math.min(from + DELETE_IDS_PER_REQUEST, ids.size())));
+        }
+        return deleted;
+    }
+
+    public static CompletableFuture<Employee> createEmployeeAsync(final Employee employee) {
+        return employeeAsyncClient.createEmployee(employee);
+    }
+
+    public static CompletableFuture<List<Employee>> getEmployeesAsync(final Long after, final Integer limit) {
+        return employeeAsyncClient.getEmployees(after, limit);
+    }
+
+    public static CompletableFuture<List<Employee>> searchEmployeesAsync(final String query, final Integer limit) {
+        return employeeAsyncClient.searchEmployees(query, limit);
+    }
+
+    public static CompletableFuture<Employee> getEmployeeByIdAsync(final Long id) {
+        return employeeAsyncClient.getEmployeeById(id);
+    }
+
+    // every lookup is in flight at once, bounded only by the dispatcher limits of the shared client
+    public static CompletableFuture<List<Employee>> getEmployeesByIdAsync(final Collection<Long> ids) {
+        final List<CompletableFuture<Employee>> lookups = ids.stream()
+                .map(employeeAsyncClient::getEmployeeById)
+                .collect(Collectors.toList());
+        return CompletableFuture.allOf(lookups.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> lookups.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+    }
+
+    public static CompletableFuture<Employee> updateEmployeeAsync(final Employee employee) {
+        return employeeAsyncClient.updateEmployee(employee);
+    }
+
+    public static CompletableFuture<Void> patchEmployeeAsync(final Long id, final Long version, final EmployeePatch patch) {
+        return employeeAsyncClient.patchEmployee(id, version == null ? null : "\"" + version + "\"", patch);
+    }
+
+    public static CompletableFuture<Void> deleteEmployeeAsync(final Long id) {
+        return employeeAsyncClient.deleteEmployee(id);
+    }
 }
@@ -0,0 +1,107 @@
+package com.github.pedroluiznogueira.testingapi.client.codec;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import feign.Response;
+import feign.Util;
+import feign.codec.DecodeException;
+import feign.codec.Decoder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// reads a json array one element at a time straight from the response body, only the current element is held in memory;
+// the body stays open until the array is exhausted or the iterator is closed, so the client must not close it after decode
+public class GsonIteratorDecoder implements Decoder {
+
+    private final Gson gson;
+
+    public GsonIteratorDecoder() {
+        this(new Gson());
+    }
+
+    public GsonIteratorDecoder(Gson gson) {
+        this.gson = gson;
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException {
+        if (!(type instanceof ParameterizedType) || ((ParameterizedType) type).getRawType() != Iterator.class) {
+            throw new IllegalArgumentException("GsonIteratorDecoder only decodes Iterator<T> but got " + type);
+        }
+        if (response.status() == 204 || response.body() == null) {
+            Util.ensureClosed(response);
+            return Collections.emptyIterator();
+        }
+        final Type elementType = ((ParameterizedType) type).getActualTypeArguments()[0];
+        final JsonReader reader = gson.newJsonReader(response.body().asReader(StandardCharsets.UTF_8));
+        try {
+            reader.beginArray();
+        } catch (IOException | RuntimeException exception) {
+            Util.ensureClosed(response);
+            throw exception;
+        }
+        return new GsonIterator<>(gson.getAdapter(TypeToken.get(elementType)), reader, response);
+    }
+
+    private static final class GsonIterator<T> implements Iterator<T>, Closeable {
+        private final TypeAdapter<?> adapter;
+        private final JsonReader reader;
+        private final Response response;
+        private boolean closed;
+
+        private GsonIterator(final TypeAdapter<?> adapter, final JsonReader reader, final Response response) {
+            this.adapter = adapter;
+            this.reader = reader;
+            this.response = response;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (closed) {
+                return false;
+            }
+            try {
+                if (reader.hasNext()) {
+                    return true;
+                }
+                reader.endArray();
+            } catch (IOException exception) {
+                close();
+                throw new DecodeException(response.status(), exception.getMessage(), response.request(), exception);
+            }
+            close();
+            return false;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                return (T) adapter.read(reader);
+            } catch (IOException | RuntimeException exception) {
+                close();
+                throw new DecodeException(response.status(), exception.getMessage(), response.request(), exception);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                Util.ensureClosed(response);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.pedroluiznogueira.testingapi.client.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Response;
+import feign.Util;
+import feign.codec.Decoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Map;
+
+// the response content type picks the mapper, anything the server answered in json goes to the json delegate
+public class JacksonBinaryDecoder implements Decoder {
+
+    private final Map<String, ObjectMapper> objectMappers;
+    private final Decoder delegate;
+
+    public JacksonBinaryDecoder(Map<String, ObjectMapper> objectMappers, Decoder delegate) {
+        this.objectMappers = objectMappers;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException {
+        final ObjectMapper objectMapper = objectMapperFor(response);
+        if (objectMapper == null) {
+            return delegate.decode(response, type);
+        }
+        if (response.status() == 404 || response.status() == 204) {
+            return Util.emptyValueOf(type);
+        }
+        if (response.body() == null) {
+            return null;
+        }
+        try (InputStream body = response.body().asInputStream()) {
+            return objectMapper.readValue(body, objectMapper.constructType(type));
+        }
+    }
+
+    private ObjectMapper objectMapperFor(final Response response) {
+        final Collection<String> contentTypes = Util.valuesOrEmpty(response.headers(), "Content-Type");
+        for (String contentType : contentTypes) {
+            final int parameters = contentType.indexOf(';');
+            final ObjectMapper objectMapper = objectMappers.get((parameters < 0 ? contentType : contentType.substring(0, parameters)).trim().toLowerCase());
+            if (objectMapper != null) {
+                return objectMapper;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.pedroluiznogueira.testingapi.client.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.RequestTemplate;
+import feign.codec.EncodeException;
+import feign.codec.Encoder;
+
+import java.lang.reflect.Type;
+
+// feign's jackson encoder writes strings, which corrupts smile and cbor, so the body is written as raw bytes
+// and the json content type declared on the client interface is replaced by the binary one
+public class JacksonBinaryEncoder implements Encoder {
+
+    private final ObjectMapper objectMapper;
+    private final String contentType;
+
+    public JacksonBinaryEncoder(ObjectMapper objectMapper, String contentType) {
+        this.objectMapper = objectMapper;
+        this.contentType = contentType;
+    }
+
+    @Override
+    public void encode(Object object, Type bodyType, RequestTemplate template) throws EncodeException {
+        try {
+            template.body(objectMapper.writerFor(objectMapper.constructType(bodyType)).writeValueAsBytes(object), null);
+        } catch (JsonProcessingException exception) {
+            throw new EncodeException(exception.getMessage(), exception);
+        }
+        template.removeHeader("Content-Type");
+        template.header("Content-Type", contentType);
+    }
+}
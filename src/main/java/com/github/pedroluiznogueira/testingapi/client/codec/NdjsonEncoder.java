@@ -0,0 +1,40 @@
+package com.github.pedroluiznogueira.testingapi.client.codec;
+
+import com.google.gson.Gson;
+import feign.RequestTemplate;
+import feign.codec.EncodeException;
+import feign.codec.Encoder;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+public class NdjsonEncoder implements Encoder {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    private final Gson gson = new Gson();
+    private final Encoder delegate;
+
+    public NdjsonEncoder(Encoder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void encode(Object object, Type bodyType, RequestTemplate template) throws EncodeException {
+        if (!isNdjson(template) || !(object instanceof Iterable)) {
+            delegate.encode(object, bodyType, template);
+            return;
+        }
+        final StringBuilder body = new StringBuilder();
+        for (Object line : (Iterable<?>) object) {
+            body.append(gson.toJson(line)).append('\n');
+        }
+        template.body(body.toString().getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+
+    private boolean isNdjson(final RequestTemplate template) {
+        final Collection<String> contentTypes = template.headers().get("Content-Type");
+        return contentTypes != null && contentTypes.stream().anyMatch(contentType -> contentType.startsWith(NDJSON));
+    }
+}
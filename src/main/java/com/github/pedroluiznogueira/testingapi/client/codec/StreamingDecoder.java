@@ -0,0 +1,37 @@
+package com.github.pedroluiznogueira.testingapi.client.codec;
+
+import feign.Response;
+import feign.codec.Decoder;
+import feign.stream.StreamDecoder;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Iterator<T> and Stream<T> return types are decoded lazily, everything else goes to the buffering delegate
+public class StreamingDecoder implements Decoder {
+
+    private final Decoder iteratorDecoder;
+    private final Decoder streamDecoder;
+    private final Decoder delegate;
+
+    public StreamingDecoder(Decoder iteratorDecoder, Decoder delegate) {
+        this.iteratorDecoder = iteratorDecoder;
+        this.streamDecoder = StreamDecoder.create(iteratorDecoder);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException {
+        final Type rawType = type instanceof ParameterizedType ? ((ParameterizedType) type).getRawType() : type;
+        if (rawType == Iterator.class) {
+            return iteratorDecoder.decode(response, type);
+        }
+        if (rawType == Stream.class) {
+            return streamDecoder.decode(response, type);
+        }
+        return delegate.decode(response, type);
+    }
+}
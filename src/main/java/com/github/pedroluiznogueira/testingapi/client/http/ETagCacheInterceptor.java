@@ -0,0 +1,96 @@
+package com.github.pedroluiznogueira.testingapi.client.http;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// a 304 is turned back into the remembered 200 so callers and decoders never see it
+public class ETagCacheInterceptor implements Interceptor {
+
+    private final int maxEntries;
+    private final long maxBodyBytes;
+    private final Map<String, Entry> entries;
+
+    public ETagCacheInterceptor(int maxEntries, long maxBodyBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBodyBytes = maxBodyBytes;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+                return size() > ETagCacheInterceptor.this.maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        final Request request = chain.request();
+        if (!request.method().equals("GET") || request.header("If-None-Match") != null) {
+            return chain.proceed(request);
+        }
+        final String accept = request.header("Accept");
+        final String key = accept == null ? request.url().toString() : request.url() + " " + accept;
+        final Entry cached = get(key);
+        if (cached == null) {
+            return remember(key, chain.proceed(request));
+        }
+        final Response response = chain.proceed(request.newBuilder().header("If-None-Match", cached.eTag).build());
+        if (response.code() != 304) {
+            return remember(key, response);
+        }
+        response.close();
+        return response.newBuilder()
+                .code(200)
+                .message("OK")
+                .header("ETag", cached.eTag)
+                .header("Content-Length", String.valueOf(cached.body.length))
+                .body(ResponseBody.create(cached.mediaType, cached.body))
+                .build();
+    }
+
+    private Response remember(final String key, final Response response) throws IOException {
+        final String eTag = response.header("ETag");
+        if (response.code() != 200 || eTag == null || response.body() == null) {
+            remove(key);
+            return response;
+        }
+        final ResponseBody peeked = response.peekBody(maxBodyBytes + 1);
+        if (peeked.contentLength() > maxBodyBytes) {
+            remove(key);
+            return response;
+        }
+        final byte[] body = peeked.bytes();
+        put(key, new Entry(eTag, response.body().contentType(), body));
+        return response;
+    }
+
+    private synchronized Entry get(final String key) {
+        return entries.get(key);
+    }
+
+    private synchronized void put(final String key, final Entry entry) {
+        entries.put(key, entry);
+    }
+
+    private synchronized void remove(final String key) {
+        entries.remove(key);
+    }
+
+    private static final class Entry {
+        private final String eTag;
+        private final MediaType mediaType;
+        private final byte[] body;
+
+        private Entry(final String eTag, final MediaType mediaType, final byte[] body) {
+            this.eTag = eTag;
+            this.mediaType = mediaType;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.github.pedroluiznogueira.testingapi.client.http;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+// runs after the body is encoded, small bodies are sent as they are since gzip would only add its header
+public class GzipRequestInterceptor implements RequestInterceptor {
+
+    private final int minBodyBytes;
+
+    public GzipRequestInterceptor(int minBodyBytes) {
+        this.minBodyBytes = minBodyBytes;
+    }
+
+    @Override
+    public void apply(RequestTemplate template) {
+        final byte[] body = template.body();
+        if (body == null || body.length < minBodyBytes || template.headers().containsKey("Content-Encoding")) {
+            return;
+        }
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        template.body(compressed.toByteArray(), null);
+        template.header("Content-Encoding", "gzip");
+    }
+}
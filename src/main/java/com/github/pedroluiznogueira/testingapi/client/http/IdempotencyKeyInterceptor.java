@@ -0,0 +1,21 @@
+package com.github.pedroluiznogueira.testingapi.client.http;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+
+import java.util.UUID;
+
+// feign applies interceptors to the same template on every retry, so the key set on the first attempt is the one the retries send
+public class IdempotencyKeyInterceptor implements RequestInterceptor {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    @Override
+    public void apply(RequestTemplate template) {
+        final String method = template.method();
+        if ((!method.equals("POST") && !method.equals("PUT")) || template.headers().containsKey(HEADER)) {
+            return;
+        }
+        template.header(HEADER, UUID.randomUUID().toString());
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.pedroluiznogueira.testingapi.client.http;
+
+import feign.AsyncClient;
+import feign.Request;
+import feign.Response;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// calls are enqueued on the okhttp dispatcher, the calling thread returns at once and the future
+// is completed from the dispatcher once the whole body has been read
+public class OkHttpAsyncClient implements AsyncClient<Object> {
+
+    private final OkHttpClient delegate;
+
+    public OkHttpAsyncClient(OkHttpClient delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public CompletableFuture<Response> execute(Request request, Request.Options options, Optional<Object> requestContext) {
+        final CompletableFuture<Response> response = new CompletableFuture<>();
+        final Call call = clientFor(options).newCall(toOkHttpRequest(request));
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException exception) {
+                response.completeExceptionally(exception);
+            }
+
+            @Override
+            public void onResponse(Call call, okhttp3.Response okHttpResponse) {
+                try (okhttp3.Response closeable = okHttpResponse) {
+                    response.complete(toFeignResponse(closeable, request));
+                } catch (IOException | RuntimeException exception) {
+                    response.completeExceptionally(exception);
+                }
+            }
+        });
+        // cancelling the future gives the connection back instead of waiting for a body nobody reads
+        response.whenComplete((ignored, throwable) -> {
+            if (response.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return response;
+    }
+
+    private OkHttpClient clientFor(final Request.Options options) {
+        if (delegate.connectTimeoutMillis() == options.connectTimeoutMillis()
+                && delegate.readTimeoutMillis() == options.readTimeoutMillis()
+                && delegate.followRedirects() == options.isFollowRedirects()) {
+            return delegate;
+        }
+        return delegate.newBuilder()
+                .connectTimeout(options.connectTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .readTimeout(options.readTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .followRedirects(options.isFollowRedirects())
+                .build();
+    }
+
+    private static okhttp3.Request toOkHttpRequest(final Request request) {
+        final okhttp3.Request.Builder builder = new okhttp3.Request.Builder().url(request.url());
+        MediaType mediaType = null;
+        for (Map.Entry<String, Collection<String>> header : request.headers().entrySet()) {
+            for (String value : header.getValue()) {
+                builder.addHeader(header.getKey(), value);
+                if (header.getKey().equalsIgnoreCase("Content-Type")) {
+                    mediaType = MediaType.parse(value);
+                }
+            }
+        }
+        byte[] body = request.body();
+        if (body == null && requiresBody(request.httpMethod())) {
+            body = new byte[0];
+        }
+        builder.method(request.httpMethod().name(), body == null ? null : RequestBody.create(mediaType, body));
+        return builder.build();
+    }
+
+    private static boolean requiresBody(final Request.HttpMethod method) {
+        return method == Request.HttpMethod.POST || method == Request.HttpMethod.PUT || method == Request.HttpMethod.PATCH;
+    }
+
+    private static Response toFeignResponse(final okhttp3.Response response, final Request request) throws IOException {
+        final ResponseBody body = response.body();
+        return Response.builder()
+                .status(response.code())
+                .reason(response.message())
+                .headers(toMap(response.headers()))
+                .request(request)
+                .body(body == null ? null : body.bytes())
+                .build();
+    }
+
+    private static Map<String, Collection<String>> toMap(final Headers headers) {
+        final Map<String, Collection<String>> values = new LinkedHashMap<>();
+        for (String name : headers.names()) {
+            values.put(name, new ArrayList<>(headers.values(name)));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.pedroluiznogueira.testingapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// the lazy proxy delays fetching a connection until the first statement,
+// by then the transaction manager has marked the transaction read-only and routing can see it
+@Configuration
+@ConditionalOnProperty(prefix = "employee.routing", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        final HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagTracker replicaLagTracker(EmployeeProperties employeeProperties) {
+        return new ReplicaLagTracker(employeeProperties.getRouting().getReplicaLag());
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReplicaLagTracker replicaLagTracker) {
+        return new ReadYourWritesFilter(replicaLagTracker);
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(HikariDataSource primaryDataSource, ReplicaLagTracker replicaLagTracker,
+                                                        EmployeeProperties employeeProperties, ObjectProvider<MeterRegistry> meterRegistry) {
+        final List<HikariDataSource> replicas = new ArrayList<>();
+        for (EmployeeProperties.Replica replica : employeeProperties.getRouting().getReplicas()) {
+            final HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + replicas.size());
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setUsername(replica.getUsername());
+            dataSource.setPassword(replica.getPassword());
+            dataSource.setReadOnly(true);
+            // replica pools are not beans, so the pool metrics auto-configuration does not see them
+            meterRegistry.ifAvailable(dataSource::setMetricRegistry);
+            replicas.add(dataSource);
+        }
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas, replicaLagTracker);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -0,0 +1,160 @@
+package com.github.pedroluiznogueira.testingapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "employee")
+public class EmployeeProperties {
+
+    private final Page page = new Page();
+    private final Bulk bulk = new Bulk();
+    private final Delete delete = new Delete();
+    private final EmailFilter emailFilter = new EmailFilter();
+    private final Cache cache = new Cache();
+    private final Search search = new Search();
+    private final Routing routing = new Routing();
+    private final Idempotency idempotency = new Idempotency();
+    private final Ingestion ingestion = new Ingestion();
+    private final Changes changes = new Changes();
+    private final Export export = new Export();
+    private final Imports imports = new Imports();
+    private final SecondLevelCache secondLevelCache = new SecondLevelCache();
+    private final Statements statements = new Statements();
+    private final Decompression decompression = new Decompression();
+
+    @Data
+    public static class Page {
+        private int defaultLimit = 100;
+        private int maxLimit = 1000;
+    }
+
+    @Data
+    public static class Bulk {
+        private int chunkSize = 500;
+    }
+
+    @Data
+    public static class Delete {
+        private int chunkSize = 1000;
+    }
+
+    @Data
+    public static class EmailFilter {
+        private boolean enabled = false;
+        private long expectedInsertions = 1_000_000;
+        private double falsePositiveProbability = 0.01;
+    }
+
+    @Data
+    public static class Cache {
+        private long maximumSize = 10_000;
+        private Duration ttl = Duration.ofMinutes(5);
+        private Duration negativeTtl = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Search {
+        private boolean indexEnabled = true;
+        private int defaultLimit = 10;
+        private int maxLimit = 100;
+        private double minSimilarity = 0.4;
+    }
+
+    @Data
+    public static class Routing {
+        private boolean enabled = false;
+        private Duration replicaLag = Duration.ofSeconds(2);
+        private final List<Replica> replicas = new ArrayList<>();
+    }
+
+    // keys are remembered in memory first, the table lets a replay land on another instance or survive a restart
+    @Data
+    public static class Idempotency {
+        private boolean enabled = true;
+        private long maximumSize = 100_000;
+        private Duration ttl = Duration.ofHours(24);
+        private boolean tableEnabled = false;
+    }
+
+    // linger trades a little write lag for fuller batches when the feed trickles in
+    @Data
+    public static class Ingestion {
+        private int capacity = 10_000;
+        private int batchSize = 500;
+        private Duration linger = Duration.ofMillis(10);
+        private long ticketMaximumSize = 100_000;
+        private Duration ticketTtl = Duration.ofMinutes(10);
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+    }
+
+    // a subscriber that falls more than its buffer behind is disconnected and resumes from the table
+    @Data
+    public static class Changes {
+        private int defaultLimit = 500;
+        private int maxLimit = 1000;
+        private int subscriberBuffer = 1000;
+        private Duration heartbeat = Duration.ofSeconds(15);
+        private Duration retention = Duration.ofDays(7);
+    }
+
+    // every partition holds a connection for the whole export, so they stay well below the pool size
+    @Data
+    public static class Export {
+        private int fetchSize = 1000;
+        private int maxPartitions = 4;
+        private DataSize chunkSize = DataSize.ofKilobytes(64);
+        private int queueCapacity = 16;
+    }
+
+    // imports run one after the other by default, each already writes in bulk-sized batches
+    @Data
+    public static class Imports {
+        private int workers = 1;
+        private int maxErrors = 100;
+        private long jobMaximumSize = 1000;
+        private Duration jobTtl = Duration.ofHours(24);
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+    }
+
+    // hibernate creates any region missing here without bounds
+    @Data
+    public static class SecondLevelCache {
+        private final Map<String, Region> regions = new LinkedHashMap<>();
+    }
+
+    // a request is reported once it runs this many statements or spends this long in the database
+    @Data
+    public static class Statements {
+        private boolean enabled = true;
+        private Duration slowStatement = Duration.ofMillis(200);
+        private int reportCount = 20;
+        private Duration reportTime = Duration.ofMillis(500);
+    }
+
+    // a few kilobytes of gzip can inflate to gigabytes, bodies are cut off once they inflate past this
+    @Data
+    public static class Decompression {
+        private DataSize maxInflatedSize = DataSize.ofMegabytes(64);
+    }
+
+    @Data
+    public static class Region {
+        private long maximumSize = 10_000;
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
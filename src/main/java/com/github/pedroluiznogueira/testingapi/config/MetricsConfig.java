@@ -0,0 +1,17 @@
+package com.github.pedroluiznogueira.testingapi.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// endpoints are timed by http.server.requests and spring data repositories by spring.data.repository.invocations,
+// the aspect covers the @Timed service and jdbc repository methods in between
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
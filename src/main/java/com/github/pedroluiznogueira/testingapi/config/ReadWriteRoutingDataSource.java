@@ -0,0 +1,47 @@
+package com.github.pedroluiznogueira.testingapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// read-only transactions go round robin over the replicas, everything else goes to the primary
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private static final String PRIMARY = "primary";
+
+    private final List<HikariDataSource> replicas;
+    private final ReplicaLagTracker replicaLagTracker;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(final DataSource primary, final List<HikariDataSource> replicas, final ReplicaLagTracker replicaLagTracker) {
+        this.replicas = replicas;
+        this.replicaLagTracker = replicaLagTracker;
+        final Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+        }
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly() || replicaLagTracker.isReplicaBehind()) {
+            return PRIMARY;
+        }
+        return Math.floorMod(next.getAndIncrement(), replicas.size());
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,112 @@
+package com.github.pedroluiznogueira.testingapi.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+// hands the client's last write from its cookie to the tracker for the request, and sets the cookie again when the
+// request wrote; the cookie goes out when the response starts, after every write of the request has committed
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final ReplicaLagTracker replicaLagTracker;
+
+    public ReadYourWritesFilter(final ReplicaLagTracker replicaLagTracker) {
+        this.replicaLagTracker = replicaLagTracker;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        final Long lastWrite = parse(WebUtils.getCookie(request, ReplicaLagTracker.COOKIE));
+        final LastWriteResponse lastWriteResponse = new LastWriteResponse(response, lastWrite);
+        replicaLagTracker.begin(lastWrite);
+        try {
+            filterChain.doFilter(request, lastWriteResponse);
+        } finally {
+            lastWriteResponse.addCookie();
+            replicaLagTracker.end();
+        }
+    }
+
+    private static Long parse(final Cookie cookie) {
+        if (cookie == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(cookie.getValue());
+        } catch (NumberFormatException exception) {
+            return null;
+        }
+    }
+
+    private final class LastWriteResponse extends HttpServletResponseWrapper {
+        private final Long lastWrite;
+        private boolean cookieAdded;
+
+        private LastWriteResponse(final HttpServletResponse response, final Long lastWrite) {
+            super(response);
+            this.lastWrite = lastWrite;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addCookie();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addCookie();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addCookie();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(final int status) throws IOException {
+            addCookie();
+            super.sendError(status);
+        }
+
+        @Override
+        public void sendError(final int status, final String message) throws IOException {
+            addCookie();
+            super.sendError(status, message);
+        }
+
+        @Override
+        public void sendRedirect(final String location) throws IOException {
+            addCookie();
+            super.sendRedirect(location);
+        }
+
+        private void addCookie() {
+            final Long written = replicaLagTracker.lastWrite();
+            if (cookieAdded || written == null || written.equals(lastWrite) || isCommitted()) {
+                return;
+            }
+            cookieAdded = true;
+            final ResponseCookie cookie = ResponseCookie.from(ReplicaLagTracker.COOKIE, written.toString())
+                    .path("/")
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .maxAge(replicaLagTracker.getReplicaLag().plusSeconds(1))
+                    .build();
+            addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
+    }
+}
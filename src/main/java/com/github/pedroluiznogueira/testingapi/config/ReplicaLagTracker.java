@@ -0,0 +1,52 @@
+package com.github.pedroluiznogueira.testingapi.config;
+
+import com.github.pedroluiznogueira.testingapi.event.EmployeeChangedEvent;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+// reads stay on the primary for one replica lag after the same client's write, so a client sees its own writes;
+// the cookie holds wall-clock time so every instance can honor it
+public class ReplicaLagTracker {
+
+    public static final String COOKIE = "employee-last-write";
+
+    private static final ThreadLocal<Long> LAST_WRITE = new ThreadLocal<>();
+
+    private final Duration replicaLag;
+
+    public ReplicaLagTracker(final Duration replicaLag) {
+        this.replicaLag = replicaLag;
+    }
+
+    // runs after commit on the thread that wrote, which is the request's own for every synchronous write
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(final EmployeeChangedEvent event) {
+        LAST_WRITE.set(System.currentTimeMillis());
+    }
+
+    public boolean isReplicaBehind() {
+        final Long lastWrite = LAST_WRITE.get();
+        return lastWrite != null && System.currentTimeMillis() - lastWrite < replicaLag.toMillis();
+    }
+
+    public Duration getReplicaLag() {
+        return replicaLag;
+    }
+
+    public Long lastWrite() {
+        return LAST_WRITE.get();
+    }
+
+    public void begin(final Long lastWrite) {
+        if (lastWrite == null) {
+            LAST_WRITE.remove();
+        } else {
+            LAST_WRITE.set(lastWrite);
+        }
+    }
+
+    public void end() {
+        LAST_WRITE.remove();
+    }
+}
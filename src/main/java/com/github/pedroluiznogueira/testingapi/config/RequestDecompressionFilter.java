@@ -0,0 +1,182 @@
+package com.github.pedroluiznogueira.testingapi.config;
+
+import com.github.pedroluiznogueira.testingapi.exception.RequestBodyTooLargeException;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+// tomcat only compresses responses, request bodies sent with Content-Encoding gzip or deflate are inflated here
+// as they are read, so a streamed bulk upload never sits in memory decompressed; a body that inflates past the limit
+// fails its read with RequestBodyTooLargeException, which the error handler answers with 413
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestDecompressionFilter extends OncePerRequestFilter {
+
+    private final long maxInflatedSize;
+
+    public RequestDecompressionFilter(EmployeeProperties employeeProperties) {
+        this.maxInflatedSize = employeeProperties.getDecompression().getMaxInflatedSize().toBytes();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        final String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (encoding == null || encoding.equalsIgnoreCase("identity")) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!encoding.equalsIgnoreCase("gzip") && !encoding.equalsIgnoreCase("deflate")) {
+            response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE, "unsupported content encoding " + encoding);
+            return;
+        }
+        filterChain.doFilter(new DecompressingRequest(request, encoding.equalsIgnoreCase("gzip"), maxInflatedSize), response);
+    }
+
+    private static final class DecompressingRequest extends HttpServletRequestWrapper {
+        private static final int BUFFER_SIZE = 8192;
+
+        private final boolean gzip;
+        private final long maxInflatedSize;
+        private ServletInputStream inputStream;
+
+        private DecompressingRequest(final HttpServletRequest request, final boolean gzip, final long maxInflatedSize) {
+            super(request);
+            this.gzip = gzip;
+            this.maxInflatedSize = maxInflatedSize;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                final InputStream compressed = super.getInputStream();
+                inputStream = new InflatedInputStream(gzip ? new GZIPInputStream(compressed, BUFFER_SIZE) : new InflaterInputStream(compressed), maxInflatedSize);
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            final String encoding = getCharacterEncoding();
+            final Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        // the decompressed length is unknown up front
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(final String name) {
+            if (isHidden(name)) {
+                return null;
+            }
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(final String name) {
+            if (isHidden(name)) {
+                return Collections.emptyEnumeration();
+            }
+            return super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+                    .filter(name -> !isHidden(name))
+                    .collect(Collectors.toList()));
+        }
+
+        private static boolean isHidden(final String name) {
+            return name.equalsIgnoreCase(HttpHeaders.CONTENT_ENCODING) || name.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH);
+        }
+    }
+
+    // counts the inflated bytes as they are read, the gzip and zlib framing is left to the java.util.zip streams;
+    // inflating blocks on the compressed stream, so non-blocking reads are not offered
+    private static final class InflatedInputStream extends ServletInputStream {
+        private final InputStream inflated;
+        private final long maxInflatedSize;
+        private long inflatedSize;
+        private boolean finished;
+
+        private InflatedInputStream(final InputStream inflated, final long maxInflatedSize) {
+            this.inflated = inflated;
+            this.maxInflatedSize = maxInflatedSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int read = inflated.read();
+            count(read == -1 ? -1 : 1);
+            return read;
+        }
+
+        @Override
+        public int read(final byte[] target, final int offset, final int length) throws IOException {
+            final int read = inflated.read(target, offset, length);
+            count(read);
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            inflated.close();
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(final ReadListener readListener) {
+            throw new UnsupportedOperationException("compressed request bodies are read blocking");
+        }
+
+        private void count(final int read) {
+            if (read == -1) {
+                finished = true;
+                return;
+            }
+            inflatedSize += read;
+            if (inflatedSize > maxInflatedSize) {
+                throw new RequestBodyTooLargeException(maxInflatedSize);
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.pedroluiznogueira.testingapi.config;
+
+import lombok.Getter;
+import lombok.ToString;
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.hibernate.BaseSessionEventListener;
+
+// counted at the connection so JdbcTemplate work is seen too, a batch counts once since it is one round trip
+@Getter
+@ToString
+public class RequestStatements {
+
+    public static final String ATTRIBUTE = RequestStatements.class.getName();
+
+    private static final ThreadLocal<RequestStatements> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+    private long selects;
+    private long inserts;
+    private long updates;
+    private long deletes;
+    private long others;
+    private long databaseMillis;
+    private long cacheHits;
+    private long cacheMisses;
+    private long cachePuts;
+    private boolean async;
+
+    // work on other threads or after an async request's first dispatch is not counted
+    public static RequestStatements begin() {
+        QueryCountHolder.clear();
+        final RequestStatements current = new RequestStatements();
+        CURRENT.set(current);
+        return current;
+    }
+
+    public void end(final boolean async) {
+        this.async = async;
+        CURRENT.remove();
+        final QueryCount count = QueryCountHolder.getGrandTotal();
+        QueryCountHolder.clear();
+        statements = count.getTotal();
+        selects = count.getSelect();
+        inserts = count.getInsert();
+        updates = count.getUpdate();
+        deletes = count.getDelete();
+        others = count.getOther();
+        databaseMillis = count.getTime();
+    }
+
+    // hibernate creates one per session from its class name, see hibernate.session.events.auto
+    public static class SessionListener extends BaseSessionEventListener {
+
+        @Override
+        public void cacheGetEnd(boolean hit) {
+            final RequestStatements current = CURRENT.get();
+            if (current == null) {
+                return;
+            }
+            if (hit) {
+                current.cacheHits++;
+            } else {
+                current.cacheMisses++;
+            }
+        }
+
+        @Override
+        public void cachePutEnd() {
+            final RequestStatements current = CURRENT.get();
+            if (current != null) {
+                current.cachePuts++;
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.pedroluiznogueira.testingapi.config;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+// the data source everything else uses is wrapped, whether it is the pool or the routing proxy, so every statement
+// is counted for the request it ran on and a single slow one is logged with its sql as it finishes
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "employee.statements", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class StatementCountConfig {
+
+    private static final String DATA_SOURCE = "dataSource";
+
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor(ObjectProvider<EmployeeProperties> employeeProperties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || !DATA_SOURCE.equals(beanName)) {
+                    return bean;
+                }
+                final long slowStatementMillis = employeeProperties.getObject().getStatements().getSlowStatement().toMillis();
+                return ProxyDataSourceBuilder.create(DATA_SOURCE, (DataSource) bean)
+                        .countQuery()
+                        .afterQuery((execution, queries) -> {
+                            if (execution.getElapsedTime() >= slowStatementMillis) {
+                                log.warn("slow statement took {} ms{}: {}", execution.getElapsedTime(),
+                                        execution.isBatch() ? " for a batch of " + execution.getBatchSize() : "",
+                                        queries.isEmpty() ? "" : queries.get(0).getQuery());
+                            }
+                        })
+                        .build();
+            }
+        };
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer requestStatementsSessionListenerCustomizer() {
+        return properties -> properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, RequestStatements.SessionListener.class.getName());
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.pedroluiznogueira.testingapi.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTags;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// the record is left on the request so tests can assert how many round trips an endpoint takes
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "employee.statements", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class StatementCountFilter extends OncePerRequestFilter {
+
+    public static final String NAME = "employee.db";
+
+    private final EmployeeProperties.Statements properties;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public StatementCountFilter(EmployeeProperties employeeProperties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = employeeProperties.getStatements();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        final long startedNanos = System.nanoTime();
+        final RequestStatements statements = RequestStatements.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            statements.end(request.isAsyncStarted());
+            request.setAttribute(RequestStatements.ATTRIBUTE, statements);
+            record(request, response, statements, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos));
+        }
+    }
+
+    // async requests keep working after this returns, so they are left out rather than undercounted
+    private void record(final HttpServletRequest request, final HttpServletResponse response, final RequestStatements statements, final long elapsedMillis) {
+        if (statements.isAsync()) {
+            return;
+        }
+        meterRegistry.ifAvailable(registry -> {
+            final Tags tags = Tags.of(WebMvcTags.method(request), WebMvcTags.uri(request, response));
+            DistributionSummary.builder(NAME + ".statements")
+                    .description("Statements run per request")
+                    .tags(tags)
+                    .register(registry)
+                    .record(statements.getStatements());
+            Timer.builder(NAME + ".time")
+                    .description("Time spent running statements per request")
+                    .tags(tags)
+                    .register(registry)
+                    .record(statements.getDatabaseMillis(), TimeUnit.MILLISECONDS);
+        });
+        if (statements.getStatements() >= properties.getReportCount() || statements.getDatabaseMillis() >= properties.getReportTime().toMillis()) {
+            log.warn("{} {} ran {} statements ({} selects, {} inserts, {} updates, {} deletes, {} others) in {} ms of its {} ms, "
+                            + "second-level cache {} hits, {} misses, {} puts",
+                    request.getMethod(), request.getRequestURI(), statements.getStatements(), statements.getSelects(), statements.getInserts(),
+                    statements.getUpdates(), statements.getDeletes(), statements.getOthers(), statements.getDatabaseMillis(), elapsedMillis,
+                    statements.getCacheHits(), statements.getCacheMisses(), statements.getCachePuts());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.pedroluiznogueira.testingapi.controller;
+
+import com.github.pedroluiznogueira.testingapi.model.EmployeeChange;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeChangeFeed;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+// the sequence is the event id, so an EventSource that reconnects resumes through Last-Event-ID on its own
+class EmployeeChangeEmitter extends SseEmitter implements EmployeeChangeFeed.Sink {
+
+    EmployeeChangeEmitter() {
+        super(EmployeeController.NO_ASYNC_TIMEOUT);
+    }
+
+    @Override
+    public void sendChange(final EmployeeChange change) throws IOException {
+        send(event().id(change.getSequence().toString()).data(change, MediaType.APPLICATION_JSON));
+    }
+
+    @Override
+    public void sendHeartbeat() throws IOException {
+        send(event().comment("heartbeat"));
+    }
+}
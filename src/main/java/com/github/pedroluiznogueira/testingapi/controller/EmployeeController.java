@@ -1,49 +1,221 @@
 package com.github.pedroluiznogueira.testingapi.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.pedroluiznogueira.testingapi.exception.ResourceNotFoundException;
 import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.EmployeeChange;
+import com.github.pedroluiznogueira.testingapi.model.EmployeeField;
+import com.github.pedroluiznogueira.testingapi.model.EmployeePatch;
+import com.github.pedroluiznogueira.testingapi.model.bulk.BulkOperation;
+import com.github.pedroluiznogueira.testingapi.model.bulk.BulkResult;
+import com.github.pedroluiznogueira.testingapi.model.imports.ImportJob;
+import com.github.pedroluiznogueira.testingapi.model.ingestion.IngestionTicket;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeBulkService;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeChangeFeed;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeExportService;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeImportService;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeIngestionService;
 import com.github.pedroluiznogueira.testingapi.service.EmployeeService;
+import com.github.pedroluiznogueira.testingapi.service.IdempotencyService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @RestController
 @RequestMapping("/api/employees")
 public class EmployeeController {
 
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+    static final long NO_ASYNC_TIMEOUT = -1L;
+
     @Autowired
     private final EmployeeService employeeService;
 
-    public EmployeeController(EmployeeService employeeService) {
+    private final EmployeeBulkService employeeBulkService;
+    private final IdempotencyService idempotencyService;
+    private final EmployeeIngestionService employeeIngestionService;
+    private final EmployeeChangeFeed employeeChangeFeed;
+    private final EmployeeExportService employeeExportService;
+    private final EmployeeImportService employeeImportService;
+    private final ObjectMapper objectMapper;
+
+    public EmployeeController(EmployeeService employeeService, EmployeeBulkService employeeBulkService, IdempotencyService idempotencyService,
+                              EmployeeIngestionService employeeIngestionService, EmployeeChangeFeed employeeChangeFeed,
+                              EmployeeExportService employeeExportService, EmployeeImportService employeeImportService, ObjectMapper objectMapper) {
         this.employeeService = employeeService;
+        this.employeeBulkService = employeeBulkService;
+        this.idempotencyService = idempotencyService;
+        this.employeeIngestionService = employeeIngestionService;
+        this.employeeChangeFeed = employeeChangeFeed;
+        this.employeeExportService = employeeExportService;
+        this.employeeImportService = employeeImportService;
+        this.objectMapper = objectMapper;
     }
 
+    // a retried create with the same Idempotency-Key gets the first result back without reaching the service
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public Employee createEmployee(@RequestBody final Employee employee) {
-        return employeeService.createEmployee(employee);
+    public ResponseEntity<Employee> createEmployee(@RequestHeader(value = IdempotencyService.HEADER, required = false) final String idempotencyKey,
+                                                   @RequestBody final Employee employee) {
+        return idempotent(HttpStatus.CREATED, idempotencyService.execute("POST /api/employees", idempotencyKey, employee, Employee.class,
+                () -> employeeService.createEmployee(employee)));
     }
 
-    @GetMapping
+    @PostMapping(value = "/_bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public List<BulkResult> bulk(final InputStream body) throws IOException {
+        try (MappingIterator<BulkOperation> operations = objectMapper.readerFor(BulkOperation.class).readValues(body)) {
+            return employeeBulkService.applyStream(operations);
+        }
+    }
+
+    // the employee is only queued, the ticket behind the location tells when it was written and under which id
+    @PostMapping("/_ingest")
+    public ResponseEntity<IngestionTicket> ingestEmployee(@RequestBody final Employee employee) {
+        final IngestionTicket ticket = employeeIngestionService.submit(employee);
+        return ResponseEntity.accepted().location(URI.create("/api/employees/_ingest/" + ticket.getId())).body(ticket);
+    }
+
+    @GetMapping("/_ingest/{ticket}")
+    @ResponseStatus(HttpStatus.OK)
+    public IngestionTicket getIngestion(@PathVariable("ticket") final String ticket) {
+        return employeeIngestionService.getTicket(ticket).orElseThrow(() -> new ResourceNotFoundException("Ingestion", "ticket", ticket));
+    }
+
+    // the body is on disk once this answers, the job behind the location tells how far the import got
+    @PostMapping(value = "/_import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<ImportJob> importEmployees(@RequestHeader(HttpHeaders.CONTENT_TYPE) final String contentType,
+                                                     final InputStream body) throws IOException {
+        final ImportJob job = employeeImportService.submit(EmployeeImportService.Format.of(MediaType.parseMediaType(contentType)), body);
+        return ResponseEntity.accepted().location(URI.create("/api/employees/_import/" + job.getId())).body(job);
+    }
+
+    @GetMapping("/_import/{job}")
     @ResponseStatus(HttpStatus.OK)
-    public List<Employee> getEmployees() {
+    public ImportJob getImport(@PathVariable("job") final String job) {
+        return employeeImportService.getJob(job).orElseThrow(() -> new ResourceNotFoundException("Import", "job", job));
+    }
+
+    // parameters are checked before the first byte is written, after that a failure can only cut the export short
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportEmployees(@RequestParam(value = "format", required = false) final String format,
+                                                                 @RequestParam(value = "fields", required = false) final String fields,
+                                                                 @RequestParam(value = "partitions", required = false) final Integer partitions,
+                                                                 final HttpServletRequest request,
+                                                                 final HttpServletResponse response) {
+        log.info("export employees request received");
+        final EmployeeExportService.Format exportFormat = EmployeeExportService.Format.parse(format);
+        final Set<EmployeeField> exportFields = fields == null ? EnumSet.allOf(EmployeeField.class) : EmployeeField.parse(fields);
+        final int exportPartitions = employeeExportService.resolvePartitions(partitions);
+        final StreamingResponseBody body = outputStream -> employeeExportService.export(exportFormat, exportFields, exportPartitions, outputStream);
+        withoutAsyncTimeout(request, response);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("employees." + exportFormat.getExtension()).build().toString())
+                .body(body);
+    }
+
+    // a matching If-None-Match turns the ok response into a 304 before anything is serialized
+    @GetMapping
+    public ResponseEntity<List<?>> getEmployees(@RequestParam(value = "after", required = false) final Long after,
+                                                @RequestParam(value = "limit", required = false) final Integer limit,
+                                                @RequestParam(value = "fields", required = false) final String fields) {
         log.info("get employees request received");
-        return employeeService.getEmployees();
+        if (fields != null) {
+            final List<Map<String, Object>> employees = employeeService.getEmployees(after, limit, fields);
+            return conditional(EmployeeETags.ofProjection(employees, fields), employees);
+        }
+        final List<Employee> employees = employeeService.getEmployees(after, limit);
+        return conditional(EmployeeETags.ofPage(employees), employees);
     }
 
-    @GetMapping("/{id}")
+    @GetMapping("/search")
     @ResponseStatus(HttpStatus.OK)
-    public Employee getEmployeeById(@PathVariable ("id") final Long id) {
-        return employeeService.getEmployeeById(id);
+    public List<Employee> searchEmployees(@RequestParam("q") final String query,
+                                          @RequestParam(value = "limit", required = false) final Integer limit) {
+        return employeeService.searchEmployees(query, limit);
     }
 
-    @PutMapping
+    // both change endpoints assume a single instance, changes written through another one can be skipped
+    @GetMapping("/changes")
     @ResponseStatus(HttpStatus.OK)
-    public Employee updateEmployee(@RequestBody final Employee employee) {
-        return employeeService.updateEmployee(employee);
+    public List<EmployeeChange> getChanges(@RequestParam(value = "after", required = false) final Long after,
+                                           @RequestParam(value = "limit", required = false) final Integer limit) {
+        return employeeChangeFeed.getChanges(after, limit);
+    }
+
+    // Last-Event-ID wins over after, it is what an EventSource sends when it reconnects
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(value = "after", required = false) final Long after,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) final Long lastEventId) {
+        final EmployeeChangeEmitter emitter = new EmployeeChangeEmitter();
+        final EmployeeChangeFeed.Subscription subscription = employeeChangeFeed.subscribe(lastEventId != null ? lastEventId : after, emitter);
+        emitter.onCompletion(subscription::cancel);
+        emitter.onError(error -> subscription.cancel());
+        return emitter;
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamEmployees(final HttpServletRequest request, final HttpServletResponse response) {
+        log.info("stream employees request received");
+        final StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.writeStartArray();
+                employeeService.streamEmployees(employee -> writeEmployee(generator, employee));
+                generator.writeEndArray();
+            }
+        };
+        withoutAsyncTimeout(request, response);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // tagged from the cached employee, so a fresh client is answered without touching the database
+    @GetMapping("/{id}")
+    public ResponseEntity<Object> getEmployeeById(@PathVariable ("id") final Long id,
+                                                  @RequestParam(value = "fields", required = false) final String fields) {
+        final Employee employee = employeeService.getEmployeeById(id);
+        if (fields != null) {
+            return conditional(EmployeeETags.of(employee, fields), EmployeeField.project(employee, EmployeeField.parse(fields)));
+        }
+        return conditional(EmployeeETags.of(employee), employee);
+    }
+
+    @PutMapping
+    public ResponseEntity<Employee> updateEmployee(@RequestHeader(value = IdempotencyService.HEADER, required = false) final String idempotencyKey,
+                                                   @RequestBody final Employee employee) {
+        return idempotent(HttpStatus.OK, idempotencyService.execute("PUT /api/employees", idempotencyKey, employee, Employee.class,
+                () -> employeeService.updateEmployee(employee)));
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patchEmployee(@PathVariable ("id") final Long id,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) final String ifMatch,
+                                              @RequestBody final EmployeePatch patch) {
+        final Long version = employeeService.patchEmployee(id, patch, EmployeeETags.parseVersion(ifMatch));
+        return ResponseEntity.noContent().eTag(EmployeeETags.ofVersion(version)).build();
     }
 
     @DeleteMapping("/{id}")
@@ -51,4 +223,41 @@ public class EmployeeController {
     public void deleteEmployee(@PathVariable ("id") final Long id) {
         employeeService.deleteEmployee(id);
     }
+
+    @DeleteMapping(params = "ids")
+    @ResponseStatus(HttpStatus.OK)
+    public int deleteEmployees(@RequestParam("ids") final List<Long> ids) {
+        return employeeService.deleteEmployees(ids);
+    }
+
+    private <T> ResponseEntity<T> conditional(final String eTag, final T body) {
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        return response.body(body);
+    }
+
+    private <T> ResponseEntity<T> idempotent(final HttpStatus status, final IdempotencyService.Result<T> result) {
+        final ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        if (result.isReplayed()) {
+            response.header(IDEMPOTENT_REPLAYED, "true");
+        }
+        return response.body(result.getValue());
+    }
+
+    private void writeEmployee(final JsonGenerator generator, final Employee employee) {
+        try {
+            generator.writeObject(employee);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    // a streamed body takes as long as the table does, every other async request keeps the configured timeout
+    private static void withoutAsyncTimeout(final HttpServletRequest request, final HttpServletResponse response) {
+        final AsyncWebRequest asyncWebRequest = WebAsyncUtils.createAsyncWebRequest(request, response);
+        asyncWebRequest.setTimeout(NO_ASYNC_TIMEOUT);
+        WebAsyncUtils.getAsyncManager(request).setAsyncWebRequest(asyncWebRequest);
+    }
 }
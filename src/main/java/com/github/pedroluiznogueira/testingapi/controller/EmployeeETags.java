@@ -0,0 +1,80 @@
+package com.github.pedroluiznogueira.testingapi.controller;
+
+import com.github.pedroluiznogueira.testingapi.exception.InvalidRequestException;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.EmployeeField;
+
+import java.util.List;
+import java.util.Map;
+
+// an employee is tagged by its version, the same tag If-Match expects on a patch; projections and pages add a hash
+// of what they contain, which costs far less than serializing the body it lets us skip. tags are weak since they name
+// the json and not its bytes, which tomcat may gzip, and tomcat does not compress a response with a strong tag
+public final class EmployeeETags {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private EmployeeETags() {
+    }
+
+    public static String of(final Employee employee) {
+        return employee.getVersion() == null ? null : ofVersion(employee.getVersion());
+    }
+
+    public static String ofVersion(final Long version) {
+        return weak(version.toString());
+    }
+
+    public static String of(final Employee employee, final String fields) {
+        return employee.getVersion() == null ? null : weak(employee.getVersion() + "-" + Long.toHexString(mix(FNV_OFFSET, fields.hashCode())));
+    }
+
+    public static String ofPage(final List<Employee> employees) {
+        long hash = FNV_OFFSET;
+        for (Employee employee : employees) {
+            if (employee.getVersion() == null) {
+                return null;
+            }
+            hash = mix(hash, employee.getId());
+            hash = mix(hash, employee.getVersion());
+        }
+        return weak(Long.toHexString(hash));
+    }
+
+    public static String ofProjection(final List<Map<String, Object>> employees, final String fields) {
+        long hash = mix(FNV_OFFSET, fields.hashCode());
+        for (Map<String, Object> employee : employees) {
+            final Object id = employee.get(EmployeeField.ID.getAttribute());
+            final Object version = employee.get(EmployeeField.VERSION.getAttribute());
+            if (!(id instanceof Number) || !(version instanceof Number)) {
+                return null;
+            }
+            hash = mix(hash, ((Number) id).longValue());
+            hash = mix(hash, ((Number) version).longValue());
+        }
+        return weak(Long.toHexString(hash));
+    }
+
+    // "*" or a missing header means any version
+    public static Long parseVersion(final String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        final String tag = ifMatch.trim();
+        final String opaque = tag.startsWith("W/") ? tag.substring(2) : tag;
+        try {
+            return Long.valueOf(opaque.replace("\"", ""));
+        } catch (NumberFormatException exception) {
+            throw new InvalidRequestException("If-Match must be the etag of the employee version");
+        }
+    }
+
+    private static String weak(final String opaque) {
+        return "W/\"" + opaque + "\"";
+    }
+
+    private static long mix(final long hash, final long value) {
+        return (hash ^ value) * FNV_PRIME;
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.pedroluiznogueira.testingapi.event;
+
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import lombok.Value;
+
+// employee holds the state after the change and is null for deletes
+@Value
+public class EmployeeChangedEvent {
+    Type type;
+    Long id;
+    Employee employee;
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    public static EmployeeChangedEvent created(final Employee employee) {
+        return new EmployeeChangedEvent(Type.CREATED, employee.getId(), employee);
+    }
+
+    public static EmployeeChangedEvent updated(final Employee employee) {
+        return new EmployeeChangedEvent(Type.UPDATED, employee.getId(), employee);
+    }
+
+    public static EmployeeChangedEvent deleted(final Long id) {
+        return new EmployeeChangedEvent(Type.DELETED, id, null);
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.pedroluiznogueira.testingapi.exception;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// the changes after the requested sequence were already purged, the subscriber has to list the employees again
+@Value
+@EqualsAndHashCode(callSuper = true)
+@ResponseStatus(HttpStatus.GONE)
+public class ChangesExpiredException extends RuntimeException {
+    long after;
+    long oldest;
+
+    public ChangesExpiredException(long after, long oldest) {
+        super(null, null, false, false);
+        this.after = after;
+        this.oldest = oldest;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Changes after " + after + " are no longer kept, the oldest change is " + oldest;
+    }
+}
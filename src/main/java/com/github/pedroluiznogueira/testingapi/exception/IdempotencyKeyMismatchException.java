@@ -0,0 +1,24 @@
+package com.github.pedroluiznogueira.testingapi.exception;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// the key was already used for a different request, replaying its result would answer a question nobody asked
+@Value
+@EqualsAndHashCode(callSuper = true)
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyMismatchException extends RuntimeException {
+    String key;
+
+    public IdempotencyKeyMismatchException(String key) {
+        super(null, null, false, false);
+        this.key = key;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Idempotency-Key '" + key + "' was already used with a different request";
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.pedroluiznogueira.testingapi.exception;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// backpressure for feeds, thrown at the rate the queue overflows so it is as cheap as the other domain exceptions
+@Value
+@EqualsAndHashCode(callSuper = true)
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class IngestionQueueFullException extends RuntimeException {
+    int capacity;
+
+    public IngestionQueueFullException(int capacity) {
+        super(null, null, false, false);
+        this.capacity = capacity;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Ingestion queue is full with " + capacity + " employees waiting";
+    }
+}
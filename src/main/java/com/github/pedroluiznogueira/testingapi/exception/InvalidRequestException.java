@@ -0,0 +1,9 @@
+package com.github.pedroluiznogueira.testingapi.exception;
+
+// a parameter or body the api rejects, the message is written for the client and is the only 400 message echoed back
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message, null, false, false);
+    }
+}
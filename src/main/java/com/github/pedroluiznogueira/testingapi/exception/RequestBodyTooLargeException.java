@@ -0,0 +1,24 @@
+package com.github.pedroluiznogueira.testingapi.exception;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// unchecked like spring's MaxUploadSizeExceededException, so message converters let it through instead of wrapping it into a 400
+@Value
+@EqualsAndHashCode(callSuper = true)
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class RequestBodyTooLargeException extends RuntimeException {
+    long maxSize;
+
+    public RequestBodyTooLargeException(long maxSize) {
+        super(null, null, false, false);
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Request body inflates to more than " + maxSize + " bytes";
+    }
+}
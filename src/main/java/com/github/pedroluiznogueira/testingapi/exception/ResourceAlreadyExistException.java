@@ -5,18 +5,24 @@ import lombok.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+// a client error decided by a unique index, the stack trace would only ever point at the same save call
 @Value
 @EqualsAndHashCode(callSuper = true)
-@ResponseStatus(HttpStatus.BAD_REQUEST)
+@ResponseStatus(HttpStatus.CONFLICT)
 public class ResourceAlreadyExistException extends RuntimeException {
     String resourceName;
     String fieldName;
     String fieldValue;
 
     public ResourceAlreadyExistException(String resourceName, String fieldName, String fieldValue) {
-        super(String.format("%s with %s : '%s' already exists", resourceName, fieldName, fieldValue));
+        super(null, null, false, false);
         this.resourceName = resourceName;
         this.fieldName = fieldName;
         this.fieldValue = fieldValue;
     }
+
+    @Override
+    public String getMessage() {
+        return resourceName + " with " + fieldName + " : '" + fieldValue + "' already exists";
+    }
 }
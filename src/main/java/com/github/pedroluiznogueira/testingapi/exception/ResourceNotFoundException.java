@@ -1,18 +1,25 @@
 package com.github.pedroluiznogueira.testingapi.exception;
 
-
+import lombok.EqualsAndHashCode;
 import lombok.Value;
 
+// thrown for every missed lookup, so it carries no stack trace and builds its message only when asked
 @Value
+@EqualsAndHashCode(callSuper = true)
 public class ResourceNotFoundException extends RuntimeException {
     String resourceName;
     String fieldName;
     String fieldValue;
 
     public ResourceNotFoundException(String resourceName, String fieldName, String fieldValue) {
-        super(String.format("%s not found with %s : '%s'", resourceName, fieldName, fieldValue));
+        super(null, null, false, false);
         this.resourceName = resourceName;
         this.fieldName = fieldName;
         this.fieldValue = fieldValue;
     }
+
+    @Override
+    public String getMessage() {
+        return resourceName + " not found with " + fieldName + " : '" + fieldValue + "'";
+    }
 }
@@ -0,0 +1,30 @@
+package com.github.pedroluiznogueira.testingapi.exception;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// lost races on If-Match are expected under contention, so this one is stackless too
+@Value
+@EqualsAndHashCode(callSuper = true)
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class ResourceVersionMismatchException extends RuntimeException {
+    String resourceName;
+    String fieldName;
+    String fieldValue;
+    Long expectedVersion;
+
+    public ResourceVersionMismatchException(String resourceName, String fieldName, String fieldValue, Long expectedVersion) {
+        super(null, null, false, false);
+        this.resourceName = resourceName;
+        this.fieldName = fieldName;
+        this.fieldValue = fieldValue;
+        this.expectedVersion = expectedVersion;
+    }
+
+    @Override
+    public String getMessage() {
+        return resourceName + " with " + fieldName + " : '" + fieldValue + "' is not at version '" + expectedVersion + "'";
+    }
+}
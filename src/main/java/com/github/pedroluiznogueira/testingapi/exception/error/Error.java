@@ -3,13 +3,13 @@ package com.github.pedroluiznogueira.testingapi.exception.error;
 import lombok.Builder;
 import lombok.Value;
 
-import java.util.Date;
+import java.time.Instant;
 
+// an instant is written straight through DateTimeFormatter.ISO_INSTANT, a date goes through a cloned StdDateFormat and a calendar
 @Value
 @Builder
 public class Error {
-    Date timestamp;
+    Instant timestamp;
     String message;
     String detail;
 }
-
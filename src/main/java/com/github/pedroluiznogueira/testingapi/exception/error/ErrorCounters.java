@@ -0,0 +1,39 @@
+package com.github.pedroluiznogueira.testingapi.exception.error;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// one employee.errors counter per exception type, looked up by class so a handled error costs a map read and an add;
+// nothing is counted until a registry is bound, which keeps sliced tests without metrics working
+public class ErrorCounters {
+
+    public static final String NAME = "employee.errors";
+
+    private final Map<Class<?>, Counter> counters = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    public void bindTo(final MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void increment(final Throwable exception, final HttpStatus status) {
+        final MeterRegistry meterRegistry = registry;
+        if (meterRegistry == null) {
+            return;
+        }
+        final Counter counter = counters.get(exception.getClass());
+        if (counter != null) {
+            counter.increment();
+            return;
+        }
+        counters.computeIfAbsent(exception.getClass(), type -> Counter.builder(NAME)
+                .tag("exception", type.getSimpleName())
+                .tag("status", String.valueOf(status.value()))
+                .register(meterRegistry))
+                .increment();
+    }
+}
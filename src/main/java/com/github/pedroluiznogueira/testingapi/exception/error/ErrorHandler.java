@@ -1,24 +1,139 @@
 package com.github.pedroluiznogueira.testingapi.exception.error;
 
+import com.github.pedroluiznogueira.testingapi.exception.ChangesExpiredException;
+import com.github.pedroluiznogueira.testingapi.exception.IdempotencyKeyMismatchException;
+import com.github.pedroluiznogueira.testingapi.exception.IngestionQueueFullException;
+import com.github.pedroluiznogueira.testingapi.exception.InvalidRequestException;
+import com.github.pedroluiznogueira.testingapi.exception.RequestBodyTooLargeException;
+import com.github.pedroluiznogueira.testingapi.exception.ResourceAlreadyExistException;
+import com.github.pedroluiznogueira.testingapi.exception.ResourceNotFoundException;
+import com.github.pedroluiznogueira.testingapi.exception.ResourceVersionMismatchException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.bind.ServletRequestBindingException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 
-import java.util.Date;
+import java.time.Instant;
 
+// every expected failure has its own status, only what is left falls through to a 500 and gets its stack trace logged
+@Slf4j
 @ControllerAdvice
-public class ErrorHandler {
+public class ErrorHandler implements MeterBinder {
 
+    private final ErrorCounters errorCounters = new ErrorCounters();
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<Error> notFound(ResourceNotFoundException exception, WebRequest request) {
+        return error(HttpStatus.NOT_FOUND, exception, request);
+    }
+
+    @ExceptionHandler(ResourceAlreadyExistException.class)
+    public ResponseEntity<Error> alreadyExist(ResourceAlreadyExistException exception, WebRequest request) {
+        return error(HttpStatus.CONFLICT, exception, request);
+    }
+
+    @ExceptionHandler(ResourceVersionMismatchException.class)
+    public ResponseEntity<Error> versionMismatch(ResourceVersionMismatchException exception, WebRequest request) {
+        return error(HttpStatus.PRECONDITION_FAILED, exception, request);
+    }
+
+    // a put without If-Match lost the race to a concurrent write between reading the row and updating it,
+    // hibernate's message names the entity class so the client gets a fixed one
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Error> concurrentUpdate(OptimisticLockingFailureException exception, WebRequest request) {
+        return error(HttpStatus.CONFLICT, exception, "the resource was changed by a concurrent request, read it again and retry", request);
+    }
+
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<Error> idempotencyKeyMismatch(IdempotencyKeyMismatchException exception, WebRequest request) {
+        return error(HttpStatus.UNPROCESSABLE_ENTITY, exception, request);
+    }
+
+    @ExceptionHandler(ChangesExpiredException.class)
+    public ResponseEntity<Error> changesExpired(ChangesExpiredException exception, WebRequest request) {
+        return error(HttpStatus.GONE, exception, request);
+    }
+
+    // a hint for feeds, by then the writer has usually taken at least one batch off the queue
+    @ExceptionHandler(IngestionQueueFullException.class)
+    public ResponseEntity<Error> ingestionQueueFull(IngestionQueueFullException exception, WebRequest request) {
+        final ResponseEntity<Error> response = error(HttpStatus.TOO_MANY_REQUESTS, exception, request);
+        return ResponseEntity.status(response.getStatusCode()).header(HttpHeaders.RETRY_AFTER, "1").body(response.getBody());
+    }
+
+    @ExceptionHandler(RequestBodyTooLargeException.class)
+    public ResponseEntity<Error> requestBodyTooLarge(RequestBodyTooLargeException exception, WebRequest request) {
+        return error(HttpStatus.PAYLOAD_TOO_LARGE, exception, request);
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<Error> invalidRequest(InvalidRequestException exception, WebRequest request) {
+        return error(HttpStatus.BAD_REQUEST, exception, request);
+    }
+
+    // these messages come from parsers and converters and may name classes or internals, so they are not echoed
+    @ExceptionHandler({
+            IllegalArgumentException.class,
+            HttpMessageNotReadableException.class,
+            TypeMismatchException.class,
+            ServletRequestBindingException.class
+    })
+    public ResponseEntity<Error> badRequest(Exception exception, WebRequest request) {
+        return error(HttpStatus.BAD_REQUEST, exception, "invalid request", request);
+    }
+
+    @ExceptionHandler(HttpRequestMethodNotSupportedException.class)
+    public ResponseEntity<Error> methodNotAllowed(HttpRequestMethodNotSupportedException exception, WebRequest request) {
+        return error(HttpStatus.METHOD_NOT_ALLOWED, exception, request);
+    }
+
+    @ExceptionHandler(HttpMediaTypeNotSupportedException.class)
+    public ResponseEntity<Error> unsupportedMediaType(HttpMediaTypeNotSupportedException exception, WebRequest request) {
+        return error(HttpStatus.UNSUPPORTED_MEDIA_TYPE, exception, request);
+    }
+
+    // there is no representation the client accepts, so not even the error body can be written
+    @ExceptionHandler(HttpMediaTypeNotAcceptableException.class)
+    public ResponseEntity<Void> notAcceptable(HttpMediaTypeNotAcceptableException exception) {
+        errorCounters.increment(exception, HttpStatus.NOT_ACCEPTABLE);
+        return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+    }
+
+    // the details stay in the log, an unexpected message may name tables, queries or hosts
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Error> global(Exception exception, WebRequest request) {
-        Error error = Error.builder()
-                .timestamp(new Date())
-                .message(exception.getMessage())
+        log.error("unexpected error on {}", request.getDescription(false), exception);
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, exception, "unexpected error", request);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        errorCounters.bindTo(registry);
+    }
+
+    private ResponseEntity<Error> error(final HttpStatus status, final Exception exception, final WebRequest request) {
+        return error(status, exception, exception.getMessage(), request);
+    }
+
+    private ResponseEntity<Error> error(final HttpStatus status, final Exception exception, final String message, final WebRequest request) {
+        errorCounters.increment(exception, status);
+        final Error error = Error.builder()
+                .timestamp(Instant.now())
+                .message(message)
                 .detail(request.getDescription(false))
                 .build();
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        return ResponseEntity.status(status).body(error);
     }
-
 }
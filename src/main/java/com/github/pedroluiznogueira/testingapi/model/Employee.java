@@ -4,16 +4,24 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
+import java.util.Locale;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = Employee.EMAIL_CONSTRAINT, columnNames = "email"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Employee.CACHE_REGION)
 public class Employee {
 
+    public static final String EMAIL_CONSTRAINT = "uk_employee_email";
+    public static final String CACHE_REGION = "employee";
+
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
@@ -25,4 +33,13 @@ public class Employee {
 
     @Column(nullable = false)
     private String email;
+
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
+    // mysql's unique index compares emails case-insensitively, so checks made in memory compare them the same way
+    public static String normalizeEmail(final String email) {
+        return email == null ? null : email.toLowerCase(Locale.ROOT);
+    }
 }
@@ -0,0 +1,59 @@
+package com.github.pedroluiznogueira.testingapi.model;
+
+import com.github.pedroluiznogueira.testingapi.event.EmployeeChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+// the employee columns hold the state after the change, only the patched ones for patches and none for deletes
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "employee_change", indexes = @Index(name = "ix_employee_change_changed_at", columnList = "changed_at"))
+public class EmployeeChange {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "seq")
+    private Long sequence;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private EmployeeChangedEvent.Type type;
+
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+
+    @Column(name = "first_name")
+    private String firstName;
+
+    @Column(name = "second_name")
+    private String secondName;
+
+    private String email;
+
+    private Long version;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    public static EmployeeChange of(final EmployeeChangedEvent event) {
+        final EmployeeChangeBuilder change = EmployeeChange.builder()
+                .type(event.getType())
+                .employeeId(event.getId())
+                .changedAt(Instant.now());
+        final Employee employee = event.getEmployee();
+        if (employee != null) {
+            change.firstName(employee.getFirstName())
+                    .secondName(employee.getSecondName())
+                    .email(employee.getEmail())
+                    .version(employee.getVersion());
+        }
+        return change.build();
+    }
+}
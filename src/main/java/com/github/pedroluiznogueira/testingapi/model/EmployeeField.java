@@ -0,0 +1,52 @@
+package com.github.pedroluiznogueira.testingapi.model;
+
+import com.github.pedroluiznogueira.testingapi.exception.InvalidRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+@Getter
+@AllArgsConstructor
+public enum EmployeeField {
+    ID("id", Employee::getId),
+    FIRST_NAME("firstName", Employee::getFirstName),
+    SECOND_NAME("secondName", Employee::getSecondName),
+    EMAIL("email", Employee::getEmail),
+    VERSION("version", Employee::getVersion);
+
+    private final String attribute;
+    private final Function<Employee, Object> accessor;
+
+    // "email,firstName" keeps the requested order, which is also the order the fields are serialized in
+    public static Set<EmployeeField> parse(final String fields) {
+        final Set<EmployeeField> parsed = new LinkedHashSet<>();
+        for (String name : fields.split(",")) {
+            final String attribute = name.trim();
+            if (attribute.isEmpty()) {
+                continue;
+            }
+            parsed.add(Arrays.stream(values())
+                    .filter(field -> field.attribute.equals(attribute))
+                    .findFirst()
+                    .orElseThrow(() -> new InvalidRequestException(String.format("unknown field '%s'", attribute))));
+        }
+        if (parsed.isEmpty()) {
+            throw new InvalidRequestException("fields must not be empty");
+        }
+        return parsed;
+    }
+
+    public static Map<String, Object> project(final Employee employee, final Set<EmployeeField> fields) {
+        final Map<String, Object> values = new LinkedHashMap<>();
+        for (EmployeeField field : fields) {
+            values.put(field.getAttribute(), field.getAccessor().apply(employee));
+        }
+        return values;
+    }
+}
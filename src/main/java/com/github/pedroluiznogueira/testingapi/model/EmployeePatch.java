@@ -0,0 +1,17 @@
+package com.github.pedroluiznogueira.testingapi.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// null fields are left untouched
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmployeePatch {
+    private String firstName;
+    private String secondName;
+    private String email;
+}
@@ -0,0 +1,32 @@
+package com.github.pedroluiznogueira.testingapi.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "idempotency_record", indexes = @Index(name = "ix_idempotency_record_created_at", columnList = "created_at"))
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "idempotency_key", length = 320)
+    private String key;
+
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    @Lob
+    @Column(nullable = false)
+    private String body;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,22 @@
+package com.github.pedroluiznogueira.testingapi.model.bulk;
+
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BulkOperation {
+
+    private Type type;
+    private Long id;
+    private Employee employee;
+
+    public enum Type {
+        CREATE, UPDATE, DELETE
+    }
+}
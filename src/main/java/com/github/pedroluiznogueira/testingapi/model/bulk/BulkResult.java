@@ -0,0 +1,19 @@
+package com.github.pedroluiznogueira.testingapi.model.bulk;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BulkResult {
+
+    private int index;
+    private BulkOperation.Type type;
+    private Long id;
+    private int status;
+    private String error;
+}
@@ -0,0 +1,31 @@
+package com.github.pedroluiznogueira.testingapi.model.imports;
+
+import com.github.pedroluiznogueira.testingapi.model.bulk.BulkResult;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+
+// immutable like the ingestion ticket, the worker swaps in a new copy after every chunk;
+// errors holds the first rejected rows only, rejected counts all of them
+@Value
+@Builder(toBuilder = true)
+public class ImportJob {
+
+    String id;
+    State state;
+    String format;
+    long processed;
+    long created;
+    long rejected;
+    List<BulkResult> errors;
+    String error;
+    Instant acceptedAt;
+    Instant startedAt;
+    Instant finishedAt;
+
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.pedroluiznogueira.testingapi.model.ingestion;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+// immutable so the writer can swap a new state in while request threads read the old one
+@Value
+@Builder(toBuilder = true)
+public class IngestionTicket {
+
+    String id;
+    State state;
+    Long employeeId;
+    Integer status;
+    String error;
+    Instant acceptedAt;
+    Instant writtenAt;
+
+    public enum State {
+        QUEUED, WRITTEN, FAILED
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.pedroluiznogueira.testingapi.repository;
+
+import com.github.pedroluiznogueira.testingapi.model.EmployeeChange;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+// runs on the write's connection, so the changes commit or roll back together with it
+@Repository
+public class EmployeeChangeJdbcRepository {
+
+    private static final String INSERT = "insert into employee_change (type, employee_id, first_name, second_name, email, version, changed_at) "
+            + "values (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EmployeeChangeJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Timed("employee.jdbc")
+    public List<EmployeeChange> insertAll(final List<EmployeeChange> changes) {
+        return jdbcTemplate.execute((ConnectionCallback<List<EmployeeChange>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                for (EmployeeChange change : changes) {
+                    statement.setString(1, change.getType().name());
+                    statement.setLong(2, change.getEmployeeId());
+                    statement.setString(3, change.getFirstName());
+                    statement.setString(4, change.getSecondName());
+                    statement.setString(5, change.getEmail());
+                    statement.setObject(6, change.getVersion(), Types.BIGINT);
+                    statement.setTimestamp(7, Timestamp.from(change.getChangedAt()));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    for (EmployeeChange change : changes) {
+                        if (!keys.next()) {
+                            throw new SQLException(String.format("expected %d generated keys", changes.size()));
+                        }
+                        change.setSequence(keys.getLong(1));
+                    }
+                }
+                return changes;
+            }
+        });
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.pedroluiznogueira.testingapi.repository;
+
+import com.github.pedroluiznogueira.testingapi.model.EmployeeChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface EmployeeChangeRepository extends JpaRepository<EmployeeChange, Long> {
+
+    List<EmployeeChange> findBySequenceGreaterThanAndSequenceLessThanEqualOrderBySequenceAsc(final Long after, final Long upTo, final Pageable pageable);
+
+    @Query("select min(c.sequence) from EmployeeChange c")
+    Long findMinSequence();
+
+    @Query("select max(c.sequence) from EmployeeChange c")
+    Long findMaxSequence();
+
+    @Transactional
+    @Modifying
+    @Query("delete from EmployeeChange c where c.changedAt < ?1")
+    int deleteByChangedAtBefore(final Instant changedAt);
+}
@@ -0,0 +1,213 @@
+package com.github.pedroluiznogueira.testingapi.repository;
+
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.EmployeePatch;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+
+@Repository
+public class EmployeeJdbcRepository {
+
+    private static final String INSERT = "insert into employee (first_name, second_name, email) values (?, ?, ?)";
+    private static final String UPDATE = "update employee set first_name = ?, second_name = ?, email = ?, version = version + 1 where id = ?";
+    private static final String DELETE = "delete from employee where id = ?";
+    private static final String DELETE_BY_IDS = "delete from employee where id in (:ids)";
+    private static final String FIND_IDS_BY_EMAIL = "select id, email from employee where email in (:emails)";
+    private static final String FIND_EMAILS = "select email from employee";
+    private static final String FIND_ALL = "select id, first_name, second_name, email, version from employee";
+    private static final String FIND_BY_ID = FIND_ALL + " where id = ?";
+    private static final String FIND_BY_IDS = FIND_ALL + " where id in (:ids)";
+    private static final String FIND_VERSION_BY_ID = "select version from employee where id = ?";
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public EmployeeJdbcRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    @Timed("employee.jdbc")
+    public List<Long> insertAll(final List<Employee> employees) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                for (Employee employee : employees) {
+                    statement.setString(1, employee.getFirstName());
+                    statement.setString(2, employee.getSecondName());
+                    statement.setString(3, employee.getEmail());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                return generatedIds(statement, employees.size());
+            }
+        });
+    }
+
+    @Timed("employee.jdbc")
+    public int[] updateAll(final List<Employee> employees) {
+        return jdbcTemplate.batchUpdate(UPDATE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                final Employee employee = employees.get(i);
+                statement.setString(1, employee.getFirstName());
+                statement.setString(2, employee.getSecondName());
+                statement.setString(3, employee.getEmail());
+                statement.setLong(4, employee.getId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return employees.size();
+            }
+        });
+    }
+
+    @Timed("employee.jdbc")
+    public int deleteById(final Long id) {
+        return jdbcTemplate.update(DELETE, id);
+    }
+
+    @Timed("employee.jdbc")
+    public int deleteByIdIn(final Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return namedParameterJdbcTemplate.update(DELETE_BY_IDS, new MapSqlParameterSource("ids", ids));
+    }
+
+    @Timed("employee.jdbc")
+    public int[] deleteAllById(final List<Long> ids) {
+        return jdbcTemplate.batchUpdate(DELETE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                statement.setLong(1, ids.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ids.size();
+            }
+        });
+    }
+
+    // only the columns present in the patch are written, the version check makes it a compare-and-set in one statement
+    @Timed("employee.jdbc")
+    public int patch(final Long id, final EmployeePatch patch, final Long expectedVersion) {
+        final StringJoiner assignments = new StringJoiner(", ", "update employee set ", "");
+        final MapSqlParameterSource parameters = new MapSqlParameterSource("id", id);
+        if (patch.getFirstName() != null) {
+            assignments.add("first_name = :firstName");
+            parameters.addValue("firstName", patch.getFirstName());
+        }
+        if (patch.getSecondName() != null) {
+            assignments.add("second_name = :secondName");
+            parameters.addValue("secondName", patch.getSecondName());
+        }
+        if (patch.getEmail() != null) {
+            assignments.add("email = :email");
+            parameters.addValue("email", patch.getEmail());
+        }
+        assignments.add("version = version + 1");
+        final StringBuilder sql = new StringBuilder(assignments.toString()).append(" where id = :id");
+        if (expectedVersion != null) {
+            sql.append(" and version = :version");
+            parameters.addValue("version", expectedVersion);
+        }
+        return namedParameterJdbcTemplate.update(sql.toString(), parameters);
+    }
+
+    @Timed("employee.jdbc")
+    public Optional<Employee> findById(final Long id) {
+        return jdbcTemplate.query(FIND_BY_ID, (resultSet, rowNum) -> toEmployee(resultSet), id).stream().findFirst();
+    }
+
+    @Timed("employee.jdbc")
+    public List<Employee> findAllById(final Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return namedParameterJdbcTemplate.query(FIND_BY_IDS, new MapSqlParameterSource("ids", ids), (resultSet, rowNum) -> toEmployee(resultSet));
+    }
+
+    @Timed("employee.jdbc")
+    public Optional<Long> findVersionById(final Long id) {
+        return jdbcTemplate.query(FIND_VERSION_BY_ID, (resultSet, rowNum) -> resultSet.getLong(1), id).stream().findFirst();
+    }
+
+    @Timed("employee.jdbc")
+    public Map<String, Long> findIdsByEmail(final Collection<String> emails) {
+        final Map<String, Long> ids = new HashMap<>();
+        if (emails.isEmpty()) {
+            return ids;
+        }
+        namedParameterJdbcTemplate.query(FIND_IDS_BY_EMAIL, new MapSqlParameterSource("emails", emails),
+                (ResultSet resultSet) -> {
+                    ids.put(resultSet.getString("email"), resultSet.getLong("id"));
+                });
+        return ids;
+    }
+
+    @Timed("employee.jdbc")
+    public void forEachEmail(final Consumer<String> consumer) {
+        jdbcTemplate.query(connection -> {
+            final PreparedStatement statement = connection.prepareStatement(FIND_EMAILS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, (ResultSet resultSet) -> {
+            consumer.accept(resultSet.getString(1));
+        });
+    }
+
+    @Timed("employee.jdbc")
+    public void forEachEmployee(final Consumer<Employee> consumer) {
+        jdbcTemplate.query(connection -> {
+            final PreparedStatement statement = connection.prepareStatement(FIND_ALL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, (ResultSet resultSet) -> {
+            consumer.accept(toEmployee(resultSet));
+        });
+    }
+
+    private Employee toEmployee(final ResultSet resultSet) throws SQLException {
+        return Employee.builder()
+                .id(resultSet.getLong("id"))
+                .firstName(resultSet.getString("first_name"))
+                .secondName(resultSet.getString("second_name"))
+                .email(resultSet.getString("email"))
+                .version(resultSet.getLong("version"))
+                .build();
+    }
+
+    private List<Long> generatedIds(final PreparedStatement statement, final int expected) throws SQLException {
+        final List<Long> ids = new ArrayList<>(expected);
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            while (keys.next()) {
+                ids.add(keys.getLong(1));
+            }
+        }
+        if (ids.size() != expected) {
+            throw new SQLException(String.format("expected %d generated keys but got %d", expected, ids.size()));
+        }
+        return ids;
+    }
+}
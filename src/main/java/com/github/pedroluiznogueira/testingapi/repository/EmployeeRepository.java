@@ -1,17 +1,39 @@
 package com.github.pedroluiznogueira.testingapi.repository;
 
 import com.github.pedroluiznogueira.testingapi.model.Employee;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeRepositoryCustom {
 
     Optional<Employee> findByEmail(final String email);
 
+    List<Employee> findByFirstNameStartingWithIgnoreCaseOrSecondNameStartingWithIgnoreCaseOrderByIdAsc(final String firstName, final String secondName, final Pageable pageable);
+
+    List<Employee> findByIdGreaterThanOrderByIdAsc(final Long id, final Pageable pageable);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select e from Employee e order by e.id")
+    Stream<Employee> streamAll();
+
+    @Query("select min(e.id) from Employee e")
+    Long findMinId();
+
+    @Query("select max(e.id) from Employee e")
+    Long findMaxId();
+
     @Query("select e from Employee e where e.firstName = ?1 and e.secondName = ?2")
     Optional<Employee> findByJPQL(final String firstName, final String secondName);
 
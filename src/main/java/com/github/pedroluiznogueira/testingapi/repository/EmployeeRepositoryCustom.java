@@ -0,0 +1,16 @@
+package com.github.pedroluiznogueira.testingapi.repository;
+
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.EmployeeField;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public interface EmployeeRepositoryCustom {
+
+    List<Map<String, Object>> findFieldsByIdGreaterThan(final Set<EmployeeField> fields, final Long id, final int limit);
+
+    void scrollByIdRange(final long fromId, final long toId, final int fetchSize, final Consumer<Employee> consumer);
+}
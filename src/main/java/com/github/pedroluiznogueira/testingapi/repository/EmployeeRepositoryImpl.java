@@ -0,0 +1,75 @@
+package com.github.pedroluiznogueira.testingapi.repository;
+
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.EmployeeField;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+// selects only the requested columns as tuples, nothing is managed by the persistence context
+public class EmployeeRepositoryImpl implements EmployeeRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findFieldsByIdGreaterThan(final Set<EmployeeField> fields, final Long id, final int limit) {
+        final CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        final CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        final Root<Employee> employee = query.from(Employee.class);
+        final List<Selection<?>> selections = fields.stream()
+                .map(field -> employee.get(field.getAttribute()).alias(field.getAttribute()))
+                .collect(Collectors.toList());
+        query.multiselect(selections)
+                .where(criteriaBuilder.greaterThan(employee.get("id"), id))
+                .orderBy(criteriaBuilder.asc(employee.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultStream()
+                .map(tuple -> toMap(fields, tuple))
+                .collect(Collectors.toList());
+    }
+
+    // a forward-only cursor, with useCursorFetch mysql sends fetchSize rows at a time instead of the whole result,
+    // and every employee is evicted once consumed so the session stays empty however many rows go by
+    @Override
+    public void scrollByIdRange(final long fromId, final long toId, final int fetchSize, final Consumer<Employee> consumer) {
+        final Session session = entityManager.unwrap(Session.class);
+        try (ScrollableResults results = session.createQuery("select e from Employee e where e.id >= :fromId and e.id < :toId order by e.id", Employee.class)
+                .setParameter("fromId", fromId)
+                .setParameter("toId", toId)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                final Employee employee = (Employee) results.get(0);
+                consumer.accept(employee);
+                session.evict(employee);
+            }
+        }
+    }
+
+    private static Map<String, Object> toMap(final Set<EmployeeField> fields, final Tuple tuple) {
+        final Map<String, Object> values = new LinkedHashMap<>();
+        for (EmployeeField field : fields) {
+            values.put(field.getAttribute(), tuple.get(field.getAttribute()));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,331 @@
+package com.github.pedroluiznogueira.testingapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.github.pedroluiznogueira.testingapi.config.EmployeeProperties;
+import com.github.pedroluiznogueira.testingapi.event.EmployeeChangedEvent;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.bulk.BulkOperation;
+import com.github.pedroluiznogueira.testingapi.model.bulk.BulkResult;
+import com.github.pedroluiznogueira.testingapi.repository.EmployeeJdbcRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class EmployeeBulkService {
+
+    private final EmployeeJdbcRepository employeeJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EmployeeProperties employeeProperties;
+    private final EmployeeEmailFilter employeeEmailFilter;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public EmployeeBulkService(EmployeeJdbcRepository employeeJdbcRepository, PlatformTransactionManager transactionManager, EmployeeProperties employeeProperties,
+                               EmployeeEmailFilter employeeEmailFilter, ApplicationEventPublisher eventPublisher) {
+        this.employeeJdbcRepository = employeeJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.employeeProperties = employeeProperties;
+        this.employeeEmailFilter = employeeEmailFilter;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Timed("employee.service")
+    public List<BulkResult> apply(final Iterator<BulkOperation> operations) {
+        final List<BulkResult> results = new ArrayList<>();
+        final List<BulkOperation> chunk = new ArrayList<>(employeeProperties.getBulk().getChunkSize());
+        while (operations.hasNext()) {
+            add(chunk, operations.next(), results);
+        }
+        applyPending(chunk, results);
+        return results;
+    }
+
+    // a malformed line ends the body, the chunks read before it are still applied
+    @Timed("employee.service")
+    public List<BulkResult> applyStream(final MappingIterator<BulkOperation> operations) {
+        final List<BulkResult> results = new ArrayList<>();
+        final List<BulkOperation> chunk = new ArrayList<>(employeeProperties.getBulk().getChunkSize());
+        try {
+            while (operations.hasNextValue()) {
+                add(chunk, operations.nextValue(), results);
+            }
+        } catch (IOException exception) {
+            applyPending(chunk, results);
+            final String reason = exception instanceof JsonProcessingException
+                    ? ((JsonProcessingException) exception).getOriginalMessage()
+                    : exception.getMessage();
+            results.add(failed(results.size(), null, null, HttpStatus.BAD_REQUEST, "operation is malformed: " + reason));
+            return results;
+        }
+        applyPending(chunk, results);
+        return results;
+    }
+
+    private void add(final List<BulkOperation> chunk, final BulkOperation operation, final List<BulkResult> results) {
+        chunk.add(operation);
+        if (chunk.size() == employeeProperties.getBulk().getChunkSize()) {
+            applyPending(chunk, results);
+        }
+    }
+
+    private void applyPending(final List<BulkOperation> chunk, final List<BulkResult> results) {
+        if (!chunk.isEmpty()) {
+            results.addAll(applyChunk(chunk, results.size()));
+            chunk.clear();
+        }
+    }
+
+    // each chunk commits on its own, a failing chunk is reported per item and the next chunks still run
+    private List<BulkResult> applyChunk(final List<BulkOperation> chunk, final int offset) {
+        try {
+            return transactionTemplate.execute(status -> publish(chunk, applyRuns(chunk, offset, true)));
+        } catch (DataIntegrityViolationException exception) {
+            // the filter can be stale, so the chunk is retried once against the database only
+            return applyChunkWithoutFilter(chunk, offset, exception);
+        } catch (DataAccessException exception) {
+            return failedChunk(chunk, offset, exception);
+        }
+    }
+
+    private List<BulkResult> applyChunkWithoutFilter(final List<BulkOperation> chunk, final int offset, final DataIntegrityViolationException cause) {
+        if (!employeeProperties.getEmailFilter().isEnabled()) {
+            return failedChunk(chunk, offset, cause);
+        }
+        try {
+            return transactionTemplate.execute(status -> publish(chunk, applyRuns(chunk, offset, false)));
+        } catch (DataAccessException exception) {
+            return failedChunk(chunk, offset, exception);
+        }
+    }
+
+    // created and updated rows are read back in the chunk's transaction, so their events carry the stored version
+    private List<BulkResult> publish(final List<BulkOperation> chunk, final List<BulkResult> results) {
+        final List<Long> writtenIds = results.stream()
+                .filter(result -> result.getError() == null && result.getType() != BulkOperation.Type.DELETE)
+                .map(BulkResult::getId)
+                .collect(Collectors.toList());
+        final Map<Long, Employee> written = employeeJdbcRepository.findAllById(writtenIds).stream()
+                .collect(Collectors.toMap(Employee::getId, Function.identity()));
+        for (final BulkResult result : results) {
+            if (result.getError() == null) {
+                eventPublisher.publishEvent(changedEvent(result, written));
+            }
+        }
+        return results;
+    }
+
+    private EmployeeChangedEvent changedEvent(final BulkResult result, final Map<Long, Employee> written) {
+        switch (result.getType()) {
+            case CREATE:
+                return EmployeeChangedEvent.created(written.get(result.getId()));
+            case UPDATE:
+                return EmployeeChangedEvent.updated(written.get(result.getId()));
+            default:
+                return EmployeeChangedEvent.deleted(result.getId());
+        }
+    }
+
+    private List<BulkResult> failedChunk(final List<BulkOperation> chunk, final int offset, final DataAccessException exception) {
+        log.warn("bulk chunk starting at {} rolled back", offset, exception);
+        final boolean conflict = exception instanceof DataIntegrityViolationException;
+        final HttpStatus status = conflict ? HttpStatus.CONFLICT : HttpStatus.INTERNAL_SERVER_ERROR;
+        final String error = conflict ? "chunk rolled back: data integrity violation" : "chunk rolled back: unexpected error";
+        final List<BulkResult> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            results.add(failed(offset + i, chunk.get(i).getType(), idOf(chunk.get(i)), status, error));
+        }
+        return results;
+    }
+
+    // consecutive operations of the same type go out as one JDBC batch, so the original order is preserved
+    private List<BulkResult> applyRuns(final List<BulkOperation> chunk, final int offset, final boolean useEmailFilter) {
+        final List<BulkResult> results = new ArrayList<>(chunk.size());
+        int start = 0;
+        while (start < chunk.size()) {
+            final BulkOperation.Type type = chunk.get(start).getType();
+            int end = start + 1;
+            while (end < chunk.size() && chunk.get(end).getType() == type) {
+                end++;
+            }
+            final List<BulkOperation> run = chunk.subList(start, end);
+            if (type == null) {
+                for (int i = 0; i < run.size(); i++) {
+                    results.add(failed(offset + start + i, null, idOf(run.get(i)), HttpStatus.BAD_REQUEST, "operation type is required"));
+                }
+            } else {
+                switch (type) {
+                    case CREATE:
+                        results.addAll(applyCreates(run, offset + start, useEmailFilter));
+                        break;
+                    case UPDATE:
+                        results.addAll(applyUpdates(run, offset + start, useEmailFilter));
+                        break;
+                    case DELETE:
+                        results.addAll(applyDeletes(run, offset + start));
+                        break;
+                }
+            }
+            start = end;
+        }
+        return results;
+    }
+
+    private List<BulkResult> applyCreates(final List<BulkOperation> run, final int offset, final boolean useEmailFilter) {
+        final BulkResult[] results = new BulkResult[run.size()];
+        final Map<String, Long> existingIds = findIdsByEmail(run, useEmailFilter);
+        final Set<String> seenEmails = new HashSet<>();
+        final List<Employee> employeesToInsert = new ArrayList<>();
+        final List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < run.size(); i++) {
+            final Employee employee = run.get(i).getEmployee();
+            if (!isComplete(employee)) {
+                results[i] = failed(offset + i, BulkOperation.Type.CREATE, null, HttpStatus.BAD_REQUEST, "firstName, secondName and email are required");
+            } else if (existingIds.containsKey(Employee.normalizeEmail(employee.getEmail())) || !seenEmails.add(Employee.normalizeEmail(employee.getEmail()))) {
+                results[i] = failed(offset + i, BulkOperation.Type.CREATE, null, HttpStatus.CONFLICT, alreadyExists(employee.getEmail()));
+            } else {
+                employeesToInsert.add(employee);
+                positions.add(i);
+            }
+        }
+        if (!employeesToInsert.isEmpty()) {
+            final List<Long> ids = employeeJdbcRepository.insertAll(employeesToInsert);
+            for (int k = 0; k < positions.size(); k++) {
+                final int i = positions.get(k);
+                results[i] = succeeded(offset + i, BulkOperation.Type.CREATE, ids.get(k), HttpStatus.CREATED);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private List<BulkResult> applyUpdates(final List<BulkOperation> run, final int offset, final boolean useEmailFilter) {
+        final BulkResult[] results = new BulkResult[run.size()];
+        final Map<String, Long> existingIds = findIdsByEmail(run, useEmailFilter);
+        final Map<String, Long> claimedEmails = new HashMap<>();
+        final List<Employee> employeesToUpdate = new ArrayList<>();
+        final List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < run.size(); i++) {
+            final Long id = idOf(run.get(i));
+            final Employee employee = run.get(i).getEmployee();
+            if (id == null || !isComplete(employee)) {
+                results[i] = failed(offset + i, BulkOperation.Type.UPDATE, id, HttpStatus.BAD_REQUEST, "id, firstName, secondName and email are required");
+                continue;
+            }
+            final String email = Employee.normalizeEmail(employee.getEmail());
+            final Long owner = existingIds.getOrDefault(email, id);
+            final Long claimant = claimedEmails.putIfAbsent(email, id);
+            if (!owner.equals(id) || (claimant != null && !claimant.equals(id))) {
+                results[i] = failed(offset + i, BulkOperation.Type.UPDATE, id, HttpStatus.CONFLICT, alreadyExists(employee.getEmail()));
+                continue;
+            }
+            employeesToUpdate.add(Employee.builder()
+                    .id(id)
+                    .firstName(employee.getFirstName())
+                    .secondName(employee.getSecondName())
+                    .email(employee.getEmail())
+                    .build());
+            positions.add(i);
+        }
+        if (!employeesToUpdate.isEmpty()) {
+            final int[] counts = employeeJdbcRepository.updateAll(employeesToUpdate);
+            for (int k = 0; k < positions.size(); k++) {
+                final int i = positions.get(k);
+                final Long id = employeesToUpdate.get(k).getId();
+                results[i] = counts[k] == 0
+                        ? failed(offset + i, BulkOperation.Type.UPDATE, id, HttpStatus.NOT_FOUND, notFound(id))
+                        : succeeded(offset + i, BulkOperation.Type.UPDATE, id, HttpStatus.OK);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private List<BulkResult> applyDeletes(final List<BulkOperation> run, final int offset) {
+        final BulkResult[] results = new BulkResult[run.size()];
+        final List<Long> idsToDelete = new ArrayList<>();
+        final List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < run.size(); i++) {
+            final Long id = idOf(run.get(i));
+            if (id == null) {
+                results[i] = failed(offset + i, BulkOperation.Type.DELETE, null, HttpStatus.BAD_REQUEST, "id is required");
+            } else {
+                idsToDelete.add(id);
+                positions.add(i);
+            }
+        }
+        if (!idsToDelete.isEmpty()) {
+            final int[] counts = employeeJdbcRepository.deleteAllById(idsToDelete);
+            for (int k = 0; k < positions.size(); k++) {
+                final int i = positions.get(k);
+                final Long id = idsToDelete.get(k);
+                results[i] = counts[k] == 0
+                        ? failed(offset + i, BulkOperation.Type.DELETE, id, HttpStatus.NOT_FOUND, notFound(id))
+                        : succeeded(offset + i, BulkOperation.Type.DELETE, id, HttpStatus.OK);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    // keyed by normalized email, whatever case the rows were stored in
+    private Map<String, Long> findIdsByEmail(final List<BulkOperation> run, final boolean useEmailFilter) {
+        final Set<String> emails = run.stream()
+                .map(BulkOperation::getEmployee)
+                .filter(this::isComplete)
+                .map(Employee::getEmail)
+                .filter(email -> !useEmailFilter || employeeEmailFilter.mightContain(email))
+                .collect(Collectors.toSet());
+        final Map<String, Long> ids = new HashMap<>();
+        if (!emails.isEmpty()) {
+            employeeJdbcRepository.findIdsByEmail(emails).forEach((email, id) -> ids.put(Employee.normalizeEmail(email), id));
+        }
+        return ids;
+    }
+
+    private Long idOf(final BulkOperation operation) {
+        if (operation.getId() != null || operation.getEmployee() == null) {
+            return operation.getId();
+        }
+        return operation.getEmployee().getId();
+    }
+
+    private boolean isComplete(final Employee employee) {
+        return employee != null
+                && employee.getFirstName() != null
+                && employee.getSecondName() != null
+                && employee.getEmail() != null;
+    }
+
+    private String alreadyExists(final String email) {
+        return "Employee with email : '" + email + "' already exists";
+    }
+
+    private String notFound(final Long id) {
+        return "Employee not found with id : '" + id + "'";
+    }
+
+    private BulkResult succeeded(final int index, final BulkOperation.Type type, final Long id, final HttpStatus status) {
+        return BulkResult.builder().index(index).type(type).id(id).status(status.value()).build();
+    }
+
+    private BulkResult failed(final int index, final BulkOperation.Type type, final Long id, final HttpStatus status, final String error) {
+        return BulkResult.builder().index(index).type(type).id(id).status(status.value()).error(error).build();
+    }
+}
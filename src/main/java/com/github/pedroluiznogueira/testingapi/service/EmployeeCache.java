@@ -0,0 +1,69 @@
+package com.github.pedroluiznogueira.testingapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.pedroluiznogueira.testingapi.config.EmployeeProperties;
+import com.github.pedroluiznogueira.testingapi.event.EmployeeChangedEvent;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+// misses are cached as empty optionals with a shorter ttl so repeated 404 lookups stop reaching the database
+@Component
+public class EmployeeCache implements MeterBinder {
+
+    public static final String NAME = "employees";
+
+    private final Cache<Long, Optional<Employee>> cache;
+
+    public EmployeeCache(EmployeeProperties employeeProperties) {
+        final EmployeeProperties.Cache properties = employeeProperties.getCache();
+        final long ttl = properties.getTtl().toNanos();
+        final long negativeTtl = properties.getNegativeTtl().toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfter(new Expiry<Long, Optional<Employee>>() {
+                    @Override
+                    public long expireAfterCreate(Long id, Optional<Employee> employee, long currentTime) {
+                        return employee.isPresent() ? ttl : negativeTtl;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long id, Optional<Employee> employee, long currentTime, long currentDuration) {
+                        return employee.isPresent() ? ttl : negativeTtl;
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long id, Optional<Employee> employee, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Employee> get(final Long id, final Function<Long, Optional<Employee>> loader) {
+        return cache.get(id, loader);
+    }
+
+    public void invalidate(final Long id) {
+        cache.invalidate(id);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(final EmployeeChangedEvent event) {
+        invalidate(event.getId());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, NAME);
+    }
+}
@@ -0,0 +1,401 @@
+package com.github.pedroluiznogueira.testingapi.service;
+
+import com.github.pedroluiznogueira.testingapi.config.EmployeeProperties;
+import com.github.pedroluiznogueira.testingapi.event.EmployeeChangedEvent;
+import com.github.pedroluiznogueira.testingapi.exception.ChangesExpiredException;
+import com.github.pedroluiznogueira.testingapi.exception.InvalidRequestException;
+import com.github.pedroluiznogueira.testingapi.model.EmployeeChange;
+import com.github.pedroluiznogueira.testingapi.repository.EmployeeChangeJdbcRepository;
+import com.github.pedroluiznogueira.testingapi.repository.EmployeeChangeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// a write's changes are inserted as one batch right before it commits; commits finish out of sequence order, so changes
+// are released, to subscribers and to readers of the table alike, only below the lowest sequence still in flight.
+// in-flight transactions are only known to this instance, so the feed is complete only while every write goes through it
+@Slf4j
+@Service
+public class EmployeeChangeFeed implements SmartLifecycle {
+
+    public static final String NAME = "employee.changes";
+
+    private final EmployeeChangeRepository changeRepository;
+    private final EmployeeChangeJdbcRepository changeJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EmployeeProperties.Changes properties;
+    private final TransactionTemplate purgeTransactionTemplate;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final Object appendLock = new Object();
+    private final List<Batch> inFlight = new ArrayList<>();
+    private final NavigableMap<Long, EmployeeChange> unreleased = new TreeMap<>();
+    private final AtomicLong lastPurge = new AtomicLong();
+    private final Counter dropped;
+
+    private long highestSequence;
+
+    private volatile boolean running;
+    private volatile ExecutorService senders;
+    private volatile ScheduledExecutorService heartbeats;
+
+    public EmployeeChangeFeed(EmployeeChangeRepository changeRepository, EmployeeChangeJdbcRepository changeJdbcRepository,
+                              PlatformTransactionManager transactionManager, EmployeeProperties employeeProperties, MeterRegistry meterRegistry) {
+        this.changeRepository = changeRepository;
+        this.changeJdbcRepository = changeJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.purgeTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.purgeTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = employeeProperties.getChanges();
+        Gauge.builder(NAME + ".subscribers", subscriptions, Collection::size).register(meterRegistry);
+        this.dropped = Counter.builder(NAME + ".dropped").description("subscribers disconnected for falling behind").register(meterRegistry);
+    }
+
+    @EventListener
+    public void onEmployeeChanged(final EmployeeChangedEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive() && TransactionSynchronizationManager.isActualTransactionActive()) {
+            Batch batch = (Batch) TransactionSynchronizationManager.getResource(this);
+            if (batch == null) {
+                batch = new Batch();
+                TransactionSynchronizationManager.bindResource(this, batch);
+                TransactionSynchronizationManager.registerSynchronization(batch);
+            }
+            batch.changes.add(EmployeeChange.of(event));
+            return;
+        }
+        // published outside a transaction the write already happened, so the change is recorded in one of its own
+        final Batch batch = new Batch();
+        batch.changes.add(EmployeeChange.of(event));
+        boolean committed = false;
+        try {
+            transactionTemplate.executeWithoutResult(status -> batch.record());
+            committed = true;
+        } catch (DataAccessException exception) {
+            log.error("could not record {} of employee {}", event.getType(), event.getId(), exception);
+        } finally {
+            batch.complete(committed);
+        }
+    }
+
+    public List<EmployeeChange> getChanges(final Long after, final Integer limit) {
+        return read(resumeFrom(after), resolveLimit(limit));
+    }
+
+    public Subscription subscribe(final Long after, final Sink sink) {
+        if (!running) {
+            throw new IllegalStateException("change feed is not running");
+        }
+        final Subscription subscription = new Subscription(sink, resumeFrom(after));
+        subscriptions.add(subscription);
+        subscription.schedule();
+        return subscription;
+    }
+
+    @Override
+    public void start() {
+        final Long highest = transactionTemplate.execute(status -> changeRepository.findMaxSequence());
+        synchronized (appendLock) {
+            highestSequence = highest == null ? 0L : highest;
+        }
+        senders = Executors.newCachedThreadPool(daemonThreads("employee-changes"));
+        heartbeats = Executors.newSingleThreadScheduledExecutor(daemonThreads("employee-changes-heartbeat"));
+        final long heartbeat = properties.getHeartbeat().toMillis();
+        heartbeats.scheduleWithFixedDelay(() -> subscriptions.forEach(Subscription::heartbeat), heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    // streams are ended before the web server waits for requests to finish
+    @Override
+    public void stop() {
+        running = false;
+        heartbeats.shutdownNow();
+        subscriptions.forEach(Subscription::close);
+        senders.shutdown();
+        try {
+            senders.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        senders.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // a cursor before the oldest kept change means changes were purged in between, zero or none starts at the oldest
+    private long resumeFrom(final Long after) {
+        if (after == null || after == 0) {
+            return 0L;
+        }
+        if (after < 0) {
+            throw new InvalidRequestException("after must not be negative");
+        }
+        final Long oldest = transactionTemplate.execute(status -> changeRepository.findMinSequence());
+        if (oldest != null && after < oldest - 1) {
+            throw new ChangesExpiredException(after, oldest);
+        }
+        return after;
+    }
+
+    // not read-only on purpose, a lagging replica would let a resumed subscriber skip changes
+    private List<EmployeeChange> read(final long after, final int limit) {
+        final long upTo;
+        synchronized (appendLock) {
+            upTo = releasableUpTo();
+        }
+        return transactionTemplate.execute(status -> changeRepository.findBySequenceGreaterThanAndSequenceLessThanEqualOrderBySequenceAsc(
+                after, upTo, PageRequest.of(0, limit)));
+    }
+
+    // a batch still inserting holds sequences above the highest one seen when it started, an inserted one from its lowest
+    private long releasableUpTo() {
+        long upTo = Long.MAX_VALUE;
+        for (Batch batch : inFlight) {
+            upTo = Math.min(upTo, batch.lowestSequence == null ? batch.floor : batch.lowestSequence - 1);
+        }
+        return upTo;
+    }
+
+    private void release() {
+        final long upTo = releasableUpTo();
+        Map.Entry<Long, EmployeeChange> next;
+        while ((next = unreleased.firstEntry()) != null && next.getKey() <= upTo) {
+            unreleased.pollFirstEntry();
+            final EmployeeChange change = next.getValue();
+            subscriptions.forEach(subscription -> subscription.offer(change));
+        }
+    }
+
+    private void purgeExpiredChanges() {
+        final long now = System.currentTimeMillis();
+        final long last = lastPurge.get();
+        if (now - last < properties.getRetention().toMillis() / 10 || !lastPurge.compareAndSet(last, now)) {
+            return;
+        }
+        try {
+            purgeTransactionTemplate.executeWithoutResult(status ->
+                    changeRepository.deleteByChangedAtBefore(Instant.ofEpochMilli(now).minus(properties.getRetention())));
+        } catch (DataAccessException exception) {
+            log.warn("could not purge expired changes: {}", exception.getMessage());
+        }
+    }
+
+    private int resolveLimit(final Integer limit) {
+        if (limit == null) {
+            return properties.getDefaultLimit();
+        }
+        if (limit < 1) {
+            throw new InvalidRequestException("limit must be greater than zero");
+        }
+        return Math.min(limit, properties.getMaxLimit());
+    }
+
+    private static ThreadFactory daemonThreads(final String name) {
+        final AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private final class Batch implements TransactionSynchronization {
+        private final List<EmployeeChange> changes = new ArrayList<>();
+        private long floor;
+        private Long lowestSequence;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            record();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(EmployeeChangeFeed.this);
+            complete(status == STATUS_COMMITTED);
+        }
+
+        private void record() {
+            synchronized (appendLock) {
+                floor = highestSequence;
+                inFlight.add(this);
+            }
+            changeJdbcRepository.insertAll(changes);
+            synchronized (appendLock) {
+                for (EmployeeChange change : changes) {
+                    lowestSequence = lowestSequence == null ? change.getSequence() : Math.min(lowestSequence, change.getSequence());
+                    highestSequence = Math.max(highestSequence, change.getSequence());
+                }
+            }
+        }
+
+        private void complete(final boolean committed) {
+            synchronized (appendLock) {
+                inFlight.remove(this);
+                if (committed) {
+                    changes.forEach(change -> unreleased.put(change.getSequence(), change));
+                }
+                release();
+            }
+            if (committed) {
+                purgeExpiredChanges();
+            }
+        }
+    }
+
+    // where a subscriber's changes go, only ever called from one sender thread at a time
+    public interface Sink {
+        void sendChange(EmployeeChange change) throws IOException;
+
+        void sendHeartbeat() throws IOException;
+
+        void complete();
+    }
+
+    public final class Subscription {
+        private final Sink sink;
+        private final BlockingQueue<EmployeeChange> buffer;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private volatile boolean replaying = true;
+        private volatile boolean heartbeatDue;
+        private volatile boolean closing;
+        private volatile boolean completed;
+        private long lastSent;
+
+        private Subscription(final Sink sink, final long after) {
+            this.sink = sink;
+            this.buffer = new ArrayBlockingQueue<>(properties.getSubscriberBuffer());
+            this.lastSent = after;
+        }
+
+        // the sink is already done, for example because the client went away
+        public void cancel() {
+            subscriptions.remove(this);
+            completed = true;
+        }
+
+        private void offer(final EmployeeChange change) {
+            if (!buffer.offer(change)) {
+                subscriptions.remove(this);
+                dropped.increment();
+                close();
+                return;
+            }
+            schedule();
+        }
+
+        private void heartbeat() {
+            heartbeatDue = true;
+            schedule();
+        }
+
+        private void close() {
+            closing = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (!scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                senders.execute(this::run);
+            } catch (RejectedExecutionException exception) {
+                subscriptions.remove(this);
+            }
+        }
+
+        private void run() {
+            do {
+                try {
+                    deliver();
+                } catch (IOException | RuntimeException exception) {
+                    log.debug("change subscriber went away: {}", exception.getMessage());
+                    complete();
+                    return;
+                }
+                scheduled.set(false);
+            } while ((closing || heartbeatDue || !buffer.isEmpty()) && !completed && scheduled.compareAndSet(false, true));
+        }
+
+        private void deliver() throws IOException {
+            if (completed) {
+                return;
+            }
+            if (replaying) {
+                replay();
+                replaying = false;
+            }
+            EmployeeChange change;
+            while (!closing && (change = buffer.poll()) != null) {
+                if (change.getSequence() > lastSent) {
+                    sink.sendChange(change);
+                    lastSent = change.getSequence();
+                }
+            }
+            if (closing) {
+                complete();
+                return;
+            }
+            if (heartbeatDue) {
+                heartbeatDue = false;
+                sink.sendHeartbeat();
+            }
+        }
+
+        private void complete() {
+            subscriptions.remove(this);
+            if (!completed) {
+                completed = true;
+                sink.complete();
+            }
+        }
+
+        private void replay() throws IOException {
+            final int limit = properties.getMaxLimit();
+            List<EmployeeChange> changes;
+            do {
+                changes = read(lastSent, limit);
+                for (EmployeeChange change : changes) {
+                    sink.sendChange(change);
+                    lastSent = change.getSequence();
+                }
+            } while (changes.size() == limit && !closing);
+        }
+    }
+}
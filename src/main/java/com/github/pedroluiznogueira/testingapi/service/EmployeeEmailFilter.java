@@ -0,0 +1,121 @@
+package com.github.pedroluiznogueira.testingapi.service;
+
+import com.github.pedroluiznogueira.testingapi.config.EmployeeProperties;
+import com.github.pedroluiznogueira.testingapi.event.EmployeeChangedEvent;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.repository.EmployeeJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// answers "definitely new" for an email without a query, a positive answer only means the database has to be asked
+@Slf4j
+@Component
+public class EmployeeEmailFilter {
+
+    private final EmployeeJdbcRepository employeeJdbcRepository;
+    private final EmployeeProperties employeeProperties;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter building;
+
+    public EmployeeEmailFilter(EmployeeJdbcRepository employeeJdbcRepository, EmployeeProperties employeeProperties) {
+        this.employeeJdbcRepository = employeeJdbcRepository;
+        this.employeeProperties = employeeProperties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        final EmployeeProperties.EmailFilter properties = employeeProperties.getEmailFilter();
+        if (!properties.isEnabled()) {
+            return;
+        }
+        final BloomFilter filter = new BloomFilter(properties.getExpectedInsertions(), properties.getFalsePositiveProbability());
+        building = filter;
+        employeeJdbcRepository.forEachEmail(filter::put);
+        current = filter;
+        building = null;
+        log.info("email filter rebuilt with {} bits and {} hash functions", filter.bitCount, filter.hashCount);
+    }
+
+    public boolean mightContain(final String email) {
+        final BloomFilter filter = current;
+        return filter == null || filter.mightContain(email);
+    }
+
+    // deletes are never removed, a stale bit only costs one database check
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(final EmployeeChangedEvent event) {
+        if (event.getEmployee() == null || event.getEmployee().getEmail() == null) {
+            return;
+        }
+        final BloomFilter filter = current;
+        final BloomFilter pending = building;
+        if (filter != null) {
+            filter.put(event.getEmployee().getEmail());
+        }
+        if (pending != null) {
+            pending.put(event.getEmployee().getEmail());
+        }
+    }
+
+    private static final class BloomFilter {
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        private BloomFilter(final long expectedInsertions, final double falsePositiveProbability) {
+            final long size = (long) (-expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+            this.bits = new AtomicLongArray((int) ((Math.max(size, 64) + 63) / 64));
+            this.bitCount = bits.length() * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        }
+
+        private void put(final String value) {
+            final long hash = hash(value);
+            for (int i = 0; i < hashCount; i++) {
+                final long index = index(hash, i);
+                final int word = (int) (index >>> 6);
+                final long mask = 1L << index;
+                long previous;
+                do {
+                    previous = bits.get(word);
+                } while ((previous & mask) == 0 && !bits.compareAndSet(word, previous, previous | mask));
+            }
+        }
+
+        private boolean mightContain(final String value) {
+            final long hash = hash(value);
+            for (int i = 0; i < hashCount; i++) {
+                final long index = index(hash, i);
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long index(final long hash, final int i) {
+            final int combined = (int) hash + i * (int) (hash >>> 32);
+            return (combined & Integer.MAX_VALUE) % bitCount;
+        }
+
+        // emails are hashed normalized, otherwise one differing only in case from a stored one would be "definitely new"
+        private static long hash(final String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : Employee.normalizeEmail(value).getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b;
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
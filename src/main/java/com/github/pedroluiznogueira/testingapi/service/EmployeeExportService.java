@@ -0,0 +1,300 @@
+package com.github.pedroluiznogueira.testingapi.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvGenerator;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.github.pedroluiznogueira.testingapi.config.EmployeeProperties;
+import com.github.pedroluiznogueira.testingapi.exception.InvalidRequestException;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.EmployeeField;
+import com.github.pedroluiznogueira.testingapi.repository.EmployeeRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+// chunks always end on a row boundary, and only a single partition keeps id order
+@Service
+public class EmployeeExportService {
+
+    private static final byte[] END = new byte[0];
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv;charset=UTF-8", "csv");
+
+        private final String mediaType;
+        private final String extension;
+
+        Format(String mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(final String format) {
+            if (format == null) {
+                return NDJSON;
+            }
+            return Arrays.stream(values())
+                    .filter(value -> value.extension.equalsIgnoreCase(format.trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new InvalidRequestException(String.format("unknown format '%s'", format)));
+        }
+    }
+
+    private final EmployeeRepository employeeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EmployeeProperties.Export properties;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter csvWriter;
+
+    public EmployeeExportService(EmployeeRepository employeeRepository, PlatformTransactionManager transactionManager,
+                                 EmployeeProperties employeeProperties, ObjectMapper objectMapper) {
+        this.employeeRepository = employeeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.properties = employeeProperties.getExport();
+        this.objectMapper = objectMapper;
+        this.csvWriter = CsvMapper.builder()
+                .enable(CsvGenerator.Feature.STRICT_CHECK_FOR_QUOTING)
+                .build()
+                .writer(CsvSchema.emptySchema().withLineSeparator("\r\n"));
+    }
+
+    public int resolvePartitions(final Integer partitions) {
+        if (partitions == null) {
+            return 1;
+        }
+        if (partitions < 1) {
+            throw new InvalidRequestException("partitions must be greater than zero");
+        }
+        return Math.min(partitions, properties.getMaxPartitions());
+    }
+
+    @Timed("employee.service")
+    public void export(final Format format, final Set<EmployeeField> fields, final int partitions, final OutputStream outputStream) throws IOException {
+        final RowEncoder header = encoder(format, fields);
+        header.header();
+        header.finish(outputStream::write);
+        final Long minId = employeeRepository.findMinId();
+        final Long maxId = employeeRepository.findMaxId();
+        if (minId == null || maxId == null) {
+            return;
+        }
+        final List<long[]> ranges = split(minId, maxId + 1, partitions);
+        if (ranges.size() == 1) {
+            exportRange(ranges.get(0), encoder(format, fields), outputStream::write);
+        } else {
+            exportInParallel(ranges, format, fields, outputStream);
+        }
+        outputStream.flush();
+    }
+
+    // a failed or cancelled partition still leaves its end marker, so the response thread never waits forever
+    private void exportInParallel(final List<long[]> ranges, final Format format, final Set<EmployeeField> fields,
+                                  final OutputStream outputStream) throws IOException {
+        final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("employee-export-");
+        threadFactory.setDaemon(true);
+        final ExecutorService readers = Executors.newFixedThreadPool(ranges.size(), threadFactory);
+        try {
+            for (long[] range : ranges) {
+                readers.execute(() -> {
+                    try {
+                        exportRange(range, encoder(format, fields), chunk -> put(chunks, chunk));
+                    } catch (IOException | RuntimeException | Error exception) {
+                        failure.compareAndSet(null, exception);
+                    } finally {
+                        try {
+                            put(chunks, END);
+                        } catch (InterruptedIOException exception) {
+                            // the response is gone, nobody waits for the marker
+                        }
+                    }
+                });
+            }
+            for (int finished = 0; finished < ranges.size(); ) {
+                final byte[] chunk = chunks.take();
+                if (chunk == END) {
+                    finished++;
+                    rethrow(failure.get());
+                } else {
+                    outputStream.write(chunk);
+                }
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("export interrupted");
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    private void exportRange(final long[] range, final RowEncoder encoder, final ChunkSink sink) throws IOException {
+        try {
+            transactionTemplate.executeWithoutResult(status -> employeeRepository.scrollByIdRange(range[0], range[1], properties.getFetchSize(),
+                    employee -> encoder.row(employee, sink)));
+        } catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+        encoder.finish(sink);
+    }
+
+    private RowEncoder encoder(final Format format, final Set<EmployeeField> fields) {
+        final int chunkSize = (int) properties.getChunkSize().toBytes();
+        return format == Format.CSV ? new CsvEncoder(fields, chunkSize, csvWriter) : new NdjsonEncoder(fields, chunkSize, objectMapper);
+    }
+
+    private static List<long[]> split(final long fromId, final long toId, final int partitions) {
+        final long span = toId - fromId;
+        final int count = (int) Math.min(partitions, span);
+        final List<long[]> ranges = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ranges.add(new long[]{fromId + span * i / count, fromId + span * (i + 1) / count});
+        }
+        return ranges;
+    }
+
+    private static void put(final BlockingQueue<byte[]> chunks, final byte[] chunk) throws InterruptedIOException {
+        try {
+            chunks.put(chunk);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("export cancelled");
+        }
+    }
+
+    private static void rethrow(final Throwable failure) throws IOException {
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+    }
+
+    private interface ChunkSink {
+        void accept(byte[] chunk) throws IOException;
+    }
+
+    private abstract static class RowEncoder {
+        protected final Set<EmployeeField> fields;
+        protected final ByteArrayOutputStream chunk;
+        private final int chunkSize;
+
+        private RowEncoder(final Set<EmployeeField> fields, final int chunkSize) {
+            this.fields = fields;
+            this.chunkSize = chunkSize;
+            this.chunk = new ByteArrayOutputStream(chunkSize + 1024);
+        }
+
+        protected abstract void header() throws IOException;
+
+        protected abstract void write(Employee employee) throws IOException;
+
+        private void row(final Employee employee, final ChunkSink sink) {
+            try {
+                write(employee);
+                if (chunk.size() >= chunkSize) {
+                    sink.accept(chunk.toByteArray());
+                    chunk.reset();
+                }
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+        private void finish(final ChunkSink sink) throws IOException {
+            if (chunk.size() > 0) {
+                sink.accept(chunk.toByteArray());
+                chunk.reset();
+            }
+        }
+    }
+
+    // one object per line, no separator before the next root value so every chunk ends with a newline
+    private static final class NdjsonEncoder extends RowEncoder {
+        private final JsonGenerator generator;
+
+        private NdjsonEncoder(final Set<EmployeeField> fields, final int chunkSize, final ObjectMapper objectMapper) {
+            super(fields, chunkSize);
+            try {
+                this.generator = objectMapper.getFactory().createGenerator(chunk).setRootValueSeparator(null);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+        @Override
+        protected void header() {
+        }
+
+        @Override
+        protected void write(final Employee employee) throws IOException {
+            generator.writeStartObject();
+            for (EmployeeField field : fields) {
+                generator.writeObjectField(field.getAttribute(), field.getAccessor().apply(employee));
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            generator.flush();
+        }
+    }
+
+    // rows go out as arrays in field order, so a header and a row are written alike;
+    // a cell is quoted only when it holds a separator, a quote or a line break
+    private static final class CsvEncoder extends RowEncoder {
+        private final SequenceWriter writer;
+
+        private CsvEncoder(final Set<EmployeeField> fields, final int chunkSize, final ObjectWriter csvWriter) {
+            super(fields, chunkSize);
+            try {
+                this.writer = csvWriter.writeValues(chunk);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+        @Override
+        protected void header() throws IOException {
+            writer.write(fields.stream().map(EmployeeField::getAttribute).toArray());
+        }
+
+        @Override
+        protected void write(final Employee employee) throws IOException {
+            writer.write(fields.stream().map(field -> field.getAccessor().apply(employee)).toArray());
+        }
+    }
+}
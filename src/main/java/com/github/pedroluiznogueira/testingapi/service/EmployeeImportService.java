@@ -0,0 +1,275 @@
+package com.github.pedroluiznogueira.testingapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.pedroluiznogueira.testingapi.config.EmployeeProperties;
+import com.github.pedroluiznogueira.testingapi.exception.RequestBodyTooLargeException;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.bulk.BulkOperation;
+import com.github.pedroluiznogueira.testingapi.model.bulk.BulkResult;
+import com.github.pedroluiznogueira.testingapi.model.imports.ImportJob;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+// the body is spooled to a file before the job is accepted, so the upload does not wait for the writes
+@Slf4j
+@Service
+public class EmployeeImportService implements SmartLifecycle {
+
+    public enum Format {
+        NDJSON(MediaType.APPLICATION_NDJSON_VALUE, "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String mediaType;
+        private final String extension;
+
+        Format(String mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format of(final MediaType contentType) {
+            return MediaType.parseMediaType(CSV.mediaType).isCompatibleWith(contentType) ? CSV : NDJSON;
+        }
+    }
+
+    private final EmployeeBulkService employeeBulkService;
+    private final EmployeeProperties.Imports properties;
+    private final int chunkSize;
+    private final ObjectReader ndjsonReader;
+    private final ObjectReader csvReader;
+    private final Cache<String, ImportJob> jobs;
+
+    private volatile boolean running;
+    private volatile ExecutorService workers;
+
+    // csv columns are matched by their header, empty cells count as missing so they fail validation like absent fields
+    public EmployeeImportService(EmployeeBulkService employeeBulkService, EmployeeProperties employeeProperties, ObjectMapper objectMapper) {
+        this.employeeBulkService = employeeBulkService;
+        this.properties = employeeProperties.getImports();
+        this.chunkSize = employeeProperties.getBulk().getChunkSize();
+        this.ndjsonReader = objectMapper.readerFor(Employee.class);
+        this.csvReader = CsvMapper.builder()
+                .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build()
+                .readerFor(Employee.class)
+                .with(CsvSchema.emptySchema().withHeader());
+        this.jobs = Caffeine.newBuilder()
+                .maximumSize(properties.getJobMaximumSize())
+                .expireAfterWrite(properties.getJobTtl())
+                .build();
+    }
+
+    public ImportJob submit(final Format format, final InputStream body) throws IOException {
+        if (!running) {
+            throw new IllegalStateException("import is not running");
+        }
+        final Path spool = Files.createTempFile("employee-import-", "." + format.getExtension());
+        try {
+            Files.copy(body, spool, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RequestBodyTooLargeException exception) {
+            delete(spool);
+            throw exception;
+        }
+        final ImportJob job = ImportJob.builder()
+                .id(UUID.randomUUID().toString())
+                .state(ImportJob.State.QUEUED)
+                .format(format.getExtension())
+                .errors(List.of())
+                .acceptedAt(Instant.now())
+                .build();
+        jobs.put(job.getId(), job);
+        try {
+            workers.execute(() -> run(job.getId(), format, spool));
+        } catch (RejectedExecutionException exception) {
+            jobs.invalidate(job.getId());
+            delete(spool);
+            throw new IllegalStateException("import is not running", exception);
+        }
+        return job;
+    }
+
+    public Optional<ImportJob> getJob(final String id) {
+        return Optional.ofNullable(jobs.getIfPresent(id));
+    }
+
+    @Override
+    public void start() {
+        final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("employee-import-");
+        threadFactory.setDaemon(true);
+        workers = Executors.newFixedThreadPool(properties.getWorkers(), threadFactory);
+        running = true;
+    }
+
+    // running jobs stop at their next chunk boundary and queued ones fail right away, everything written so far stays
+    @Override
+    public void stop() {
+        running = false;
+        final ExecutorService executor = workers;
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(properties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("import workers did not stop within {}", properties.getShutdownTimeout());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // like the ingestion writer, stops only once the web server no longer accepts imports
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2;
+    }
+
+    private void run(final String id, final Format format, final Path spool) {
+        final long startedNanos = System.nanoTime();
+        update(id, job -> job.toBuilder().state(ImportJob.State.RUNNING).startedAt(Instant.now()).build());
+        final Progress progress = new Progress(properties.getMaxErrors());
+        String failure;
+        try (InputStream input = Files.newInputStream(spool);
+             MappingIterator<Employee> employees = (format == Format.CSV ? csvReader : ndjsonReader).readValues(input)) {
+            failure = importRows(id, employees, progress);
+        } catch (IOException | RuntimeException exception) {
+            log.error("import {} failed after {} rows", id, progress.processed, exception);
+            failure = exception.getMessage();
+        } finally {
+            delete(spool);
+        }
+        final String error = failure;
+        update(id, job -> job.toBuilder()
+                .state(error == null ? ImportJob.State.COMPLETED : ImportJob.State.FAILED)
+                .error(error)
+                .finishedAt(Instant.now())
+                .build());
+        final long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos));
+        log.info("import {} {} after {} rows in {} ms ({} rows/s), {} created, {} rejected", id, error == null ? "completed" : "failed",
+                progress.processed, elapsedMillis, progress.processed * 1000 / elapsedMillis, progress.created, progress.rejected);
+    }
+
+    // a malformed row ends the import, the rows read before it are still written
+    private String importRows(final String id, final MappingIterator<Employee> employees, final Progress progress) {
+        final List<BulkOperation> chunk = new ArrayList<>(chunkSize);
+        try {
+            while (employees.hasNextValue()) {
+                if (!running) {
+                    apply(id, chunk, progress);
+                    return "import interrupted by shutdown";
+                }
+                chunk.add(BulkOperation.builder().type(BulkOperation.Type.CREATE).employee(employees.nextValue()).build());
+                if (chunk.size() == chunkSize) {
+                    apply(id, chunk, progress);
+                }
+            }
+            apply(id, chunk, progress);
+            return null;
+        } catch (IOException exception) {
+            apply(id, chunk, progress);
+            final String reason = exception instanceof JsonProcessingException
+                    ? ((JsonProcessingException) exception).getOriginalMessage()
+                    : exception.getMessage();
+            return String.format("row %d is malformed: %s", progress.processed, reason);
+        }
+    }
+
+    private void apply(final String id, final List<BulkOperation> chunk, final Progress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        progress.add(employeeBulkService.apply(chunk.iterator()));
+        chunk.clear();
+        final List<BulkResult> errors = List.copyOf(progress.errors);
+        update(id, job -> job.toBuilder()
+                .processed(progress.processed)
+                .created(progress.created)
+                .rejected(progress.rejected)
+                .errors(errors)
+                .build());
+    }
+
+    private void update(final String id, final UnaryOperator<ImportJob> change) {
+        jobs.asMap().computeIfPresent(id, (key, job) -> change.apply(job));
+    }
+
+    private static void delete(final Path spool) {
+        try {
+            Files.deleteIfExists(spool);
+        } catch (IOException exception) {
+            log.warn("could not delete import spool {}", spool, exception);
+        }
+    }
+
+    // result indexes are relative to their chunk, they are moved to the row's position in the whole import
+    private static final class Progress {
+        private final int maxErrors;
+        private final List<BulkResult> errors = new ArrayList<>();
+        private long processed;
+        private long created;
+        private long rejected;
+
+        private Progress(final int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void add(final List<BulkResult> results) {
+            for (BulkResult result : results) {
+                if (result.getError() == null) {
+                    created++;
+                    continue;
+                }
+                rejected++;
+                if (errors.size() < maxErrors) {
+                    result.setIndex((int) (processed + result.getIndex()));
+                    errors.add(result);
+                }
+            }
+            processed += results.size();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.github.pedroluiznogueira.testingapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.pedroluiznogueira.testingapi.config.EmployeeProperties;
+import com.github.pedroluiznogueira.testingapi.exception.IngestionQueueFullException;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.bulk.BulkOperation;
+import com.github.pedroluiznogueira.testingapi.model.bulk.BulkResult;
+import com.github.pedroluiznogueira.testingapi.model.ingestion.IngestionTicket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// the writer stops after the web server, which means nothing new arrives while the queue is flushed
+@Slf4j
+@Service
+public class EmployeeIngestionService implements SmartLifecycle {
+
+    public static final String NAME = "employee.ingestion";
+
+    private static final long POLL_MILLIS = 100;
+
+    private final EmployeeBulkService employeeBulkService;
+    private final EmployeeProperties.Ingestion properties;
+    private final BlockingQueue<Pending> queue;
+    private final Cache<String, IngestionTicket> tickets;
+    private final Timer lag;
+    private final DistributionSummary batchSize;
+    private final Counter rejected;
+
+    private volatile boolean running;
+    private volatile Thread writer;
+
+    // not a MeterBinder, the registry binds those while the datasource this service needs is still being created
+    public EmployeeIngestionService(EmployeeBulkService employeeBulkService, EmployeeProperties employeeProperties, MeterRegistry meterRegistry) {
+        this.employeeBulkService = employeeBulkService;
+        this.properties = employeeProperties.getIngestion();
+        this.queue = new ArrayBlockingQueue<>(properties.getCapacity());
+        this.tickets = Caffeine.newBuilder()
+                .maximumSize(properties.getTicketMaximumSize())
+                .expireAfterWrite(properties.getTicketTtl())
+                .build();
+        Gauge.builder(NAME + ".queue.depth", queue, Collection::size).register(meterRegistry);
+        this.lag = Timer.builder(NAME + ".lag").description("time from accepting an employee to committing it").register(meterRegistry);
+        this.batchSize = DistributionSummary.builder(NAME + ".batch.size").register(meterRegistry);
+        this.rejected = Counter.builder(NAME + ".rejected").register(meterRegistry);
+    }
+
+    // the ticket is stored before the employee is queued, so the writer always finds it
+    public IngestionTicket submit(final Employee employee) {
+        final IngestionTicket ticket = IngestionTicket.builder()
+                .id(UUID.randomUUID().toString())
+                .state(IngestionTicket.State.QUEUED)
+                .acceptedAt(Instant.now())
+                .build();
+        tickets.put(ticket.getId(), ticket);
+        if (!running || !queue.offer(new Pending(ticket.getId(), employee, System.nanoTime()))) {
+            tickets.invalidate(ticket.getId());
+            rejected.increment();
+            throw new IngestionQueueFullException(properties.getCapacity());
+        }
+        return ticket;
+    }
+
+    public Optional<IngestionTicket> getTicket(final String id) {
+        return Optional.ofNullable(tickets.getIfPresent(id));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        final Thread thread = new Thread(this::drain, "employee-ingestion");
+        thread.setDaemon(true);
+        thread.start();
+        writer = thread;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        final Thread thread = writer;
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(properties.getShutdownTimeout().toMillis());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            log.warn("ingestion writer did not flush within {}, {} employees left unwritten", properties.getShutdownTimeout(), queue.size());
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // just below the web server, which starts after and stops before us
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2;
+    }
+
+    private void drain() {
+        final List<Pending> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                final Pending first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+                write(batch);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // takes what is already queued and then waits up to the linger for more, unless shutting down
+    private void fill(final List<Pending> batch) throws InterruptedException {
+        final int maxSize = properties.getBatchSize();
+        queue.drainTo(batch, maxSize - batch.size());
+        final long deadline = System.nanoTime() + properties.getLinger().toNanos();
+        while (running && batch.size() < maxSize) {
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            final Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, maxSize - batch.size());
+        }
+    }
+
+    private void write(final List<Pending> batch) {
+        final List<BulkOperation> operations = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            operations.add(BulkOperation.builder().type(BulkOperation.Type.CREATE).employee(pending.employee).build());
+        }
+        try {
+            final List<BulkResult> results = employeeBulkService.apply(operations.iterator());
+            final Instant writtenAt = Instant.now();
+            for (int i = 0; i < batch.size(); i++) {
+                complete(batch.get(i), results.get(i), writtenAt);
+            }
+        } catch (RuntimeException exception) {
+            log.error("ingestion batch of {} employees failed", batch.size(), exception);
+            final Instant failedAt = Instant.now();
+            for (Pending pending : batch) {
+                tickets.asMap().computeIfPresent(pending.ticketId, (id, ticket) -> ticket.toBuilder()
+                        .state(IngestionTicket.State.FAILED)
+                        .status(500)
+                        .error(exception.getMessage())
+                        .writtenAt(failedAt)
+                        .build());
+            }
+        }
+        batchSize.record(batch.size());
+    }
+
+    private void complete(final Pending pending, final BulkResult result, final Instant writtenAt) {
+        tickets.asMap().computeIfPresent(pending.ticketId, (id, ticket) -> ticket.toBuilder()
+                .state(result.getError() == null ? IngestionTicket.State.WRITTEN : IngestionTicket.State.FAILED)
+                .employeeId(result.getId())
+                .status(result.getStatus())
+                .error(result.getError())
+                .writtenAt(writtenAt)
+                .build());
+        lag.record(System.nanoTime() - pending.acceptedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static final class Pending {
+        private final String ticketId;
+        private final Employee employee;
+        private final long acceptedNanos;
+
+        private Pending(final String ticketId, final Employee employee, final long acceptedNanos) {
+            this.ticketId = ticketId;
+            this.employee = employee;
+            this.acceptedNanos = acceptedNanos;
+        }
+    }
+}
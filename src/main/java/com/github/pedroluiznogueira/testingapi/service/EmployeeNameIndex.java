@@ -0,0 +1,209 @@
+package com.github.pedroluiznogueira.testingapi.service;
+
+import com.github.pedroluiznogueira.testingapi.config.EmployeeProperties;
+import com.github.pedroluiznogueira.testingapi.event.EmployeeChangedEvent;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.repository.EmployeeJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+// name tokens live in a sorted map for prefix lookups and in a trigram map for typo tolerant lookups,
+// reads are lock free while writes are serialized since they only come from change events and the startup scan
+@Slf4j
+@Component
+public class EmployeeNameIndex {
+
+    private final EmployeeJdbcRepository employeeJdbcRepository;
+    private final EmployeeProperties employeeProperties;
+
+    private final Map<Long, Employee> employees = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Set<Long>> tokens = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<String>> trigrams = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+    private Set<Long> deletedWhileBuilding;
+
+    public EmployeeNameIndex(EmployeeJdbcRepository employeeJdbcRepository, EmployeeProperties employeeProperties) {
+        this.employeeJdbcRepository = employeeJdbcRepository;
+        this.employeeProperties = employeeProperties;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // rows written while the scan runs are indexed by their events, the scan never overrides them
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!employeeProperties.getSearch().isIndexEnabled()) {
+            return;
+        }
+        synchronized (this) {
+            deletedWhileBuilding = new HashSet<>();
+        }
+        employeeJdbcRepository.forEachEmployee(this::addIfAbsent);
+        synchronized (this) {
+            deletedWhileBuilding = null;
+            ready = true;
+        }
+        log.info("name index built with {} employees and {} tokens", employees.size(), tokens.size());
+    }
+
+    public List<Employee> search(final String query, final int limit) {
+        final String[] terms = normalize(query).split("\\s+");
+        Map<Long, Double> scores = null;
+        for (String term : terms) {
+            if (term.isEmpty()) {
+                continue;
+            }
+            final Map<Long, Double> termScores = match(term);
+            scores = scores == null ? termScores : intersect(scores, termScores);
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        if (scores == null) {
+            return List.of();
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .map(entry -> employees.get(entry.getKey()))
+                .filter(Objects::nonNull)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onEmployeeChanged(final EmployeeChangedEvent event) {
+        if (event.getType() == EmployeeChangedEvent.Type.DELETED) {
+            remove(event.getId());
+            if (deletedWhileBuilding != null) {
+                deletedWhileBuilding.add(event.getId());
+            }
+            return;
+        }
+        remove(event.getId());
+        add(event.getEmployee());
+    }
+
+    private synchronized void addIfAbsent(final Employee employee) {
+        if (employees.containsKey(employee.getId()) || deletedWhileBuilding.contains(employee.getId())) {
+            return;
+        }
+        add(employee);
+    }
+
+    private void add(final Employee employee) {
+        employees.put(employee.getId(), employee);
+        for (String token : tokensOf(employee)) {
+            Set<Long> ids = tokens.get(token);
+            if (ids == null) {
+                ids = ConcurrentHashMap.newKeySet();
+                tokens.put(token, ids);
+                trigramsOf(token).forEach(trigram -> trigrams.computeIfAbsent(trigram, gram -> ConcurrentHashMap.newKeySet()).add(token));
+            }
+            ids.add(employee.getId());
+        }
+    }
+
+    private void remove(final Long id) {
+        final Employee employee = employees.remove(id);
+        if (employee == null) {
+            return;
+        }
+        for (String token : tokensOf(employee)) {
+            final Set<Long> ids = tokens.get(token);
+            if (ids == null) {
+                continue;
+            }
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                tokens.remove(token);
+                trigramsOf(token).forEach(trigram -> {
+                    final Set<String> grams = trigrams.get(trigram);
+                    if (grams != null && grams.remove(token) && grams.isEmpty()) {
+                        trigrams.remove(trigram);
+                    }
+                });
+            }
+        }
+    }
+
+    // prefix hits score above 1 so they always rank before typo hits, which score their trigram similarity
+    private Map<Long, Double> match(final String term) {
+        final Map<Long, Double> scores = new HashMap<>();
+        tokens.subMap(term, true, term + Character.MAX_VALUE, true).forEach((token, ids) -> {
+            final double score = 1 + (double) term.length() / token.length();
+            ids.forEach(id -> scores.merge(id, score, Math::max));
+        });
+        if (term.length() < 3) {
+            return scores;
+        }
+        final Set<String> termTrigrams = trigramsOf(term);
+        final Map<String, Integer> shared = new HashMap<>();
+        for (String trigram : termTrigrams) {
+            trigrams.getOrDefault(trigram, Set.of()).forEach(token -> shared.merge(token, 1, Integer::sum));
+        }
+        final double minSimilarity = employeeProperties.getSearch().getMinSimilarity();
+        shared.forEach((token, count) -> {
+            final double similarity = 2.0 * count / (termTrigrams.size() + trigramsOf(token).size());
+            if (similarity >= minSimilarity) {
+                tokens.getOrDefault(token, Set.of()).forEach(id -> scores.merge(id, similarity, Math::max));
+            }
+        });
+        return scores;
+    }
+
+    private static Map<Long, Double> intersect(final Map<Long, Double> scores, final Map<Long, Double> termScores) {
+        final Map<Long, Double> intersection = new HashMap<>();
+        scores.forEach((id, score) -> {
+            final Double termScore = termScores.get(id);
+            if (termScore != null) {
+                intersection.put(id, score + termScore);
+            }
+        });
+        return intersection;
+    }
+
+    private static Set<String> tokensOf(final Employee employee) {
+        final Set<String> tokens = new HashSet<>();
+        for (String name : new String[]{employee.getFirstName(), employee.getSecondName()}) {
+            if (name != null) {
+                for (String token : normalize(name).split("\\s+")) {
+                    if (!token.isEmpty()) {
+                        tokens.add(token);
+                    }
+                }
+            }
+        }
+        return tokens;
+    }
+
+    // padded so the first letters weigh more, "jonh" still shares "  j", " jo" with "john"
+    private static Set<String> trigramsOf(final String token) {
+        final String padded = "  " + token + " ";
+        final Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private static String normalize(final String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
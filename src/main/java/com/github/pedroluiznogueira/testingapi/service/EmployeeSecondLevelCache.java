@@ -0,0 +1,24 @@
+package com.github.pedroluiznogueira.testingapi.service;
+
+import com.github.pedroluiznogueira.testingapi.event.EmployeeChangedEvent;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.persistence.EntityManagerFactory;
+
+// patches, deletes, bulk writes and imports go around hibernate, so their rows are evicted after commit
+@Component
+public class EmployeeSecondLevelCache {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public EmployeeSecondLevelCache(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(final EmployeeChangedEvent event) {
+        entityManagerFactory.getCache().evict(Employee.class, event.getId());
+    }
+}
@@ -1,36 +1,125 @@
 package com.github.pedroluiznogueira.testingapi.service;
 
+import com.github.pedroluiznogueira.testingapi.config.EmployeeProperties;
+import com.github.pedroluiznogueira.testingapi.event.EmployeeChangedEvent;
+import com.github.pedroluiznogueira.testingapi.exception.InvalidRequestException;
 import com.github.pedroluiznogueira.testingapi.exception.ResourceAlreadyExistException;
 import com.github.pedroluiznogueira.testingapi.exception.ResourceNotFoundException;
+import com.github.pedroluiznogueira.testingapi.exception.ResourceVersionMismatchException;
 import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.EmployeeField;
+import com.github.pedroluiznogueira.testingapi.model.EmployeePatch;
+import com.github.pedroluiznogueira.testingapi.repository.EmployeeJdbcRepository;
 import com.github.pedroluiznogueira.testingapi.repository.EmployeeRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class EmployeeService {
 
     private final EmployeeRepository employeeRepository;
+    private final EmployeeJdbcRepository employeeJdbcRepository;
+    private final EntityManager entityManager;
+    private final EmployeeProperties employeeProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EmployeeCache employeeCache;
+    private final EmployeeNameIndex employeeNameIndex;
+    private final TransactionTemplate transactionTemplate;
 
-    public EmployeeService(EmployeeRepository employeeRepository) {
+    public EmployeeService(EmployeeRepository employeeRepository, EmployeeJdbcRepository employeeJdbcRepository, EntityManager entityManager,
+                           EmployeeProperties employeeProperties, ApplicationEventPublisher eventPublisher, EmployeeCache employeeCache,
+                           EmployeeNameIndex employeeNameIndex, PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.employeeRepository = employeeRepository;
+        this.employeeJdbcRepository = employeeJdbcRepository;
+        this.entityManager = entityManager;
+        this.employeeProperties = employeeProperties;
+        this.eventPublisher = eventPublisher;
+        this.employeeCache = employeeCache;
+        this.employeeNameIndex = employeeNameIndex;
     }
 
+    @Timed("employee.service")
+    @Transactional
     public Employee createEmployee(final Employee employee) {
-        checkIfEmailExists(employee);
-        return employeeRepository.save(employee);
+        final Employee createdEmployee = saveWithUniqueEmail(employee);
+        eventPublisher.publishEvent(EmployeeChangedEvent.created(createdEmployee));
+        return createdEmployee;
     }
 
-    public List<Employee> getEmployees() {
-        return employeeRepository.findAll();
+    @Timed("employee.service")
+    @Transactional(readOnly = true)
+    public List<Employee> getEmployees(final Long after, final Integer limit) {
+        final Long cursor = after == null ? 0L : after;
+        final EmployeeProperties.Page page = employeeProperties.getPage();
+        return employeeRepository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, resolveLimit(limit, page.getDefaultLimit(), page.getMaxLimit())));
     }
 
+    // id and version are always selected, the next page's cursor and the etag need them
+    @Timed("employee.service")
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getEmployees(final Long after, final Integer limit, final String fields) {
+        final Set<EmployeeField> selectedFields = new LinkedHashSet<>();
+        selectedFields.add(EmployeeField.ID);
+        selectedFields.add(EmployeeField.VERSION);
+        selectedFields.addAll(EmployeeField.parse(fields));
+        final Long cursor = after == null ? 0L : after;
+        final EmployeeProperties.Page page = employeeProperties.getPage();
+        return employeeRepository.findFieldsByIdGreaterThan(selectedFields, cursor, resolveLimit(limit, page.getDefaultLimit(), page.getMaxLimit()));
+    }
+
+    @Timed("employee.service")
+    @Transactional(readOnly = true)
+    public void streamEmployees(final Consumer<Employee> consumer) {
+        try (Stream<Employee> employees = employeeRepository.streamAll()) {
+            employees.forEach(employee -> {
+                consumer.accept(employee);
+                entityManager.detach(employee);
+            });
+        }
+    }
+
+    @Timed("employee.service")
+    @Transactional(readOnly = true)
+    public List<Employee> searchEmployees(final String query, final Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new InvalidRequestException("q must not be blank");
+        }
+        final EmployeeProperties.Search search = employeeProperties.getSearch();
+        final int resolvedLimit = resolveLimit(limit, search.getDefaultLimit(), search.getMaxLimit());
+        if (employeeNameIndex.isReady()) {
+            return employeeNameIndex.search(query, resolvedLimit);
+        }
+        final String prefix = query.trim().split("\\s+")[0];
+        return employeeRepository.findByFirstNameStartingWithIgnoreCaseOrSecondNameStartingWithIgnoreCaseOrderByIdAsc(prefix, prefix, PageRequest.of(0, resolvedLimit));
+    }
+
+    // no transaction so a cache hit needs no connection
+    @Timed("employee.service")
     public Employee getEmployeeById(final Long id) {
-        return getEmployee(id);
+        return employeeCache.get(id, employeeRepository::findById)
+                .orElseThrow(() -> new ResourceNotFoundException("Employee", "id", id.toString()));
     }
 
+    @Timed("employee.service")
+    @Transactional
     public Employee updateEmployee(final Employee employeeData) {
         final Employee employeeToUpdate = getEmployee(employeeData.getId());
         final Employee employeeDataToUpdate = Employee.builder()
@@ -38,22 +127,97 @@ public class EmployeeService {
                 .firstName(employeeData.getFirstName())
                 .secondName(employeeData.getSecondName())
                 .email(employeeData.getEmail())
+                .version(employeeToUpdate.getVersion())
                 .build();
-        return employeeRepository.save(employeeDataToUpdate);
+        final Employee updatedEmployee = saveWithUniqueEmail(employeeDataToUpdate);
+        eventPublisher.publishEvent(EmployeeChangedEvent.updated(updatedEmployee));
+        return updatedEmployee;
+    }
+
+    // read back so the etag and the event carry the committed version
+    @Timed("employee.service")
+    @Transactional
+    public Long patchEmployee(final Long id, final EmployeePatch patch, final Long expectedVersion) {
+        if (patch.getFirstName() == null && patch.getSecondName() == null && patch.getEmail() == null) {
+            throw new InvalidRequestException("patch must change at least one field");
+        }
+        final int updated;
+        try {
+            updated = employeeJdbcRepository.patch(id, patch, expectedVersion);
+        } catch (DataIntegrityViolationException exception) {
+            if (isEmailConstraintViolation(exception)) {
+                throw new ResourceAlreadyExistException("Employee", "email", patch.getEmail());
+            }
+            throw exception;
+        }
+        if (updated == 0) {
+            if (expectedVersion != null && employeeJdbcRepository.findVersionById(id).isPresent()) {
+                throw new ResourceVersionMismatchException("Employee", "id", id.toString(), expectedVersion);
+            }
+            throw new ResourceNotFoundException("Employee", "id", id.toString());
+        }
+        final Employee patchedEmployee = employeeJdbcRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Employee", "id", id.toString()));
+        eventPublisher.publishEvent(EmployeeChangedEvent.updated(patchedEmployee));
+        return patchedEmployee.getVersion();
     }
 
+    @Timed("employee.service")
+    @Transactional
     public void deleteEmployee(final Long id) {
-        final Employee employeeToDelete = getEmployee(id);
-        employeeRepository.delete(employeeToDelete);
+        if (employeeJdbcRepository.deleteById(id) == 0) {
+            throw new ResourceNotFoundException("Employee", "id", id.toString());
+        }
+        eventPublisher.publishEvent(EmployeeChangedEvent.deleted(id));
+    }
+
+    @Timed("employee.service")
+    public int deleteEmployees(final Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            throw new InvalidRequestException("ids must not be empty");
+        }
+        final List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        final int chunkSize = employeeProperties.getDelete().getChunkSize();
+        int deleted = 0;
+        for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+            final List<Long> chunk = distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size()));
+            deleted += transactionTemplate.execute(status -> {
+                final int count = employeeJdbcRepository.deleteByIdIn(chunk);
+                chunk.forEach(id -> eventPublisher.publishEvent(EmployeeChangedEvent.deleted(id)));
+                return count;
+            });
+        }
+        return deleted;
     }
 
     private Employee getEmployee(final Long id) {
         return employeeRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Employee", "id", id.toString()));
     }
 
-    private void checkIfEmailExists(final Employee employee) {
-        employeeRepository.findByEmail(employee.getEmail()).ifPresent((foundEmployee) -> {
-            throw new ResourceAlreadyExistException("Employee", "email", employee.getEmail());
-        });
+    // flushed so a duplicate email surfaces here rather than at commit
+    private Employee saveWithUniqueEmail(final Employee employee) {
+        try {
+            return employeeRepository.saveAndFlush(employee);
+        } catch (DataIntegrityViolationException exception) {
+            if (isEmailConstraintViolation(exception)) {
+                throw new ResourceAlreadyExistException("Employee", "email", employee.getEmail());
+            }
+            throw exception;
+        }
+    }
+
+    private boolean isEmailConstraintViolation(final DataIntegrityViolationException exception) {
+        final String message = exception.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase().contains(Employee.EMAIL_CONSTRAINT);
+    }
+
+    private int resolveLimit(final Integer limit, final int defaultLimit, final int maxLimit) {
+        if (limit == null) {
+            return defaultLimit;
+        }
+        if (limit < 1) {
+            throw new InvalidRequestException("limit must be greater than zero");
+        }
+        return Math.min(limit, maxLimit);
     }
 }
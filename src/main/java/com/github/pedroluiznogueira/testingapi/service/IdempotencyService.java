@@ -0,0 +1,176 @@
+package com.github.pedroluiznogueira.testingapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.pedroluiznogueira.testingapi.config.EmployeeProperties;
+import com.github.pedroluiznogueira.testingapi.exception.IdempotencyKeyMismatchException;
+import com.github.pedroluiznogueira.testingapi.exception.InvalidRequestException;
+import com.github.pedroluiznogueira.testingapi.model.IdempotencyRecord;
+import com.github.pedroluiznogueira.testingapi.repository.IdempotencyRecordRepository;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// a retry arriving while the first request runs waits on its future, failures are not remembered
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final EmployeeProperties.Idempotency properties;
+    private final ObjectProvider<IdempotencyRecordRepository> recordRepository;
+    private final ObjectMapper objectMapper;
+    private final AsyncCache<String, Entry> entries;
+    private final AtomicLong lastPurge = new AtomicLong();
+
+    public IdempotencyService(EmployeeProperties employeeProperties, ObjectProvider<IdempotencyRecordRepository> recordRepository, ObjectMapper objectMapper) {
+        this.properties = employeeProperties.getIdempotency();
+        this.recordRepository = recordRepository;
+        this.objectMapper = objectMapper;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .buildAsync();
+    }
+
+    public <T> Result<T> execute(final String operation, final String key, final Object request, final Class<T> type, final Supplier<T> action) {
+        if (key == null || !properties.isEnabled()) {
+            return new Result<>(action.get(), false);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidRequestException(HEADER + " must have between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        final String scopedKey = operation + " " + key;
+        final String fingerprint = fingerprint(operation, request);
+        final CompletableFuture<Entry> pending = new CompletableFuture<>();
+        final CompletableFuture<Entry> claimed = entries.asMap().putIfAbsent(scopedKey, pending);
+        if (claimed != null) {
+            return replay(key, fingerprint, type, await(claimed));
+        }
+        try {
+            final Optional<Entry> recorded = findRecord(scopedKey, type);
+            if (recorded.isPresent()) {
+                pending.complete(recorded.get());
+                return replay(key, fingerprint, type, recorded.get());
+            }
+            final T value = action.get();
+            final Entry entry = new Entry(fingerprint, value);
+            saveRecord(scopedKey, entry);
+            pending.complete(entry);
+            return new Result<>(value, false);
+        } catch (RuntimeException exception) {
+            pending.completeExceptionally(exception);
+            throw exception;
+        }
+    }
+
+    private <T> Result<T> replay(final String key, final String fingerprint, final Class<T> type, final Entry entry) {
+        if (!entry.fingerprint.equals(fingerprint)) {
+            throw new IdempotencyKeyMismatchException(key);
+        }
+        return new Result<>(type.cast(entry.value), true);
+    }
+
+    private Entry await(final CompletableFuture<Entry> claimed) {
+        try {
+            return claimed.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw exception;
+        }
+    }
+
+    private <T> Optional<Entry> findRecord(final String scopedKey, final Class<T> type) {
+        if (!properties.isTableEnabled()) {
+            return Optional.empty();
+        }
+        final Instant oldest = Instant.now().minus(properties.getTtl());
+        return recordRepository.getObject().findById(scopedKey)
+                .filter(record -> record.getCreatedAt().isAfter(oldest))
+                .map(record -> new Entry(record.getFingerprint(), read(record.getBody(), type)));
+    }
+
+    // the write already happened, so a failure to record it is logged and the client still gets its result
+    private void saveRecord(final String scopedKey, final Entry entry) {
+        if (!properties.isTableEnabled()) {
+            return;
+        }
+        final IdempotencyRecordRepository repository = recordRepository.getObject();
+        try {
+            repository.save(IdempotencyRecord.builder()
+                    .key(scopedKey)
+                    .fingerprint(entry.fingerprint)
+                    .body(objectMapper.writeValueAsString(entry.value))
+                    .createdAt(Instant.now())
+                    .build());
+            purgeExpiredRecords(repository);
+        } catch (JsonProcessingException | DataAccessException exception) {
+            log.warn("could not record idempotency key {}", scopedKey, exception);
+        }
+    }
+
+    // expired rows are deleted at most ten times per ttl, by whichever write gets there first
+    private void purgeExpiredRecords(final IdempotencyRecordRepository repository) {
+        final long now = System.currentTimeMillis();
+        final long last = lastPurge.get();
+        if (now - last < properties.getTtl().toMillis() / 10 || !lastPurge.compareAndSet(last, now)) {
+            return;
+        }
+        repository.deleteByCreatedAtBefore(Instant.ofEpochMilli(now).minus(properties.getTtl()));
+    }
+
+    private <T> T read(final String body, final Class<T> type) {
+        try {
+            return objectMapper.readValue(body, type);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException("stored idempotent result is not a " + type.getSimpleName(), exception);
+        }
+    }
+
+    private String fingerprint(final String operation, final Object request) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return Base64.getEncoder().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    @Value
+    public static class Result<T> {
+        T value;
+        boolean replayed;
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final Object value;
+
+        private Entry(final String fingerprint, final Object value) {
+            this.fingerprint = fingerprint;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.pedroluiznogueira.testingapi.reactive;
+
+import com.github.pedroluiznogueira.testingapi.config.EmployeeProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+
+// the same /api/employees contract on webflux and r2dbc, built with -Preactive and configured by the reactive profile;
+// jdbc and jpa are on the classpath for the servlet variant and are kept out of this context
+@Slf4j
+@SpringBootApplication(exclude = {
+        DataSourceAutoConfiguration.class,
+        DataSourceTransactionManagerAutoConfiguration.class,
+        HibernateJpaAutoConfiguration.class
+})
+@EnableConfigurationProperties(EmployeeProperties.class)
+public class ReactiveTestingApiApplication {
+
+    public static final String PROFILE = "reactive";
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveTestingApiApplication.class)
+                .profiles(PROFILE)
+                .run(args);
+        log.info("Running reactive...");
+    }
+
+    // tomcat is on the classpath as well and would otherwise be picked as the reactive server
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
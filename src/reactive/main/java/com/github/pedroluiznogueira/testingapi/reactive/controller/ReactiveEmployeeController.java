@@ -0,0 +1,103 @@
+package com.github.pedroluiznogueira.testingapi.reactive.controller;
+
+import com.github.pedroluiznogueira.testingapi.controller.EmployeeETags;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.EmployeeField;
+import com.github.pedroluiznogueira.testingapi.model.EmployeePatch;
+import com.github.pedroluiznogueira.testingapi.reactive.service.ReactiveEmployeeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/employees")
+public class ReactiveEmployeeController {
+
+    private final ReactiveEmployeeService employeeService;
+
+    public ReactiveEmployeeController(ReactiveEmployeeService employeeService) {
+        this.employeeService = employeeService;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Employee> createEmployee(@RequestBody final Employee employee) {
+        return employeeService.createEmployee(employee);
+    }
+
+    // a page is bounded by the limit, so it is collected to compute its etag before anything is written
+    @GetMapping
+    public Mono<ResponseEntity<List<?>>> getEmployees(@RequestParam(value = "after", required = false) final Long after,
+                                                      @RequestParam(value = "limit", required = false) final Integer limit,
+                                                      @RequestParam(value = "fields", required = false) final String fields) {
+        log.info("get employees request received");
+        if (fields != null) {
+            return employeeService.getEmployees(after, limit, fields)
+                    .collectList()
+                    .map(employees -> conditional(EmployeeETags.ofProjection(employees, fields), employees));
+        }
+        return employeeService.getEmployees(after, limit)
+                .collectList()
+                .map(employees -> conditional(EmployeeETags.ofPage(employees), employees));
+    }
+
+    // the encoder writes the array element by element as rows arrive, ndjson clients get one employee per line
+    @GetMapping(value = "/stream", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public Flux<Employee> streamEmployees() {
+        log.info("stream employees request received");
+        return employeeService.streamEmployees();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Object>> getEmployeeById(@PathVariable ("id") final Long id,
+                                                        @RequestParam(value = "fields", required = false) final String fields) {
+        if (fields != null) {
+            return employeeService.getEmployeeById(id)
+                    .map(employee -> conditional(EmployeeETags.of(employee, fields), EmployeeField.project(employee, EmployeeField.parse(fields))));
+        }
+        return employeeService.getEmployeeById(id).map(employee -> conditional(EmployeeETags.of(employee), employee));
+    }
+
+    @PutMapping
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<Employee> updateEmployee(@RequestBody final Employee employee) {
+        return employeeService.updateEmployee(employee);
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<Void>> patchEmployee(@PathVariable ("id") final Long id,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) final String ifMatch,
+                                                    @RequestBody final EmployeePatch patch) {
+        return Mono.defer(() -> employeeService.patchEmployee(id, patch, EmployeeETags.parseVersion(ifMatch)))
+                .map(version -> ResponseEntity.noContent().eTag(EmployeeETags.ofVersion(version)).build());
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<Void> deleteEmployee(@PathVariable ("id") final Long id) {
+        return employeeService.deleteEmployee(id);
+    }
+
+    @DeleteMapping(params = "ids")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<Integer> deleteEmployees(@RequestParam("ids") final List<Long> ids) {
+        return employeeService.deleteEmployees(ids);
+    }
+
+    private <T> ResponseEntity<T> conditional(final String eTag, final T body) {
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        return response.body(body);
+    }
+}
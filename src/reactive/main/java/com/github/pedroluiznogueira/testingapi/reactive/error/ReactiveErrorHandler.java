@@ -0,0 +1,84 @@
+package com.github.pedroluiznogueira.testingapi.reactive.error;
+
+import com.github.pedroluiznogueira.testingapi.exception.InvalidRequestException;
+import com.github.pedroluiznogueira.testingapi.exception.ResourceAlreadyExistException;
+import com.github.pedroluiznogueira.testingapi.exception.ResourceNotFoundException;
+import com.github.pedroluiznogueira.testingapi.exception.ResourceVersionMismatchException;
+import com.github.pedroluiznogueira.testingapi.exception.error.Error;
+import com.github.pedroluiznogueira.testingapi.exception.error.ErrorCounters;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.time.Instant;
+
+// the same bodies, statuses and counters as the servlet ErrorHandler, detail is built the way WebRequest describes a request;
+// webflux reports its own input, method and media type failures as ResponseStatusException with the status already set
+@Slf4j
+@RestControllerAdvice
+public class ReactiveErrorHandler implements MeterBinder {
+
+    private final ErrorCounters errorCounters = new ErrorCounters();
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<Error> notFound(ResourceNotFoundException exception, ServerWebExchange exchange) {
+        return error(HttpStatus.NOT_FOUND, exception, exchange);
+    }
+
+    @ExceptionHandler(ResourceAlreadyExistException.class)
+    public ResponseEntity<Error> alreadyExist(ResourceAlreadyExistException exception, ServerWebExchange exchange) {
+        return error(HttpStatus.CONFLICT, exception, exchange);
+    }
+
+    @ExceptionHandler(ResourceVersionMismatchException.class)
+    public ResponseEntity<Error> versionMismatch(ResourceVersionMismatchException exception, ServerWebExchange exchange) {
+        return error(HttpStatus.PRECONDITION_FAILED, exception, exchange);
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<Error> invalidRequest(InvalidRequestException exception, ServerWebExchange exchange) {
+        return error(HttpStatus.BAD_REQUEST, exception, exchange);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Error> badRequest(IllegalArgumentException exception, ServerWebExchange exchange) {
+        return error(HttpStatus.BAD_REQUEST, exception, "invalid request", exchange);
+    }
+
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<Error> responseStatus(ResponseStatusException exception, ServerWebExchange exchange) {
+        return error(exception.getStatus(), exception, exchange);
+    }
+
+    // the details stay in the log, as in the servlet handler
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<Error> global(Exception exception, ServerWebExchange exchange) {
+        log.error("unexpected error on {}", exchange.getRequest().getPath(), exception);
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, exception, "unexpected error", exchange);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        errorCounters.bindTo(registry);
+    }
+
+    private ResponseEntity<Error> error(final HttpStatus status, final Exception exception, final ServerWebExchange exchange) {
+        return error(status, exception, exception.getMessage(), exchange);
+    }
+
+    private ResponseEntity<Error> error(final HttpStatus status, final Exception exception, final String message, final ServerWebExchange exchange) {
+        errorCounters.increment(exception, status);
+        final Error error = Error.builder()
+                .timestamp(Instant.now())
+                .message(message)
+                .detail("uri=" + exchange.getRequest().getPath().value())
+                .build();
+        return ResponseEntity.status(status).body(error);
+    }
+}
@@ -0,0 +1,124 @@
+package com.github.pedroluiznogueira.testingapi.reactive.repository;
+
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.EmployeePatch;
+import io.r2dbc.spi.Row;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.StringJoiner;
+
+@Repository
+public class ReactiveEmployeeRepository {
+
+    private static final String COLUMNS = "id, first_name, second_name, email, version";
+    private static final String INSERT = "insert into employee (first_name, second_name, email, version) values (:firstName, :secondName, :email, 0)";
+    private static final String UPDATE = "update employee set first_name = :firstName, second_name = :secondName, email = :email, version = version + 1 where id = :id";
+    private static final String DELETE = "delete from employee where id = :id";
+    private static final String DELETE_BY_IDS = "delete from employee where id in (:ids)";
+    private static final String FIND_BY_ID = "select " + COLUMNS + " from employee where id = :id";
+    private static final String FIND_PAGE = "select " + COLUMNS + " from employee where id > :after order by id limit :limit";
+    private static final String FIND_ALL = "select " + COLUMNS + " from employee order by id";
+    private static final String FIND_VERSION_BY_ID = "select version from employee where id = :id";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveEmployeeRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Long> insert(final Employee employee) {
+        return bindNames(databaseClient.sql(INSERT), employee)
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one();
+    }
+
+    public Mono<Integer> update(final Employee employee) {
+        return bindNames(databaseClient.sql(UPDATE), employee)
+                .bind("id", employee.getId())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    // only the columns present in the patch are written, the version check makes it a compare-and-set in one statement
+    public Mono<Integer> patch(final Long id, final EmployeePatch patch, final Long expectedVersion) {
+        final StringJoiner assignments = new StringJoiner(", ", "update employee set ", "");
+        if (patch.getFirstName() != null) {
+            assignments.add("first_name = :firstName");
+        }
+        if (patch.getSecondName() != null) {
+            assignments.add("second_name = :secondName");
+        }
+        if (patch.getEmail() != null) {
+            assignments.add("email = :email");
+        }
+        assignments.add("version = version + 1");
+        final String sql = assignments + " where id = :id" + (expectedVersion == null ? "" : " and version = :version");
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql).bind("id", id);
+        if (patch.getFirstName() != null) {
+            spec = spec.bind("firstName", patch.getFirstName());
+        }
+        if (patch.getSecondName() != null) {
+            spec = spec.bind("secondName", patch.getSecondName());
+        }
+        if (patch.getEmail() != null) {
+            spec = spec.bind("email", patch.getEmail());
+        }
+        if (expectedVersion != null) {
+            spec = spec.bind("version", expectedVersion);
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    public Mono<Integer> deleteById(final Long id) {
+        return databaseClient.sql(DELETE).bind("id", id).fetch().rowsUpdated();
+    }
+
+    public Mono<Integer> deleteByIdIn(final Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(0);
+        }
+        return databaseClient.sql(DELETE_BY_IDS).bind("ids", ids).fetch().rowsUpdated();
+    }
+
+    public Mono<Employee> findById(final Long id) {
+        return databaseClient.sql(FIND_BY_ID).bind("id", id).map(this::toEmployee).one();
+    }
+
+    public Mono<Long> findVersionById(final Long id) {
+        return databaseClient.sql(FIND_VERSION_BY_ID).bind("id", id).map(row -> row.get("version", Long.class)).one();
+    }
+
+    public Flux<Employee> findByIdGreaterThan(final long after, final int limit) {
+        return databaseClient.sql(FIND_PAGE).bind("after", after).bind("limit", limit).map(this::toEmployee).all();
+    }
+
+    // rows are pulled as the subscriber requests them, a slow reader slows the cursor down instead of filling memory
+    public Flux<Employee> findAll() {
+        return databaseClient.sql(FIND_ALL).map(this::toEmployee).all();
+    }
+
+    private DatabaseClient.GenericExecuteSpec bindNames(final DatabaseClient.GenericExecuteSpec spec, final Employee employee) {
+        return bindNullable(bindNullable(bindNullable(spec, "firstName", employee.getFirstName()),
+                "secondName", employee.getSecondName()),
+                "email", employee.getEmail());
+    }
+
+    private DatabaseClient.GenericExecuteSpec bindNullable(final DatabaseClient.GenericExecuteSpec spec, final String name, final String value) {
+        return value == null ? spec.bindNull(name, String.class) : spec.bind(name, value);
+    }
+
+    private Employee toEmployee(final Row row) {
+        return Employee.builder()
+                .id(row.get("id", Long.class))
+                .firstName(row.get("first_name", String.class))
+                .secondName(row.get("second_name", String.class))
+                .email(row.get("email", String.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+}
@@ -0,0 +1,144 @@
+package com.github.pedroluiznogueira.testingapi.reactive.service;
+
+import com.github.pedroluiznogueira.testingapi.config.EmployeeProperties;
+import com.github.pedroluiznogueira.testingapi.exception.InvalidRequestException;
+import com.github.pedroluiznogueira.testingapi.exception.ResourceAlreadyExistException;
+import com.github.pedroluiznogueira.testingapi.exception.ResourceNotFoundException;
+import com.github.pedroluiznogueira.testingapi.exception.ResourceVersionMismatchException;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.EmployeeField;
+import com.github.pedroluiznogueira.testingapi.model.EmployeePatch;
+import com.github.pedroluiznogueira.testingapi.reactive.repository.ReactiveEmployeeRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// the servlet service without the cache, the name index and the change events, none of which exist in the reactive context
+@Service
+public class ReactiveEmployeeService {
+
+    private final ReactiveEmployeeRepository employeeRepository;
+    private final EmployeeProperties employeeProperties;
+
+    public ReactiveEmployeeService(ReactiveEmployeeRepository employeeRepository, EmployeeProperties employeeProperties) {
+        this.employeeRepository = employeeRepository;
+        this.employeeProperties = employeeProperties;
+    }
+
+    public Mono<Employee> createEmployee(final Employee employee) {
+        return withUniqueEmail(employeeRepository.insert(employee), employee.getEmail())
+                .map(id -> Employee.builder()
+                        .id(id)
+                        .firstName(employee.getFirstName())
+                        .secondName(employee.getSecondName())
+                        .email(employee.getEmail())
+                        .version(0L)
+                        .build());
+    }
+
+    public Flux<Employee> getEmployees(final Long after, final Integer limit) {
+        final EmployeeProperties.Page page = employeeProperties.getPage();
+        return Mono.fromCallable(() -> resolveLimit(limit, page.getDefaultLimit(), page.getMaxLimit()))
+                .flatMapMany(resolvedLimit -> employeeRepository.findByIdGreaterThan(after == null ? 0L : after, resolvedLimit));
+    }
+
+    // the id is always selected since it is the cursor of the next page, and the version since the page's etag hashes it
+    public Flux<Map<String, Object>> getEmployees(final Long after, final Integer limit, final String fields) {
+        return Mono.fromCallable(() -> {
+                    final Set<EmployeeField> selectedFields = new LinkedHashSet<>();
+                    selectedFields.add(EmployeeField.ID);
+                    selectedFields.add(EmployeeField.VERSION);
+                    selectedFields.addAll(EmployeeField.parse(fields));
+                    return selectedFields;
+                })
+                .flatMapMany(selectedFields -> getEmployees(after, limit).map(employee -> EmployeeField.project(employee, selectedFields)));
+    }
+
+    public Flux<Employee> streamEmployees() {
+        return employeeRepository.findAll();
+    }
+
+    public Mono<Employee> getEmployeeById(final Long id) {
+        return employeeRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Employee", "id", id.toString())));
+    }
+
+    public Mono<Employee> updateEmployee(final Employee employeeData) {
+        final Long id = employeeData.getId();
+        return withUniqueEmail(employeeRepository.update(employeeData), employeeData.getEmail())
+                .flatMap(updated -> updated == 0
+                        ? Mono.error(new ResourceNotFoundException("Employee", "id", String.valueOf(id)))
+                        : employeeRepository.findById(id));
+    }
+
+    // a single conditional update; without If-Match the new version is read back like update reads back its row,
+    // and otherwise the row is only read again to tell a missing employee from a stale version
+    public Mono<Long> patchEmployee(final Long id, final EmployeePatch patch, final Long expectedVersion) {
+        if (patch.getFirstName() == null && patch.getSecondName() == null && patch.getEmail() == null) {
+            return Mono.error(new InvalidRequestException("patch must change at least one field"));
+        }
+        return withUniqueEmail(employeeRepository.patch(id, patch, expectedVersion), patch.getEmail())
+                .flatMap(updated -> {
+                    if (updated > 0) {
+                        return expectedVersion != null ? Mono.just(expectedVersion + 1) : employeeRepository.findVersionById(id);
+                    }
+                    final Mono<Long> notFound = Mono.error(new ResourceNotFoundException("Employee", "id", id.toString()));
+                    if (expectedVersion == null) {
+                        return notFound;
+                    }
+                    return employeeRepository.findVersionById(id)
+                            .flatMap(version -> Mono.<Long>error(new ResourceVersionMismatchException("Employee", "id", id.toString(), expectedVersion)))
+                            .switchIfEmpty(notFound);
+                });
+    }
+
+    public Mono<Void> deleteEmployee(final Long id) {
+        return employeeRepository.deleteById(id)
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.error(new ResourceNotFoundException("Employee", "id", id.toString()))
+                        : Mono.empty());
+    }
+
+    // chunks run one after the other so at most one IN list holds row locks at a time
+    public Mono<Integer> deleteEmployees(final Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Mono.error(new InvalidRequestException("ids must not be empty"));
+        }
+        final List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        final int chunkSize = employeeProperties.getDelete().getChunkSize();
+        return Flux.fromIterable(distinctIds)
+                .buffer(chunkSize)
+                .concatMap(employeeRepository::deleteByIdIn)
+                .reduce(0, Integer::sum);
+    }
+
+    // the unique index on email decides, so there is no pre-check query and no window between check and insert
+    private <T> Mono<T> withUniqueEmail(final Mono<T> write, final String email) {
+        return write.onErrorMap(DataIntegrityViolationException.class, exception -> isEmailConstraintViolation(exception)
+                ? new ResourceAlreadyExistException("Employee", "email", email)
+                : exception);
+    }
+
+    private boolean isEmailConstraintViolation(final DataIntegrityViolationException exception) {
+        final String message = exception.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase().contains(Employee.EMAIL_CONSTRAINT);
+    }
+
+    private int resolveLimit(final Integer limit, final int defaultLimit, final int maxLimit) {
+        if (limit == null) {
+            return defaultLimit;
+        }
+        if (limit < 1) {
+            throw new InvalidRequestException("limit must be greater than zero");
+        }
+        return Math.min(limit, maxLimit);
+    }
+}
@@ -0,0 +1,8 @@
+create table if not exists employee (
+    id bigint generated by default as identity primary key,
+    first_name varchar(255),
+    second_name varchar(255),
+    email varchar(255),
+    version bigint default 0 not null,
+    constraint uk_employee_email unique (email)
+);
@@ -0,0 +1,179 @@
+package com.github.pedroluiznogueira.testingapi.reactive;
+
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.EmployeePatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles(ReactiveTestingApiApplication.PROFILE)
+@SpringBootTest(classes = ReactiveTestingApiApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ReactiveEmployeeIntegrationTest {
+
+    private static final String EMPLOYEES_URI = "/api/employees";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    public void setup() {
+        databaseClient.sql("delete from employee").fetch().rowsUpdated().block();
+    }
+
+    @Test
+    @DisplayName("create and get employee")
+    public void givenEmployee_whenCreateAndGetEmployee_thenReturnEmployeeWithETag() {
+        // given
+        final Employee employee = create("John", "john@john.com");
+
+        // when
+        final WebTestClient.ResponseSpec response = webTestClient.get()
+                .uri(EMPLOYEES_URI + "/{id}", employee.getId())
+                .exchange();
+
+        // then
+        response.expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "W/\"0\"")
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo("John")
+                .jsonPath("$.email").isEqualTo("john@john.com");
+    }
+
+    @Test
+    @DisplayName("get employee with current etag")
+    public void givenCurrentETag_whenGetEmployee_thenReturnNotModified() {
+        // given
+        final Employee employee = create("John", "john@john.com");
+
+        // when
+        final WebTestClient.ResponseSpec response = webTestClient.get()
+                .uri(EMPLOYEES_URI + "/{id}", employee.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+                .exchange();
+
+        // then
+        response.expectStatus().isNotModified();
+    }
+
+    @Test
+    @DisplayName("create employee with existing email")
+    public void givenExistingEmail_whenCreateEmployee_thenReturnConflict() {
+        // given
+        create("John", "john@john.com");
+
+        // when
+        final WebTestClient.ResponseSpec response = webTestClient.post()
+                .uri(EMPLOYEES_URI)
+                .bodyValue(Employee.builder().firstName("Other").email("john@john.com").build())
+                .exchange();
+
+        // then
+        response.expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo("uri=" + EMPLOYEES_URI);
+    }
+
+    @Test
+    @DisplayName("get employees page")
+    public void givenEmployees_whenGetEmployeesAfterCursor_thenReturnNextPage() {
+        // given
+        final Employee first = create("John", "john@john.com");
+        final Employee second = create("Jane", "jane@jane.com");
+        create("Jack", "jack@jack.com");
+
+        // when
+        final List<Employee> page = webTestClient.get()
+                .uri(EMPLOYEES_URI + "?after={after}&limit=1", first.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Employee.class)
+                .returnResult()
+                .getResponseBody();
+
+        // then
+        assertThat(page).extracting(Employee::getId).containsExactly(second.getId());
+    }
+
+    @Test
+    @DisplayName("stream employees")
+    public void givenEmployees_whenStreamEmployees_thenReturnAllEmployees() {
+        // given
+        create("John", "john@john.com");
+        create("Jane", "jane@jane.com");
+
+        // when
+        final List<Employee> employees = webTestClient.get()
+                .uri(EMPLOYEES_URI + "/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Employee.class)
+                .returnResult()
+                .getResponseBody();
+
+        // then
+        assertThat(employees).extracting(Employee::getFirstName).containsExactly("John", "Jane");
+    }
+
+    @Test
+    @DisplayName("patch employee with stale etag")
+    public void givenStaleETag_whenPatchEmployee_thenReturnPreconditionFailed() {
+        // given
+        final Employee employee = create("John", "john@john.com");
+        final EmployeePatch patch = EmployeePatch.builder().firstName("Johnny").build();
+        webTestClient.patch()
+                .uri(EMPLOYEES_URI + "/{id}", employee.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(patch)
+                .exchange()
+                .expectStatus().isNoContent()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "W/\"1\"");
+
+        // when
+        final WebTestClient.ResponseSpec response = webTestClient.patch()
+                .uri(EMPLOYEES_URI + "/{id}", employee.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(patch)
+                .exchange();
+
+        // then
+        response.expectStatus().isEqualTo(412);
+    }
+
+    @Test
+    @DisplayName("delete missing employee")
+    public void givenMissingEmployee_whenDeleteEmployee_thenReturnNotFound() {
+        // when
+        final WebTestClient.ResponseSpec response = webTestClient.delete()
+                .uri(EMPLOYEES_URI + "/{id}", 1L)
+                .exchange();
+
+        // then
+        response.expectStatus().isNotFound();
+    }
+
+    private Employee create(final String firstName, final String email) {
+        return webTestClient.post()
+                .uri(EMPLOYEES_URI)
+                .bodyValue(Employee.builder().firstName(firstName).secondName("Doe").email(email).build())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Employee.class)
+                .returnResult()
+                .getResponseBody();
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.pedroluiznogueira.testingapi.functional;
+
+import com.github.pedroluiznogueira.testingapi.client.api.EmployeeApi;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.bulk.BulkOperation;
+import com.github.pedroluiznogueira.testingapi.model.bulk.BulkResult;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.github.pedroluiznogueira.testingapi.client.api.EmployeeApi.bulk;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+public class EmployeeBulkFunctionalTest {
+
+    private static final int OPERATIONS = 1000;
+
+    @Test
+    public void givenCreateOperations_whenBulkAndPerRow_thenReportThroughputOfBoth() {
+        // given
+        final List<Employee> perRowEmployees = generateEmployees(OPERATIONS);
+        final List<BulkOperation> bulkOperations = generateEmployees(OPERATIONS).stream()
+                .map(employee -> BulkOperation.builder().type(BulkOperation.Type.CREATE).employee(employee).build())
+                .collect(Collectors.toList());
+
+        // when
+        final long perRowStart = System.nanoTime();
+        perRowEmployees.forEach(EmployeeApi::createEmployee);
+        final long perRowNanos = System.nanoTime() - perRowStart;
+
+        final long bulkStart = System.nanoTime();
+        final List<BulkResult> results = bulk(bulkOperations);
+        final long bulkNanos = System.nanoTime() - bulkStart;
+
+        // then
+        log.info("per-row create: {} ops/sec", opsPerSecond(perRowNanos));
+        log.info("bulk create: {} ops/sec", opsPerSecond(bulkNanos));
+        assertThat(results).hasSize(OPERATIONS);
+        assertThat(results).allMatch(result -> result.getStatus() == 201);
+    }
+
+    private static List<Employee> generateEmployees(final int size) {
+        return IntStream.range(0, size)
+                .mapToObj(i -> Employee.builder()
+                        .firstName("bulk")
+                        .secondName(String.valueOf(i))
+                        .email(UUID.randomUUID() + "@bulk.com")
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private static long opsPerSecond(final long nanos) {
+        return OPERATIONS * 1_000_000_000L / Math.max(nanos, 1);
+    }
+}
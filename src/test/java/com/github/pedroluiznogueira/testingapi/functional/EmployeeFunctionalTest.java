@@ -1,17 +1,33 @@
 package com.github.pedroluiznogueira.testingapi.functional;
 
 import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.EmployeeChange;
+import com.github.pedroluiznogueira.testingapi.model.EmployeePatch;
+import com.github.pedroluiznogueira.testingapi.model.imports.ImportJob;
+import com.github.pedroluiznogueira.testingapi.model.ingestion.IngestionTicket;
+import com.github.pedroluiznogueira.testingapi.client.EmployeeClient;
+import com.github.pedroluiznogueira.testingapi.client.EmployeeClientBuilder;
+import com.github.pedroluiznogueira.testingapi.client.EmployeeClientOptions;
 import com.github.pedroluiznogueira.testingapi.client.api.EmployeeApi;
+import com.github.pedroluiznogueira.testingapi.event.EmployeeChangedEvent;
 import feign.FeignException;
+import feign.Logger;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.github.pedroluiznogueira.testingapi.support.ListSupport.generateEmployees;
 import static com.github.pedroluiznogueira.testingapi.support.StringSupport.generate;
 import static com.github.pedroluiznogueira.testingapi.client.api.EmployeeApi.*;
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class EmployeeFunctionalTest {
@@ -39,12 +55,13 @@ public class EmployeeFunctionalTest {
         final List<Employee> employees = generateEmployees();
 
         // when
-        employees.forEach(EmployeeApi::createEmployee);
+        final List<Long> createdIds = employees.stream().map(EmployeeApi::createEmployee).map(Employee::getId).collect(Collectors.toList());
         final List<Employee> foundEmployees = getEmployees();
 
         // then
         assertThat(foundEmployees).isNotNull();
         assertThat(foundEmployees.size()).isGreaterThanOrEqualTo(employees.size());
+        assertThat(foundEmployees).extracting(Employee::getId).containsAll(createdIds).doesNotHaveDuplicates();
     }
 
     @Test
@@ -89,6 +106,33 @@ public class EmployeeFunctionalTest {
         assertThat(updatedEmployee.getId()).isEqualTo(createdEmployee.getId());
     }
 
+    @Test
+    public void givenEmployeePatch_whenPatchEmployee_thenUpdateOnlyPatchedFields() {
+        // given
+        final Employee employee = Employee.builder()
+                .firstName(generate())
+                .secondName(generate())
+                .email(generate())
+                .build();
+        final Employee createdEmployee = createEmployee(employee);
+        final EmployeePatch patch = EmployeePatch.builder()
+                .firstName(generate())
+                .build();
+
+        // when
+        patchEmployee(createdEmployee.getId(), createdEmployee.getVersion(), patch);
+        final Executable executable = () -> patchEmployee(createdEmployee.getId(), createdEmployee.getVersion(), patch);
+        patchEmployee(createdEmployee.getId(), null, patch);
+        final Employee patchedEmployee = getEmployeeById(createdEmployee.getId());
+
+        // then
+        final FeignException exception = assertThrows(FeignException.class, executable);
+        assertThat(exception.status()).isEqualTo(412);
+        assertThat(patchedEmployee.getFirstName()).isEqualTo(patch.getFirstName());
+        assertThat(patchedEmployee.getSecondName()).isEqualTo(createdEmployee.getSecondName());
+        assertThat(patchedEmployee.getVersion()).isEqualTo(createdEmployee.getVersion() + 2);
+    }
+
     @Test
     public void givenEmployeeId_whenDeleteEmployee_thenRemoveEmployee() {
         // given
@@ -104,6 +148,202 @@ public class EmployeeFunctionalTest {
         final Executable executable = () -> getEmployeeById(createdEmployee.getId());
 
         // then
-        assertThrows(FeignException.BadRequest.class, executable);
+        assertThrows(FeignException.NotFound.class, executable);
+    }
+
+    @Test
+    public void givenEmployeeIds_whenDeleteEmployees_thenRemoveEmployees() {
+        // given
+        final List<Employee> employees = generateEmployees();
+        final List<Long> ids = new ArrayList<>();
+        employees.forEach(employee -> ids.add(createEmployee(employee).getId()));
+
+        // when
+        final int deleted = deleteEmployees(ids);
+        final Executable executable = () -> getEmployeeById(ids.get(0));
+
+        // then
+        assertThat(deleted).isEqualTo(employees.size());
+        assertThrows(FeignException.NotFound.class, executable);
+    }
+
+    @Test
+    public void givenEmployeeIds_whenGetEmployeesByIdAsync_thenReturnEveryEmployee() throws Exception {
+        // given
+        final List<Employee> employees = generateEmployees();
+        final List<CompletableFuture<Employee>> creations = new ArrayList<>();
+        employees.forEach(employee -> creations.add(createEmployeeAsync(employee)));
+        final List<Long> ids = new ArrayList<>();
+        for (CompletableFuture<Employee> creation : creations) {
+            ids.add(creation.get(10, TimeUnit.SECONDS).getId());
+        }
+
+        // when
+        final List<Employee> foundEmployees = getEmployeesByIdAsync(ids).get(10, TimeUnit.SECONDS);
+
+        // then
+        assertThat(foundEmployees.size()).isEqualTo(ids.size());
+        assertThat(foundEmployees.get(0).getId()).isEqualTo(ids.get(0));
+        assertThat(foundEmployees.get(1).getId()).isEqualTo(ids.get(1));
+    }
+
+    @Test
+    public void givenDeletedEmployee_whenGetEmployeeByIdAsync_thenCompleteExceptionally() throws Exception {
+        // given
+        final Employee employee = Employee.builder()
+                .firstName(generate())
+                .secondName(generate())
+                .email(generate())
+                .build();
+        final Employee createdEmployee = createEmployee(employee);
+        deleteEmployeeAsync(createdEmployee.getId()).get(10, TimeUnit.SECONDS);
+
+        // when
+        final CompletableFuture<Employee> foundEmployee = getEmployeeByIdAsync(createdEmployee.getId());
+        final Executable executable = () -> foundEmployee.get(10, TimeUnit.SECONDS);
+
+        // then
+        final ExecutionException exception = assertThrows(ExecutionException.class, executable);
+        assertThat(exception.getCause()).isInstanceOf(FeignException.NotFound.class);
+    }
+
+    @Test
+    public void givenEmployees_whenStreamEmployees_thenDecodeEveryEmployeeLazily() {
+        // given
+        final List<Employee> employees = generateEmployees();
+        final List<Long> ids = new ArrayList<>();
+        employees.forEach(employee -> ids.add(createEmployee(employee).getId()));
+
+        // when
+        final List<Long> streamedIds;
+        try (Stream<Employee> streamedEmployees = streamEmployees()) {
+            streamedIds = streamedEmployees.map(Employee::getId).collect(Collectors.toList());
+        }
+
+        // then
+        assertThat(streamedIds.containsAll(ids)).isTrue();
+    }
+
+    @Test
+    public void givenRevalidatedEmployee_whenGetEmployeeByIdAgain_thenReturnCurrentEmployee() {
+        // given
+        final Employee employee = Employee.builder()
+                .firstName(generate())
+                .secondName(generate())
+                .email(generate())
+                .build();
+        final Employee createdEmployee = createEmployee(employee);
+        final Employee firstRead = getEmployeeById(createdEmployee.getId());
+
+        // when
+        final Employee notModifiedRead = getEmployeeById(createdEmployee.getId());
+        patchEmployee(createdEmployee.getId(), null, EmployeePatch.builder().firstName("Jocko").build());
+        final Employee modifiedRead = getEmployeeById(createdEmployee.getId());
+
+        // then
+        assertThat(notModifiedRead).isEqualTo(firstRead);
+        assertThat(modifiedRead.getFirstName()).isEqualTo("Jocko");
+        assertThat(modifiedRead.getVersion()).isEqualTo(firstRead.getVersion() + 1);
+    }
+
+    @Test
+    public void givenSmileClientWithCompressedRequests_whenCreateAndGetEmployees_thenRoundTripEmployees() {
+        // given
+        final EmployeeClient smileClient = new EmployeeClientBuilder("http://localhost:8080/api/employees", Logger.Level.BASIC,
+                EmployeeClientOptions.builder()
+                        .format(EmployeeClientOptions.Format.SMILE)
+                        .compressRequests(true)
+                        .compressRequestMinBytes(0)
+                        .build())
+                .getEmployeeClient();
+        final Employee employee = Employee.builder()
+                .firstName(generate())
+                .secondName(generate())
+                .email(generate())
+                .build();
+
+        // when
+        final Employee createdEmployee = smileClient.createEmployee(employee);
+        final Employee foundEmployee = smileClient.getEmployeeById(createdEmployee.getId());
+        final List<Employee> foundEmployees = smileClient.getEmployees(createdEmployee.getId() - 1, 1);
+
+        // then
+        assertThat(foundEmployee.getEmail()).isEqualTo(employee.getEmail());
+        assertThat(foundEmployees.get(0).getId()).isEqualTo(createdEmployee.getId());
+    }
+
+    @Test
+    public void givenIngestedEmployee_whenWriterFlushes_thenTicketPointsToCreatedEmployee() throws Exception {
+        // given
+        final Employee employee = Employee.builder()
+                .firstName(generate())
+                .secondName(generate())
+                .email(generate())
+                .build();
+
+        // when
+        final IngestionTicket accepted = ingestEmployee(employee);
+        IngestionTicket ticket = getIngestion(accepted.getId());
+        for (int i = 0; i < 50 && ticket.getState() == IngestionTicket.State.QUEUED; i++) {
+            TimeUnit.MILLISECONDS.sleep(100);
+            ticket = getIngestion(accepted.getId());
+        }
+
+        // then
+        assertThat(accepted.getState()).isEqualTo(IngestionTicket.State.QUEUED);
+        assertThat(ticket.getState()).isEqualTo(IngestionTicket.State.WRITTEN);
+        assertThat(getEmployeeById(ticket.getEmployeeId()).getEmail()).isEqualTo(employee.getEmail());
+    }
+
+    @Test
+    public void givenImportedEmployees_whenJobFinishes_thenReportCreatedAndRejectedRows() throws Exception {
+        // given
+        final String run = UUID.randomUUID().toString();
+        final List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            employees.add(Employee.builder().firstName(generate()).secondName(generate()).email(run + "-" + i + "@import.com").build());
+        }
+        employees.add(Employee.builder().firstName(generate()).secondName(generate()).email(employees.get(0).getEmail()).build());
+
+        // when
+        final ImportJob accepted = importEmployees(employees);
+        ImportJob job = getImport(accepted.getId());
+        for (int i = 0; i < 100 && (job.getState() == ImportJob.State.QUEUED || job.getState() == ImportJob.State.RUNNING); i++) {
+            TimeUnit.MILLISECONDS.sleep(100);
+            job = getImport(accepted.getId());
+        }
+
+        // then
+        assertThat(job.getState()).isEqualTo(ImportJob.State.COMPLETED);
+        assertThat(job.getCreated()).isEqualTo(1200L);
+        assertThat(job.getRejected()).isEqualTo(1L);
+        assertThat(job.getErrors().get(0).getIndex()).isEqualTo(1200);
+        assertThat(job.getErrors().get(0).getStatus()).isEqualTo(409);
+    }
+
+    @Test
+    public void givenChangeSequence_whenCreateAndDeleteEmployee_thenReturnOnlyTheseChanges() {
+        // given
+        long head = 0;
+        for (List<EmployeeChange> changes = getChanges(head, 1000); !changes.isEmpty(); changes = getChanges(head, 1000)) {
+            head = changes.get(changes.size() - 1).getSequence();
+        }
+        final Employee employee = Employee.builder()
+                .firstName(generate())
+                .secondName(generate())
+                .email(generate())
+                .build();
+
+        // when
+        final Employee createdEmployee = createEmployee(employee);
+        deleteEmployee(createdEmployee.getId());
+        final List<EmployeeChange> changes = getChanges(head, 10);
+
+        // then
+        assertThat(changes.size()).isEqualTo(2);
+        assertThat(changes.get(0).getType()).isEqualTo(EmployeeChangedEvent.Type.CREATED);
+        assertThat(changes.get(0).getEmail()).isEqualTo(employee.getEmail());
+        assertThat(changes.get(1).getType()).isEqualTo(EmployeeChangedEvent.Type.DELETED);
+        assertThat(changes.get(1).getEmployeeId()).isEqualTo(createdEmployee.getId());
     }
 }
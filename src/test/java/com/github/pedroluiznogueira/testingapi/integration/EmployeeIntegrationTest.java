@@ -2,6 +2,7 @@ package com.github.pedroluiznogueira.testingapi.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.EmployeePatch;
 import com.github.pedroluiznogueira.testingapi.repository.EmployeeRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -9,23 +10,50 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
 
+import javax.persistence.EntityManagerFactory;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static com.github.pedroluiznogueira.testingapi.support.ControllerSupport.*;
 import static com.github.pedroluiznogueira.testingapi.support.ControllerSupport.EMAIL;
+import static com.github.pedroluiznogueira.testingapi.support.StatementSupport.assertStatementCount;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+@Slf4j
 @AutoConfigureMockMvc
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 public class EmployeeIntegrationTest {
@@ -39,6 +67,12 @@ public class EmployeeIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @BeforeEach
     public void setup() {
         employeeRepository.deleteAll();
@@ -112,4 +146,386 @@ public class EmployeeIntegrationTest {
                 .andExpect(jsonPath(EMAIL, is("johnwillick@johnwillick.com")));
     }
 
+    @Test
+    @DisplayName("bulk operations")
+    public void givenNdjsonOperations_whenBulk_thenApplyOperationsInBatches() throws Exception {
+        // given
+        final Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("John")
+                .secondName("Willick")
+                .email("johnwillick@johnwillick.com")
+                .build());
+        final String body = "{\"type\":\"CREATE\",\"employee\":{\"firstName\":\"Jocko\",\"secondName\":\"Willick\",\"email\":\"jockowillick@jockowillick.com\"}}\n"
+                + "{\"type\":\"CREATE\",\"employee\":{\"firstName\":\"Jack\",\"secondName\":\"Reacher\",\"email\":\"johnwillick@johnwillick.com\"}}\n"
+                + "{\"type\":\"UPDATE\",\"employee\":{\"id\":" + employee.getId() + ",\"firstName\":\"Johnny\",\"secondName\":\"Willick\",\"email\":\"johnwillick@johnwillick.com\"}}\n"
+                + "{\"type\":\"DELETE\",\"id\":" + (employee.getId() + 1000) + "}\n";
+
+        // when
+        final ResultActions response = mockMvc.perform(post(EMPLOYEES_URI + "/_bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body));
+
+        // then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(SIZE, is(4)))
+                .andExpect(jsonPath("$[0].status", is(201)))
+                .andExpect(jsonPath("$[1].status", is(409)))
+                .andExpect(jsonPath("$[2].status", is(200)))
+                .andExpect(jsonPath("$[3].status", is(404)));
+        assertThat(employeeRepository.count()).isEqualTo(2);
+        assertThat(employeeRepository.findById(employee.getId()).orElseThrow().getFirstName()).isEqualTo("Johnny");
+    }
+
+    @Test
+    @DisplayName("patch employee")
+    public void givenEmployeePatchAndVersion_whenPatchEmployee_thenUpdateOnlyWhenVersionMatches() throws Exception {
+        // given
+        final Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("John")
+                .secondName("Willick")
+                .email("johnwillick@johnwillick.com")
+                .build());
+        final String body = objectMapper.writeValueAsString(EmployeePatch.builder().firstName("Johnny").build());
+        final String etag = "\"" + employee.getVersion() + "\"";
+
+        // when
+        final ResultActions response = mockMvc.perform(patch(EMPLOYEES_URI + "/" + employee.getId())
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+        final ResultActions staleResponse = mockMvc.perform(patch(EMPLOYEES_URI + "/" + employee.getId())
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+        final ResultActions unconditionalResponse = mockMvc.perform(patch(EMPLOYEES_URI + "/" + employee.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(EmployeePatch.builder().secondName("Wick").build())));
+
+        // then
+        response.andDo(print())
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"" + (employee.getVersion() + 1) + "\""));
+        staleResponse.andDo(print())
+                .andExpect(status().isPreconditionFailed());
+        unconditionalResponse.andDo(print())
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"" + (employee.getVersion() + 2) + "\""));
+        final Employee patchedEmployee = employeeRepository.findById(employee.getId()).orElseThrow();
+        assertThat(patchedEmployee.getFirstName()).isEqualTo("Johnny");
+        assertThat(patchedEmployee.getSecondName()).isEqualTo("Wick");
+        assertThat(patchedEmployee.getVersion()).isEqualTo(employee.getVersion() + 2);
+    }
+
+    @Test
+    @DisplayName("concurrent updates")
+    public void givenTwoPutsRacingOnSameEmployee_whenUpdateEmployee_thenReturnConflictForTheLoser() throws Exception {
+        // given
+        final Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("John")
+                .secondName("Willick")
+                .email("johnwillick@johnwillick.com")
+                .build());
+        final String firstBody = objectMapper.writeValueAsString(Employee.builder()
+                .id(employee.getId())
+                .firstName("Johnny")
+                .secondName("Willick")
+                .email("johnwillick@johnwillick.com")
+                .build());
+        final String secondBody = objectMapper.writeValueAsString(Employee.builder()
+                .id(employee.getId())
+                .firstName("Jonathan")
+                .secondName("Willick")
+                .email("johnwillick@johnwillick.com")
+                .build());
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final AtomicReference<Thread> secondThread = new AtomicReference<>();
+
+        // when, the first put's transaction is held open so the second reads the old version and then waits on the row
+        final Future<ResultActions> secondResponse;
+        final ResultActions firstResponse;
+        final TransactionStatus transaction = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        try {
+            firstResponse = mockMvc.perform(put(EMPLOYEES_URI)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(firstBody));
+            secondResponse = executor.submit(() -> {
+                secondThread.set(Thread.currentThread());
+                return mockMvc.perform(put(EMPLOYEES_URI)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(secondBody));
+            });
+            awaitRowLock(secondThread);
+        } finally {
+            transactionManager.commit(transaction);
+        }
+
+        // then
+        try {
+            firstResponse.andExpect(status().isOk());
+            secondResponse.get(10, TimeUnit.SECONDS).andDo(print())
+                    .andExpect(status().isConflict());
+        } finally {
+            executor.shutdownNow();
+        }
+        final Employee updatedEmployee = employeeRepository.findById(employee.getId()).orElseThrow();
+        assertThat(updatedEmployee.getFirstName()).isEqualTo("Johnny");
+        assertThat(updatedEmployee.getVersion()).isEqualTo(employee.getVersion() + 1);
+    }
+
+    @Test
+    @DisplayName("second-level cache evicted by a patch")
+    public void givenCachedEmployee_whenPatchEmployee_thenReadPatchedEmployee() throws Exception {
+        // given
+        final Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("John")
+                .secondName("Willick")
+                .email("johnwillick@johnwillick.com")
+                .build());
+        employeeRepository.findById(employee.getId()).orElseThrow();
+        final String body = objectMapper.writeValueAsString(EmployeePatch.builder().firstName("Johnny").build());
+
+        // when
+        final ResultActions response = mockMvc.perform(patch(EMPLOYEES_URI + "/" + employee.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+
+        // then
+        response.andExpect(status().isNoContent());
+        assertThat(entityManagerFactory.getCache().contains(Employee.class, employee.getId())).isFalse();
+        final Employee patchedEmployee = employeeRepository.findById(employee.getId()).orElseThrow();
+        assertThat(patchedEmployee.getFirstName()).isEqualTo("Johnny");
+        assertThat(patchedEmployee.getVersion()).isEqualTo(employee.getVersion() + 1);
+    }
+
+    @Test
+    @DisplayName("stream changes without async timeout")
+    public void givenChangeStream_whenSubscribe_thenKeepItOpenWithoutTimeout() throws Exception {
+        // when
+        final MvcResult started = mockMvc.perform(get(EMPLOYEES_URI + "/changes").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        try {
+            assertThat(started.getRequest().getAsyncContext().getTimeout()).isEqualTo(-1L);
+        } finally {
+            started.getRequest().getAsyncContext().complete();
+        }
+    }
+
+    @Test
+    @DisplayName("delete employees")
+    public void givenEmployeeIds_whenDeleteEmployees_thenRemoveExistingEmployees() throws Exception {
+        // given
+        final Employee firstEmployee = employeeRepository.save(Employee.builder()
+                .firstName("John")
+                .secondName("Willick")
+                .email("johnwillick@johnwillick.com")
+                .build());
+        final Employee secondEmployee = employeeRepository.save(Employee.builder()
+                .firstName("Jocko")
+                .secondName("Willick")
+                .email("jockowillick@jockowillick.com")
+                .build());
+
+        // when
+        final ResultActions response = mockMvc.perform(delete(EMPLOYEES_URI)
+                .param("ids", firstEmployee.getId() + "," + secondEmployee.getId() + "," + (secondEmployee.getId() + 1000)));
+
+        // then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", is(2)));
+        assertThat(employeeRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("get employees fields")
+    public void givenFields_whenGetEmployees_thenSendFewerBytesThanFullEmployees() throws Exception {
+        // given
+        employeeRepository.saveAll(IntStream.range(0, 500)
+                .mapToObj(i -> Employee.builder()
+                        .firstName("John" + i)
+                        .secondName("Willick" + i)
+                        .email("johnwillick" + i + "@johnwillick.com")
+                        .build())
+                .collect(Collectors.toList()));
+
+        // when
+        final long fullStart = allocatedBytes();
+        final byte[] full = mockMvc.perform(get(EMPLOYEES_URI).param("limit", "500")).andReturn().getResponse().getContentAsByteArray();
+        final long fullAllocated = allocatedBytes() - fullStart;
+        final long projectedStart = allocatedBytes();
+        final ResultActions response = mockMvc.perform(get(EMPLOYEES_URI).param("limit", "500").param("fields", "email"));
+        final byte[] projected = response.andReturn().getResponse().getContentAsByteArray();
+        final long projectedAllocated = allocatedBytes() - projectedStart;
+
+        // then
+        log.info("full employees: {} bytes on the wire, {} bytes allocated", full.length, fullAllocated);
+        log.info("email projection: {} bytes on the wire, {} bytes allocated", projected.length, projectedAllocated);
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath(SIZE, is(500)))
+                .andExpect(jsonPath("$[0].size()", is(3)));
+        assertThat(projected.length).isLessThan(full.length);
+    }
+
+    @Test
+    @DisplayName("get employees fields etag")
+    public void givenEditOutsideTheProjection_whenGetEmployeesFieldsIfNoneMatch_thenReturnTheNewPage() throws Exception {
+        // given
+        final Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("John")
+                .secondName("Willick")
+                .email("johnwillick@johnwillick.com")
+                .build());
+        final String etag = mockMvc.perform(get(EMPLOYEES_URI).param("fields", "email"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get(EMPLOYEES_URI).param("fields", "email").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // when
+        mockMvc.perform(patch(EMPLOYEES_URI + "/" + employee.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(EmployeePatch.builder().firstName("Johnny").build())))
+                .andExpect(status().isNoContent());
+        final ResultActions response = mockMvc.perform(get(EMPLOYEES_URI).param("fields", "email").header(HttpHeaders.IF_NONE_MATCH, etag));
+
+        // then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].version", is(1)));
+    }
+
+    @Test
+    @DisplayName("export employees in partitions")
+    public void givenEmployees_whenExportInPartitions_thenWriteEveryEmployeeOnce() throws Exception {
+        // given
+        final Set<Long> ids = employeeRepository.saveAll(IntStream.range(0, 2500)
+                        .mapToObj(i -> Employee.builder()
+                                .firstName("John" + i)
+                                .secondName("Willick" + i)
+                                .email("johnwillick" + i + "@johnwillick.com")
+                                .build())
+                        .collect(Collectors.toList()))
+                .stream()
+                .map(Employee::getId)
+                .collect(Collectors.toSet());
+
+        // when
+        final MvcResult started = mockMvc.perform(get(EMPLOYEES_URI + "/export").param("partitions", "3"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        final ResultActions response = mockMvc.perform(asyncDispatch(started));
+
+        // then
+        assertThat(started.getRequest().getAsyncContext().getTimeout()).isEqualTo(-1L);
+        response.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-ndjson"));
+        final List<Long> exportedIds = Arrays.stream(response.andReturn().getResponse().getContentAsString().split("\n"))
+                .map(line -> readEmployee(line).getId())
+                .collect(Collectors.toList());
+        assertThat(exportedIds).hasSize(ids.size());
+        assertThat(exportedIds).containsExactlyInAnyOrderElementsOf(ids);
+    }
+
+    @Test
+    @DisplayName("export employees as csv")
+    public void givenEmployees_whenExportAsCsv_thenQuoteFieldsThatNeedIt() throws Exception {
+        // given
+        final Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("John, \"Baba Yaga\"")
+                .secondName("Wick")
+                .email("johnwick@johnwick.com")
+                .build());
+
+        // when
+        final MvcResult started = mockMvc.perform(get(EMPLOYEES_URI + "/export").param("format", "csv").param("fields", "id,firstName"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        final ResultActions response = mockMvc.perform(asyncDispatch(started));
+
+        // then
+        response.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"employees.csv\""));
+        assertThat(response.andReturn().getResponse().getContentAsString())
+                .isEqualTo("id,firstName\r\n" + employee.getId() + ",\"John, \"\"Baba Yaga\"\"\"\r\n");
+    }
+
+    @Test
+    @DisplayName("statements per request")
+    public void givenEmployee_whenCallEndpoints_thenRunExpectedStatements() throws Exception {
+        // given
+        final String body = objectMapper.writeValueAsString(Employee.builder()
+                .firstName("John")
+                .secondName("Willick")
+                .email("johnwillick@johnwillick.com")
+                .build());
+        // the first write of a context also purges expired changes, it is kept out of the counts
+        mockMvc.perform(post(EMPLOYEES_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Employee.builder()
+                        .firstName("Jocko")
+                        .secondName("Willick")
+                        .email("jockowillick@jockowillick.com")
+                        .build())))
+                .andExpect(status().isCreated());
+
+        // when / then, every write also records its change; the second read is answered by the employee cache
+        // and the update's read of the current row by the second-level cache, so neither reaches the database
+        // while the patch reads its row back for the etag and the event
+        final String created = assertStatementCount(mockMvc, post(EMPLOYEES_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body), 2)
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        final Employee employee = objectMapper.readValue(created, Employee.class);
+        employee.setFirstName("Johnny");
+        assertStatementCount(mockMvc, get(EMPLOYEES_URI + "/" + employee.getId()), 1)
+                .andExpect(status().isOk());
+        assertStatementCount(mockMvc, get(EMPLOYEES_URI + "/" + employee.getId()), 0)
+                .andExpect(status().isOk());
+        assertStatementCount(mockMvc, get(EMPLOYEES_URI), 1)
+                .andExpect(status().isOk());
+        assertStatementCount(mockMvc, put(EMPLOYEES_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)), 2)
+                .andExpect(status().isOk());
+        assertStatementCount(mockMvc, patch(EMPLOYEES_URI + "/" + employee.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(EmployeePatch.builder().secondName("Wick").build())), 3)
+                .andExpect(status().isNoContent());
+        assertStatementCount(mockMvc, delete(EMPLOYEES_URI + "/" + employee.getId()), 2)
+                .andExpect(status().isOk());
+        assertThatThrownBy(() -> assertStatementCount(mockMvc, get(EMPLOYEES_URI + "/stream"), 1))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("continues asynchronously");
+    }
+
+    private Employee readEmployee(final String line) {
+        try {
+            return objectMapper.readValue(line, Employee.class);
+        } catch (Exception exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    // the thread is parked inside the database driver once its update waits for the row the other transaction holds
+    private static void awaitRowLock(final AtomicReference<Thread> thread) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            final Thread waiting = thread.get();
+            if (waiting != null && waiting.getState() == Thread.State.TIMED_WAITING
+                    && Arrays.stream(waiting.getStackTrace()).anyMatch(frame -> frame.getClassName().startsWith("org.h2."))) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("the second update never waited for the row lock");
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
 }
@@ -0,0 +1,93 @@
+package com.github.pedroluiznogueira.testingapi.integration;
+
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.EmployeePatch;
+import com.github.pedroluiznogueira.testingapi.repository.EmployeeRepository;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+
+import static com.github.pedroluiznogueira.testingapi.support.ControllerSupport.EMPLOYEES_URI;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMetrics
+@AutoConfigureMockMvc
+@SpringBootTest
+public class EmployeeMetricsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("prometheus scrape")
+    public void givenServedRequests_whenScrapePrometheus_thenExposeLayerHistogramsAndPoolGauges() throws Exception {
+        // given
+        final Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("John")
+                .secondName("Willick")
+                .email("johnwillick@metrics.com")
+                .build());
+        mockMvc.perform(get(EMPLOYEES_URI)).andExpect(status().isOk());
+        mockMvc.perform(get(EMPLOYEES_URI + "/" + employee.getId())).andExpect(status().isOk());
+
+        // when
+        final String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // then
+        assertThat(scrape).contains("http_server_requests_seconds_bucket{");
+        assertThat(scrape).contains("uri=\"/api/employees/{id}\"");
+        assertThat(scrape).containsPattern("employee_service_seconds\\{.*method=\"getEmployees\".*quantile=\"0.999\"");
+        assertThat(scrape).containsPattern("spring_data_repository_invocations_seconds_bucket\\{.*method=\"findByIdGreaterThanOrderByIdAsc\"");
+        assertThat(scrape).contains("hikaricp_connections_active");
+        assertThat(scrape).contains("cache_gets_total{cache=\"employees\"");
+    }
+
+    @Test
+    @DisplayName("second-level cache")
+    public void givenCachedEmployee_whenReadAgainAndPatched_thenServeFromCacheUntilEvicted() throws Exception {
+        // given
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        final Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("John")
+                .secondName("Willick")
+                .email("johnwillick@secondlevel.com")
+                .build());
+        final long entityHits = statistics.getDomainDataRegionStatistics(Employee.CACHE_REGION).getHitCount();
+
+        // when
+        employeeRepository.findById(employee.getId());
+        employeeRepository.findById(employee.getId());
+        employeeService.patchEmployee(employee.getId(), EmployeePatch.builder().firstName("Jack").build(), null);
+        final Employee patched = employeeRepository.findById(employee.getId()).orElseThrow();
+        final String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // then
+        assertThat(statistics.getDomainDataRegionStatistics(Employee.CACHE_REGION).getHitCount() - entityHits).isGreaterThanOrEqualTo(1);
+        assertThat(patched.getFirstName()).isEqualTo("Jack");
+        assertThat(scrape).containsPattern("hibernate_second_level_cache_requests_total\\{.*region=\"employee\"");
+    }
+}
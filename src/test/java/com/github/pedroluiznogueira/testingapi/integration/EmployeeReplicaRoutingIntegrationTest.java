@@ -0,0 +1,127 @@
+package com.github.pedroluiznogueira.testingapi.integration;
+
+import com.github.pedroluiznogueira.testingapi.config.ReplicaLagTracker;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.servlet.http.Cookie;
+import java.util.List;
+
+import static com.github.pedroluiznogueira.testingapi.support.ControllerSupport.EMPLOYEES_URI;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "employee.routing.enabled=true",
+        "employee.routing.replica-lag=300ms",
+        "employee.routing.replicas[0].url=" + EmployeeReplicaRoutingIntegrationTest.REPLICA_URL,
+        "employee.routing.replicas[0].username=sa",
+        "employee.routing.replicas[0].password="
+})
+public class EmployeeReplicaRoutingIntegrationTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReplicaLagTracker replicaLagTracker;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeEach
+    public void setup() {
+        replica.execute("create table if not exists employee (id bigint auto_increment primary key, first_name varchar(255) not null, "
+                + "second_name varchar(255) not null, email varchar(255) not null, version bigint default 0 not null)");
+        replica.update("delete from employee");
+        jdbcTemplate.update("delete from employee");
+        replica.update("insert into employee (first_name, second_name, email) values ('Replica', 'Row', 'replica@replica.com')");
+    }
+
+    @Test
+    @DisplayName("read-only methods routed to replica")
+    public void givenNoRecentWrite_whenGetEmployees_thenReadFromReplica() throws InterruptedException {
+        // given
+        jdbcTemplate.update("insert into employee (first_name, second_name, email) values ('Primary', 'Row', 'primary@primary.com')");
+        while (replicaLagTracker.isReplicaBehind()) {
+            Thread.sleep(50);
+        }
+
+        // when
+        final List<Employee> employees = employeeService.getEmployees(null, null);
+
+        // then
+        assertThat(employees).extracting(Employee::getEmail).containsExactly("replica@replica.com");
+    }
+
+    @Test
+    @DisplayName("read-only methods routed to primary within replica lag")
+    public void givenRecentWrite_whenGetEmployees_thenReadYourWriteFromPrimary() {
+        // given
+        final Employee employee = employeeService.createEmployee(Employee.builder()
+                .firstName("John")
+                .secondName("Wick")
+                .email("johnwick@johnwick.com")
+                .build());
+
+        // when
+        final List<Employee> employees = employeeService.getEmployees(null, null);
+
+        // then
+        assertThat(employees).extracting(Employee::getId).containsExactly(employee.getId());
+    }
+
+    @Test
+    @DisplayName("read your writes per client")
+    public void givenWriteByOneClient_whenGetEmployees_thenOnlyThatClientReadsFromPrimary() throws Exception {
+        // given
+        final Cookie lastWrite = mockMvc.perform(post(EMPLOYEES_URI)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Employee.builder()
+                                .firstName("John")
+                                .secondName("Wick")
+                                .email("johnwick@johnwick.com")
+                                .build())))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().exists(ReplicaLagTracker.COOKIE))
+                .andReturn().getResponse().getCookie(ReplicaLagTracker.COOKIE);
+
+        // when / then
+        mockMvc.perform(get(EMPLOYEES_URI).cookie(lastWrite))
+                .andExpect(status().isOk())
+                .andExpect(cookie().doesNotExist(ReplicaLagTracker.COOKIE))
+                .andExpect(jsonPath("$[*].email", contains("johnwick@johnwick.com")));
+        mockMvc.perform(get(EMPLOYEES_URI))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].email", contains("replica@replica.com")));
+    }
+}
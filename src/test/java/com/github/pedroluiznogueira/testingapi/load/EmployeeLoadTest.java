@@ -0,0 +1,46 @@
+package com.github.pedroluiznogueira.testingapi.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// needs a running server, e.g. mvn test -Dtest=EmployeeLoadTest -Dload.uri=... -Dload.users=32 -Dload.rate=500 -Dload.duration=PT1M
+@Slf4j
+public class EmployeeLoadTest {
+
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("load.maxErrorRate", "0.01"));
+
+    @Test
+    @DisplayName("closed model load")
+    public void givenVirtualUsers_whenRunClosedModel_thenWriteLatencyDistributions() throws Exception {
+        // given
+        final LoadProfile profile = LoadProfile.fromSystemProperties(LoadProfile.Model.CLOSED);
+
+        // when
+        final LoadReport report = new LoadGenerator(profile).run();
+        report.write(profile.getOutput());
+        log.info("\n{}", report.summary());
+
+        // then
+        assertThat(report.getRequests()).isGreaterThan(0);
+        assertThat(report.getErrorCount()).isLessThanOrEqualTo((long) (report.getRequests() * MAX_ERROR_RATE));
+    }
+
+    @Test
+    @DisplayName("open model load")
+    public void givenArrivalRate_whenRunOpenModel_thenWriteLatencyDistributions() throws Exception {
+        // given
+        final LoadProfile profile = LoadProfile.fromSystemProperties(LoadProfile.Model.OPEN);
+
+        // when
+        final LoadReport report = new LoadGenerator(profile).run();
+        report.write(profile.getOutput());
+        log.info("\n{}", report.summary());
+
+        // then
+        assertThat(report.getRequests()).isGreaterThan(0);
+        assertThat(report.getErrorCount()).isLessThanOrEqualTo((long) (report.getRequests() * MAX_ERROR_RATE));
+    }
+}
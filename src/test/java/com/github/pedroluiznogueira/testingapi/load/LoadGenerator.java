@@ -0,0 +1,218 @@
+package com.github.pedroluiznogueira.testingapi.load;
+
+import com.github.pedroluiznogueira.testingapi.client.EmployeeClient;
+import com.github.pedroluiznogueira.testingapi.client.EmployeeClientBuilder;
+import com.github.pedroluiznogueira.testingapi.client.EmployeeClientOptions;
+import com.github.pedroluiznogueira.testingapi.load.LoadProfile.Operation;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import feign.Logger;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// open and paced closed runs take every latency from the moment the request was supposed to start, so a stalled
+// server shows up in the histograms instead of silently lowering the request rate (coordinated omission);
+// an unpaced closed run has no intended start to measure from and its report says it is uncorrected
+@Slf4j
+public class LoadGenerator {
+
+    private static final int HISTOGRAM_DIGITS = 3;
+
+    private final LoadProfile profile;
+    private final EmployeeClient employeeClient;
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final IdPool idPool = new IdPool();
+
+    private volatile long measureFrom;
+
+    public LoadGenerator(final LoadProfile profile) {
+        this.profile = profile;
+        // every request is a real round trip: no retries, no etag replays and no idempotency keys to answer from
+        this.employeeClient = new EmployeeClientBuilder(profile.getUri(), Logger.Level.NONE, EmployeeClientOptions.builder()
+                .retries(false)
+                .responseCacheEntries(0)
+                .idempotencyKeys(false)
+                .build()).getEmployeeClient();
+        this.operations = profile.getMix().keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += profile.getMix().get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(HISTOGRAM_DIGITS));
+            errors.put(operation, new AtomicLong());
+        }
+    }
+
+    public LoadReport run() throws InterruptedException {
+        final long start = System.nanoTime();
+        measureFrom = start + profile.getWarmup().toNanos();
+        final long end = measureFrom + profile.getDuration().toNanos();
+        log.info("running {} load against {} for {} after {} of warmup", profile.getModel(), profile.getUri(), profile.getDuration(), profile.getWarmup());
+        if (profile.getModel() == LoadProfile.Model.CLOSED) {
+            runClosed(start, end);
+        } else {
+            runOpen(start, end);
+        }
+        final long elapsed = System.nanoTime() - measureFrom;
+        final Map<Operation, Long> errorCounts = new EnumMap<>(Operation.class);
+        errors.forEach((operation, count) -> errorCounts.put(operation, count.get()));
+        final boolean corrected = profile.getModel() == LoadProfile.Model.OPEN || profile.getPacing() != null;
+        return new LoadReport(profile.getModel(), corrected, elapsed, histograms, errorCounts);
+    }
+
+    // without pacing a virtual user starts its next request as soon as the previous one ends,
+    // so only paced runs have an intended start that differs from the actual one
+    private void runClosed(final long start, final long end) throws InterruptedException {
+        final ExecutorService users = Executors.newFixedThreadPool(profile.getVirtualUsers());
+        final Long pacing = profile.getPacing() == null ? null : profile.getPacing().toNanos();
+        for (int user = 0; user < profile.getVirtualUsers(); user++) {
+            users.execute(() -> {
+                long intendedStart = start;
+                while (intendedStart < end) {
+                    if (pacing == null) {
+                        intendedStart = System.nanoTime();
+                    } else {
+                        parkUntil(intendedStart);
+                    }
+                    execute(intendedStart);
+                    if (pacing != null) {
+                        intendedStart += pacing;
+                    }
+                }
+            });
+        }
+        awaitTermination(users);
+    }
+
+    // requests wait in the pool queue when the server falls behind, and that wait is part of their latency
+    private void runOpen(final long start, final long end) throws InterruptedException {
+        final ExecutorService workers = Executors.newFixedThreadPool(profile.getMaxConcurrency());
+        final long interval = (long) (TimeUnit.SECONDS.toNanos(1) / profile.getArrivalRate());
+        for (long intendedStart = start; intendedStart < end; intendedStart += interval) {
+            parkUntil(intendedStart);
+            final long scheduled = intendedStart;
+            workers.execute(() -> execute(scheduled));
+        }
+        awaitTermination(workers);
+    }
+
+    private void execute(final long intendedStart) {
+        Operation operation = nextOperation();
+        try {
+            operation = perform(operation);
+        } catch (RuntimeException exception) {
+            if (intendedStart >= measureFrom) {
+                errors.get(operation).incrementAndGet();
+            }
+            log.debug("{} failed", operation, exception);
+            return;
+        }
+        if (intendedStart >= measureFrom) {
+            final long latency = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart);
+            histograms.get(operation).recordValue(Math.max(latency, 0));
+        }
+    }
+
+    // operations that need an existing employee fall back to a create until the pool has ids
+    private Operation perform(final Operation operation) {
+        final Long id = operation == Operation.DELETE ? idPool.take() : operation == Operation.CREATE || operation == Operation.LIST ? null : idPool.peek();
+        switch (id == null && operation != Operation.LIST ? Operation.CREATE : operation) {
+            case GET:
+                employeeClient.getEmployeeById(id);
+                return Operation.GET;
+            case LIST:
+                employeeClient.getEmployees(randomId(), null);
+                return Operation.LIST;
+            case UPDATE:
+                employeeClient.updateEmployee(newEmployee(id));
+                return Operation.UPDATE;
+            case DELETE:
+                employeeClient.deleteEmployee(id);
+                return Operation.DELETE;
+            default:
+                idPool.add(employeeClient.createEmployee(newEmployee(null)).getId());
+                return Operation.CREATE;
+        }
+    }
+
+    private Operation nextOperation() {
+        final int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private Long randomId() {
+        final Long id = idPool.peek();
+        return id == null ? 0L : Math.max(0L, id - ThreadLocalRandom.current().nextInt(100));
+    }
+
+    private static Employee newEmployee(final Long id) {
+        final String name = UUID.randomUUID().toString();
+        return Employee.builder()
+                .id(id)
+                .firstName(name.substring(0, 8))
+                .secondName(name.substring(9, 13))
+                .email(name + "@load.com")
+                .build();
+    }
+
+    private static void parkUntil(final long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static void awaitTermination(final ExecutorService executor) throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+            executor.shutdownNow();
+        }
+    }
+
+    // ids created by this run, removal swaps the last id into the freed slot
+    private static final class IdPool {
+        private final List<Long> ids = new ArrayList<>();
+
+        private synchronized void add(final Long id) {
+            ids.add(id);
+        }
+
+        private synchronized Long peek() {
+            return ids.isEmpty() ? null : ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        }
+
+        private synchronized Long take() {
+            if (ids.isEmpty()) {
+                return null;
+            }
+            final int index = ThreadLocalRandom.current().nextInt(ids.size());
+            final Long id = ids.get(index);
+            ids.set(index, ids.get(ids.size() - 1));
+            ids.remove(ids.size() - 1);
+            return id;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.pedroluiznogueira.testingapi.load;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+// closed runs a fixed number of virtual users, open starts requests at a fixed rate no matter how slow the server answers
+@Value
+@Builder
+public class LoadProfile {
+
+    public enum Model {
+        CLOSED, OPEN
+    }
+
+    public enum Operation {
+        CREATE, GET, LIST, UPDATE, DELETE
+    }
+
+    Model model;
+    String uri;
+    int virtualUsers;
+    double arrivalRate;
+    int maxConcurrency;
+    Duration duration;
+    Duration warmup;
+    Duration pacing;
+    Map<Operation, Integer> mix;
+    Path output;
+
+    public static LoadProfile fromSystemProperties(final Model model) {
+        return LoadProfile.builder()
+                .model(model)
+                .uri(System.getProperty("load.uri", "http://localhost:8080/api/employees"))
+                .virtualUsers(Integer.getInteger("load.users", 16))
+                .arrivalRate(Double.parseDouble(System.getProperty("load.rate", "200")))
+                .maxConcurrency(Integer.getInteger("load.concurrency", 64))
+                .duration(Duration.parse(System.getProperty("load.duration", "PT30S")))
+                .warmup(Duration.parse(System.getProperty("load.warmup", "PT5S")))
+                .pacing(System.getProperty("load.pacing") == null ? null : Duration.parse(System.getProperty("load.pacing")))
+                .mix(parseMix(System.getProperty("load.mix", "create=20,get=50,list=10,update=15,delete=5")))
+                .output(Path.of(System.getProperty("load.output", "target/load")))
+                .build();
+    }
+
+    static Map<Operation, Integer> parseMix(final String mix) {
+        final Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            final String[] weight = entry.trim().split("=");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("mix entries must look like operation=weight but got " + entry);
+            }
+            weights.put(Operation.valueOf(weight[0].trim().toUpperCase()), Integer.parseInt(weight[1].trim()));
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("mix must have a positive total weight");
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.pedroluiznogueira.testingapi.load;
+
+import com.github.pedroluiznogueira.testingapi.load.LoadProfile.Operation;
+import lombok.Getter;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// latencies are recorded in microseconds, the .hgrm files are scaled to milliseconds so they can be plotted as they are
+@Getter
+public class LoadReport {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final LoadProfile.Model model;
+    private final boolean corrected;
+    private final long elapsedNanos;
+    private final Map<Operation, Histogram> histograms;
+    private final Map<Operation, Long> errors;
+
+    public LoadReport(LoadProfile.Model model, boolean corrected, long elapsedNanos, Map<Operation, Histogram> histograms, Map<Operation, Long> errors) {
+        this.model = model;
+        this.corrected = corrected;
+        this.elapsedNanos = elapsedNanos;
+        this.histograms = histograms;
+        this.errors = errors;
+    }
+
+    public long getRequests() {
+        return histograms.values().stream().mapToLong(Histogram::getTotalCount).sum();
+    }
+
+    public long getErrorCount() {
+        return errors.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public double getThroughput(final Operation operation) {
+        return histograms.get(operation).getTotalCount() / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    public String summary() {
+        final StringBuilder summary = new StringBuilder(String.format("%s model over %.1fs%n", model, elapsedNanos / 1e9));
+        if (!corrected) {
+            summary.append(String.format("unpaced, latencies are NOT corrected for coordinated omission, set load.pacing to correct them%n"));
+        }
+        summary.append(String.format("%-8s %10s %8s %10s %10s %10s %10s %10s%n", "op", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        histograms.forEach((operation, histogram) -> summary.append(String.format("%-8s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                operation.name().toLowerCase(),
+                histogram.getTotalCount(),
+                errors.get(operation),
+                getThroughput(operation),
+                histogram.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+                histogram.getMaxValue() / MICROS_PER_MILLI)));
+        return summary.toString();
+    }
+
+    public void write(final Path directory) throws IOException {
+        Files.createDirectories(directory);
+        final String prefix = model.name().toLowerCase();
+        for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+            if (entry.getValue().getTotalCount() == 0) {
+                continue;
+            }
+            final Path file = directory.resolve(prefix + "-" + entry.getKey().name().toLowerCase() + ".hgrm");
+            try (PrintStream stream = new PrintStream(Files.newOutputStream(file))) {
+                entry.getValue().outputPercentileDistribution(stream, MICROS_PER_MILLI);
+            }
+        }
+        Files.writeString(directory.resolve(prefix + "-summary.txt"), summary());
+    }
+}
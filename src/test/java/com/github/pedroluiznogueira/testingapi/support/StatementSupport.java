@@ -0,0 +1,31 @@
+package com.github.pedroluiznogueira.testingapi.support;
+
+import com.github.pedroluiznogueira.testingapi.config.RequestStatements;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StatementSupport {
+
+    // performs the request and fails unless it ran exactly the expected number of statements,
+    // so a change that adds a round trip to an endpoint breaks the build instead of slipping through;
+    // async endpoints are refused since their statements run on other threads and are not counted
+    public static ResultActions assertStatementCount(final MockMvc mockMvc, final RequestBuilder request, final long expected) throws Exception {
+        final ResultActions response = mockMvc.perform(request);
+        final MockHttpServletRequest performed = response.andReturn().getRequest();
+        final RequestStatements statements = (RequestStatements) performed.getAttribute(RequestStatements.ATTRIBUTE);
+        assertThat(statements)
+                .as("statements of %s %s, is employee.statements.enabled off?", performed.getMethod(), performed.getRequestURI())
+                .isNotNull();
+        assertThat(statements.isAsync())
+                .as("%s %s continues asynchronously, its statements cannot be counted", performed.getMethod(), performed.getRequestURI())
+                .isFalse();
+        assertThat(statements.getStatements())
+                .as("statements of %s %s: %s", performed.getMethod(), performed.getRequestURI(), statements)
+                .isEqualTo(expected);
+        return response;
+    }
+}
@@ -1,43 +1,106 @@
 package com.github.pedroluiznogueira.testingapi.unit.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.pedroluiznogueira.testingapi.config.EmployeeProperties;
+import com.github.pedroluiznogueira.testingapi.controller.EmployeeController;
+import com.github.pedroluiznogueira.testingapi.controller.EmployeeETags;
+import com.github.pedroluiznogueira.testingapi.event.EmployeeChangedEvent;
+import com.github.pedroluiznogueira.testingapi.exception.ChangesExpiredException;
+import com.github.pedroluiznogueira.testingapi.exception.IngestionQueueFullException;
 import com.github.pedroluiznogueira.testingapi.exception.ResourceAlreadyExistException;
 import com.github.pedroluiznogueira.testingapi.exception.ResourceNotFoundException;
+import com.github.pedroluiznogueira.testingapi.exception.ResourceVersionMismatchException;
 import com.github.pedroluiznogueira.testingapi.exception.error.Error;
 import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.EmployeeChange;
+import com.github.pedroluiznogueira.testingapi.model.EmployeePatch;
+import com.github.pedroluiznogueira.testingapi.model.bulk.BulkResult;
+import com.github.pedroluiznogueira.testingapi.model.bulk.BulkOperation;
+import com.github.pedroluiznogueira.testingapi.model.imports.ImportJob;
+import com.github.pedroluiznogueira.testingapi.model.ingestion.IngestionTicket;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeBulkService;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeChangeFeed;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeExportService;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeImportService;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeIngestionService;
 import com.github.pedroluiznogueira.testingapi.service.EmployeeService;
+import com.github.pedroluiznogueira.testingapi.service.IdempotencyService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
 
 import static com.github.pedroluiznogueira.testingapi.support.ControllerSupport.*;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest
+@Import(IdempotencyService.class)
+@EnableConfigurationProperties(EmployeeProperties.class)
 public class EmployeeControllerTest {
 
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
     @Autowired
     private MockMvc mockMvc;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EmployeeProperties employeeProperties;
+
     @MockBean
     private EmployeeService employeeService;
 
+    @MockBean
+    private EmployeeBulkService employeeBulkService;
+
+    @MockBean
+    private EmployeeIngestionService employeeIngestionService;
+
+    @MockBean
+    private EmployeeChangeFeed employeeChangeFeed;
+
+    @MockBean
+    private EmployeeExportService employeeExportService;
+
+    @MockBean
+    private EmployeeImportService employeeImportService;
+
     @Test
     @DisplayName("create employee")
     public void givenEmployee_whenCreateEmployee_thenReturnCreatedEmployee() throws Exception {
@@ -69,6 +132,279 @@ public class EmployeeControllerTest {
                 .andExpect(jsonPath(EMAIL, is(employee.getEmail())));
     }
 
+    @Test
+    @DisplayName("create employee smile gzip")
+    public void givenGzippedSmileEmployee_whenCreateEmployee_thenReturnSmileEmployee() throws Exception {
+        // given
+        final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+        final Employee employee = Employee.builder()
+                .firstName("John")
+                .secondName("Willick")
+                .email("johnwillick@johnwillick.com")
+                .build();
+        final Employee returnEmployee = Employee.builder()
+                .id(1L)
+                .firstName(employee.getFirstName())
+                .secondName(employee.getSecondName())
+                .email(employee.getEmail())
+                .build();
+        when(employeeService.createEmployee(employee)).thenReturn(returnEmployee);
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(body)) {
+            gzip.write(smileMapper.writeValueAsBytes(employee));
+        }
+
+        // when
+        final ResultActions response = mockMvc.perform(post(EMPLOYEES_URI)
+                .contentType(SMILE)
+                .accept(SMILE)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .content(body.toByteArray()));
+
+        // then
+        final byte[] responseBody = response.andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(smileMapper.readValue(responseBody, Employee.class)).isEqualTo(returnEmployee);
+    }
+
+    @Test
+    @DisplayName("create employee unsupported encoding")
+    public void givenUnsupportedContentEncoding_whenCreateEmployee_thenReturnUnsupportedMediaType() throws Exception {
+        // given
+        final String body = objectMapper.writeValueAsString(Employee.builder().firstName("John").build());
+
+        // when
+        final ResultActions response = mockMvc.perform(post(EMPLOYEES_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_ENCODING, "br")
+                .content(body));
+
+        // then
+        response.andDo(print())
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    @DisplayName("create employee gzip bomb")
+    public void givenBodyInflatingPastLimit_whenCreateEmployee_thenReturnPayloadTooLarge() throws Exception {
+        // given, leading whitespace is skipped by the parser so only the inflater ever sees the whole body
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        final byte[] whitespace = new byte[64 * 1024];
+        Arrays.fill(whitespace, (byte) ' ');
+        try (GZIPOutputStream gzip = new GZIPOutputStream(body)) {
+            for (long written = 0; written <= employeeProperties.getDecompression().getMaxInflatedSize().toBytes(); written += whitespace.length) {
+                gzip.write(whitespace);
+            }
+            gzip.write(objectMapper.writeValueAsBytes(Employee.builder().firstName("John").build()));
+        }
+
+        // when
+        final ResultActions response = mockMvc.perform(post(EMPLOYEES_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .content(body.toByteArray()));
+
+        // then
+        response.andExpect(status().isPayloadTooLarge());
+        verifyNoInteractions(employeeService);
+    }
+
+    @Test
+    @DisplayName("create employee replayed idempotency key")
+    public void givenIdempotencyKey_whenCreateEmployeeTwice_thenReplayFirstResult() throws Exception {
+        // given
+        final Employee employee = Employee.builder()
+                .firstName("John")
+                .secondName("Willick")
+                .email("johnwillick@johnwillick.com")
+                .build();
+        final Employee returnEmployee = Employee.builder()
+                .id(1L)
+                .firstName(employee.getFirstName())
+                .secondName(employee.getSecondName())
+                .email(employee.getEmail())
+                .build();
+        when(employeeService.createEmployee(employee)).thenReturn(returnEmployee);
+        final String body = objectMapper.writeValueAsString(employee);
+        mockMvc.perform(post(EMPLOYEES_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(IdempotencyService.HEADER, "create-replayed")
+                .content(body));
+
+        // when
+        final ResultActions response = mockMvc.perform(post(EMPLOYEES_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(IdempotencyService.HEADER, "create-replayed")
+                .content(body));
+
+        // then
+        response.andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(header().string(EmployeeController.IDEMPOTENT_REPLAYED, "true"))
+                .andExpect(jsonPath(ID, is(1)));
+        verify(employeeService, times(1)).createEmployee(employee);
+    }
+
+    @Test
+    @DisplayName("create employee reused idempotency key")
+    public void givenUsedIdempotencyKey_whenCreateDifferentEmployee_thenReturnUnprocessableEntity() throws Exception {
+        // given
+        final Employee employee = Employee.builder()
+                .firstName("John")
+                .secondName("Willick")
+                .email("johnwillick@johnwillick.com")
+                .build();
+        when(employeeService.createEmployee(any(Employee.class))).thenReturn(Employee.builder().id(1L).build());
+        mockMvc.perform(post(EMPLOYEES_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(IdempotencyService.HEADER, "create-reused")
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // when
+        final ResultActions response = mockMvc.perform(post(EMPLOYEES_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(IdempotencyService.HEADER, "create-reused")
+                .content(objectMapper.writeValueAsString(Employee.builder().firstName("Jane").build())));
+
+        // then
+        response.andDo(print())
+                .andExpect(status().isUnprocessableEntity());
+        verify(employeeService, times(1)).createEmployee(any(Employee.class));
+    }
+
+    @Test
+    @DisplayName("ingest employee")
+    public void givenEmployee_whenIngestEmployee_thenReturnAcceptedTicket() throws Exception {
+        // given
+        final Employee employee = Employee.builder()
+                .firstName("John")
+                .secondName("Willick")
+                .email("johnwillick@johnwillick.com")
+                .build();
+        final IngestionTicket ticket = IngestionTicket.builder()
+                .id("ticket")
+                .state(IngestionTicket.State.QUEUED)
+                .build();
+        when(employeeIngestionService.submit(employee)).thenReturn(ticket);
+
+        // when
+        final ResultActions response = mockMvc.perform(post(EMPLOYEES_URI + "/_ingest")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // then
+        response.andDo(print())
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, EMPLOYEES_URI + "/_ingest/ticket"))
+                .andExpect(jsonPath("$.state", is("QUEUED")));
+    }
+
+    @Test
+    @DisplayName("ingest employee queue full")
+    public void givenFullQueue_whenIngestEmployee_thenReturnTooManyRequests() throws Exception {
+        // given
+        when(employeeIngestionService.submit(any(Employee.class))).thenThrow(new IngestionQueueFullException(1));
+
+        // when
+        final ResultActions response = mockMvc.perform(post(EMPLOYEES_URI + "/_ingest")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Employee.builder().firstName("John").build())));
+
+        // then
+        response.andDo(print())
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    @Test
+    @DisplayName("import employees from csv")
+    public void givenCsvBody_whenImportEmployees_thenReturnAcceptedJob() throws Exception {
+        // given
+        final ImportJob job = ImportJob.builder()
+                .id("job")
+                .state(ImportJob.State.QUEUED)
+                .format("csv")
+                .build();
+        when(employeeImportService.submit(eq(EmployeeImportService.Format.CSV), any(InputStream.class))).thenReturn(job);
+
+        // when
+        final ResultActions response = mockMvc.perform(post(EMPLOYEES_URI + "/_import")
+                .contentType("text/csv;charset=UTF-8")
+                .content("firstName,secondName,email\r\nJohn,Willick,john@john.com\r\n"));
+
+        // then
+        response.andDo(print())
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, EMPLOYEES_URI + "/_import/job"))
+                .andExpect(jsonPath("$.state", is("QUEUED")));
+    }
+
+    @Test
+    @DisplayName("get unknown import")
+    public void givenUnknownJob_whenGetImport_thenReturnNotFound() throws Exception {
+        // given
+        when(employeeImportService.getJob("job")).thenReturn(Optional.empty());
+
+        // when
+        final ResultActions response = mockMvc.perform(get(EMPLOYEES_URI + "/_import/job"));
+
+        // then
+        response.andDo(print())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("get changes after sequence")
+    public void givenSequence_whenGetChanges_thenReturnChangesAfterIt() throws Exception {
+        // given
+        final EmployeeChange change = EmployeeChange.builder()
+                .sequence(8L)
+                .type(EmployeeChangedEvent.Type.DELETED)
+                .employeeId(3L)
+                .build();
+        when(employeeChangeFeed.getChanges(7L, 10)).thenReturn(List.of(change));
+
+        // when
+        final ResultActions response = mockMvc.perform(get(EMPLOYEES_URI + "/changes")
+                .param("after", "7")
+                .param("limit", "10"));
+
+        // then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].sequence", is(8)))
+                .andExpect(jsonPath("$[0].type", is("DELETED")))
+                .andExpect(jsonPath("$[0].employeeId", is(3)));
+    }
+
+    @Test
+    @DisplayName("get changes after purged sequence")
+    public void givenPurgedSequence_whenGetChanges_thenReturnGone() throws Exception {
+        // given
+        when(employeeChangeFeed.getChanges(1L, null)).thenThrow(new ChangesExpiredException(1L, 100L));
+
+        // when
+        final ResultActions response = mockMvc.perform(get(EMPLOYEES_URI + "/changes").param("after", "1"));
+
+        // then
+        response.andDo(print())
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    @DisplayName("export employees unknown format")
+    public void givenUnknownFormat_whenExportEmployees_thenReturnBadRequestBeforeStreaming() throws Exception {
+        // when
+        final ResultActions response = mockMvc.perform(get(EMPLOYEES_URI + "/export").param("format", "xml"));
+
+        // then
+        response.andDo(print())
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(employeeExportService);
+    }
+
     @Test
     @DisplayName("create employee email already exist")
     public void givenEmployee_whenCreateEmployee_thenThrowEmployeeAlreadyExist() throws Exception {
@@ -92,11 +428,42 @@ public class EmployeeControllerTest {
 
         // then
         response.andDo(print())
-                .andExpect(status().isBadRequest())
+                .andExpect(status().isConflict())
                 .andExpect(jsonPath(MESSAGE, is(expectedError.getMessage())))
                 .andExpect(jsonPath(DETAIL, is(expectedError.getDetail())));
     }
 
+    @Test
+    @DisplayName("bulk operations")
+    @SuppressWarnings("unchecked")
+    public void givenNdjsonOperations_whenBulk_thenReturnResultPerOperation() throws Exception {
+        // given
+        final String body = "{\"type\":\"CREATE\",\"employee\":{\"firstName\":\"John\",\"secondName\":\"Willick\",\"email\":\"johnwillick@johnwillick.com\"}}\n"
+                + "{\"type\":\"DELETE\",\"id\":2}\n";
+        when(employeeBulkService.applyStream(any(MappingIterator.class))).thenAnswer(invocation -> {
+            final Iterator<BulkOperation> operations = invocation.getArgument(0);
+            final BulkOperation create = operations.next();
+            final BulkOperation delete = operations.next();
+            return List.of(
+                    BulkResult.builder().index(0).type(create.getType()).id(1L).status(201).build(),
+                    BulkResult.builder().index(1).type(delete.getType()).id(delete.getId()).status(200).build());
+        });
+
+        // when
+        final ResultActions response = mockMvc.perform(post(EMPLOYEES_URI + "/_bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body));
+
+        // then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(SIZE, is(2)))
+                .andExpect(jsonPath("$[0].type", is("CREATE")))
+                .andExpect(jsonPath("$[0].status", is(201)))
+                .andExpect(jsonPath("$[1].type", is("DELETE")))
+                .andExpect(jsonPath("$[1].id", is(2)));
+    }
+
     @Test
     @DisplayName("get employees")
     public void givenEmployees_whenGetEmployees_thenReturnEmployees() throws Exception {
@@ -108,7 +475,7 @@ public class EmployeeControllerTest {
                 .email("johnwillick@johnwillick.com")
                 .build();
         final List<Employee> employees = List.of(employee);
-        when(employeeService.getEmployees()).thenReturn(employees);
+        when(employeeService.getEmployees(null, null)).thenReturn(employees);
 
         // when
         final ResultActions response = mockMvc.perform(get(EMPLOYEES_URI));
@@ -124,7 +491,7 @@ public class EmployeeControllerTest {
     public void givenNoEmployees_whenGetEmployees_thenReturnNoEmployees() throws Exception {
         // given
         final List<Employee> employees = List.of();
-        when(employeeService.getEmployees()).thenReturn(employees);
+        when(employeeService.getEmployees(null, null)).thenReturn(employees);
 
         // when
         final ResultActions response = mockMvc.perform(get(EMPLOYEES_URI));
@@ -135,6 +502,102 @@ public class EmployeeControllerTest {
                 .andExpect(jsonPath(SIZE, is(0)));
     }
 
+    @Test
+    @DisplayName("get employees after cursor")
+    public void givenCursorAndLimit_whenGetEmployees_thenReturnPage() throws Exception {
+        // given
+        final Employee employee = Employee.builder()
+                .id(11L)
+                .firstName("John")
+                .secondName("Willick")
+                .email("johnwillick@johnwillick.com")
+                .build();
+        when(employeeService.getEmployees(10L, 1)).thenReturn(List.of(employee));
+
+        // when
+        final ResultActions response = mockMvc.perform(get(EMPLOYEES_URI)
+                .param("after", "10")
+                .param("limit", "1"));
+
+        // then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(SIZE, is(1)))
+                .andExpect(jsonPath("$[0].id", is(11)));
+    }
+
+    @Test
+    @DisplayName("search employees")
+    public void givenQuery_whenSearchEmployees_thenReturnMatchingEmployees() throws Exception {
+        // given
+        final Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("John")
+                .secondName("Wick")
+                .email("johnwick@johnwick.com")
+                .build();
+        when(employeeService.searchEmployees("jo", 5)).thenReturn(List.of(employee));
+
+        // when
+        final ResultActions response = mockMvc.perform(get(EMPLOYEES_URI + "/search")
+                .param("q", "jo")
+                .param("limit", "5"));
+
+        // then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(SIZE, is(1)))
+                .andExpect(jsonPath("$[0].firstName", is("John")));
+    }
+
+    @Test
+    @DisplayName("get employees fields")
+    public void givenFields_whenGetEmployees_thenReturnOnlyRequestedFields() throws Exception {
+        // given
+        when(employeeService.getEmployees(null, null, "email")).thenReturn(List.of(Map.of("id", 1L, "version", 0L, "email", "johnwick@johnwick.com")));
+
+        // when
+        final ResultActions response = mockMvc.perform(get(EMPLOYEES_URI).param("fields", "email"));
+
+        // then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(SIZE, is(1)))
+                .andExpect(jsonPath("$[0].size()", is(3)))
+                .andExpect(jsonPath("$[0].email", is("johnwick@johnwick.com")))
+                .andExpect(header().exists(HttpHeaders.ETAG));
+    }
+
+    @Test
+    @DisplayName("stream employees")
+    @SuppressWarnings("unchecked")
+    public void givenEmployees_whenStreamEmployees_thenWriteJsonArray() throws Exception {
+        // given
+        final Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("John")
+                .secondName("Willick")
+                .email("johnwillick@johnwillick.com")
+                .build();
+        doAnswer(invocation -> {
+            final Consumer<Employee> consumer = invocation.getArgument(0);
+            consumer.accept(employee);
+            consumer.accept(employee);
+            return null;
+        }).when(employeeService).streamEmployees(any(Consumer.class));
+
+        // when
+        final ResultActions response = mockMvc.perform(get(EMPLOYEES_URI + "/stream"))
+                .andExpect(request().asyncStarted());
+
+        // then
+        mockMvc.perform(asyncDispatch(response.andReturn()))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(SIZE, is(2)))
+                .andExpect(jsonPath("$[0].email", is(employee.getEmail())));
+    }
+
     @Test
     @DisplayName("get employee by id")
     public void givenEmployeeId_whenGetEmployeeById_thenReturnEmployee() throws Exception {
@@ -159,6 +622,134 @@ public class EmployeeControllerTest {
                 .andExpect(jsonPath(EMAIL, is("johnwillick@johnwillick.com")));
     }
 
+    @Test
+    @DisplayName("get employee by id etag")
+    public void givenEmployeeId_whenGetEmployeeById_thenReturnVersionAsETag() throws Exception {
+        // given
+        final Long id = 1L;
+        final Employee returnEmployee = Employee.builder()
+                .id(1L)
+                .firstName("John")
+                .secondName("Willick")
+                .email("johnwillick@johnwillick.com")
+                .version(3L)
+                .build();
+        when(employeeService.getEmployeeById(id)).thenReturn(returnEmployee);
+
+        // when
+        final ResultActions response = mockMvc.perform(get(EMPLOYEES_URI + "/" + id));
+
+        // then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+    }
+
+    @Test
+    @DisplayName("get employee fields by id")
+    public void givenFields_whenGetEmployeeById_thenProjectTheTaggedEmployeeLoadedOnce() throws Exception {
+        // given
+        final Long id = 1L;
+        final Employee returnEmployee = Employee.builder()
+                .id(1L)
+                .firstName("John")
+                .secondName("Willick")
+                .email("johnwillick@johnwillick.com")
+                .version(3L)
+                .build();
+        when(employeeService.getEmployeeById(id)).thenReturn(returnEmployee);
+
+        // when
+        final ResultActions response = mockMvc.perform(get(EMPLOYEES_URI + "/" + id).param("fields", "email, firstName"));
+
+        // then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, EmployeeETags.of(returnEmployee, "email, firstName")))
+                .andExpect(content().json("{\"email\":\"johnwillick@johnwillick.com\",\"firstName\":\"John\"}", true));
+        verify(employeeService, times(1)).getEmployeeById(id);
+    }
+
+    @Test
+    @DisplayName("get employee by id not modified")
+    public void givenCurrentETag_whenGetEmployeeById_thenReturnNotModifiedWithoutBody() throws Exception {
+        // given
+        final Long id = 1L;
+        final Employee returnEmployee = Employee.builder()
+                .id(1L)
+                .firstName("John")
+                .secondName("Willick")
+                .email("johnwillick@johnwillick.com")
+                .version(3L)
+                .build();
+        when(employeeService.getEmployeeById(id)).thenReturn(returnEmployee);
+
+        // when
+        final ResultActions response = mockMvc.perform(get(EMPLOYEES_URI + "/" + id).header(HttpHeaders.IF_NONE_MATCH, "\"3\""));
+
+        // then
+        response.andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("get employee by id stale etag")
+    public void givenStaleETag_whenGetEmployeeById_thenReturnEmployee() throws Exception {
+        // given
+        final Long id = 1L;
+        final Employee returnEmployee = Employee.builder()
+                .id(1L)
+                .firstName("John")
+                .secondName("Willick")
+                .email("johnwillick@johnwillick.com")
+                .version(4L)
+                .build();
+        when(employeeService.getEmployeeById(id)).thenReturn(returnEmployee);
+
+        // when
+        final ResultActions response = mockMvc.perform(get(EMPLOYEES_URI + "/" + id).header(HttpHeaders.IF_NONE_MATCH, "\"3\""));
+
+        // then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"4\""))
+                .andExpect(jsonPath(FIRST_NAME, is("John")));
+    }
+
+    @Test
+    @DisplayName("get employees not modified")
+    public void givenPageETag_whenGetEmployees_thenReturnNotModifiedUntilPageChanges() throws Exception {
+        // given
+        final Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("John")
+                .secondName("Wick")
+                .email("johnwick@johnwick.com")
+                .version(0L)
+                .build();
+        final Employee updatedEmployee = Employee.builder()
+                .id(1L)
+                .firstName("Jocko")
+                .secondName("Wick")
+                .email("johnwick@johnwick.com")
+                .version(1L)
+                .build();
+        when(employeeService.getEmployees(null, null)).thenReturn(List.of(employee), List.of(employee), List.of(updatedEmployee));
+        final String eTag = mockMvc.perform(get(EMPLOYEES_URI)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // when
+        final ResultActions unchanged = mockMvc.perform(get(EMPLOYEES_URI).header(HttpHeaders.IF_NONE_MATCH, eTag));
+        final ResultActions changed = mockMvc.perform(get(EMPLOYEES_URI).header(HttpHeaders.IF_NONE_MATCH, eTag));
+
+        // then
+        unchanged.andExpect(status().isNotModified());
+        changed.andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].firstName", is("Jocko")));
+    }
+
     @Test
     @DisplayName("get employee by id not found")
     public void givenEmployeeId_whenGetEmployeeById_thenThrowEmployeeNotFound() throws Exception {
@@ -175,7 +766,7 @@ public class EmployeeControllerTest {
 
         // then
         response.andDo(print())
-                .andExpect(status().isBadRequest())
+                .andExpect(status().isNotFound())
                 .andExpect(jsonPath(MESSAGE, is(expectedError.getMessage())))
                 .andExpect(jsonPath(DETAIL, is(expectedError.getDetail())));
     }
@@ -231,7 +822,58 @@ public class EmployeeControllerTest {
 
         // then
         response.andDo(print())
-                .andExpect(status().isBadRequest())
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath(MESSAGE, is(expectedError.getMessage())))
+                .andExpect(jsonPath(DETAIL, is(expectedError.getDetail())));
+    }
+
+    @Test
+    @DisplayName("patch employee")
+    public void givenEmployeePatchAndVersion_whenPatchEmployee_thenReturnNewVersion() throws Exception {
+        // given
+        final Long id = 1L;
+        final EmployeePatch patch = EmployeePatch.builder()
+                .email("johnwillick@johnwillick.com")
+                .build();
+        when(employeeService.patchEmployee(id, patch, 3L)).thenReturn(4L);
+        final String body = objectMapper.writeValueAsString(patch);
+
+        // when
+        final ResultActions response = mockMvc.perform(patch(EMPLOYEES_URI + "/" + id)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+
+        // then
+        response.andDo(print())
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"4\""));
+    }
+
+    @Test
+    @DisplayName("patch employee stale version")
+    public void givenStaleVersion_whenPatchEmployee_thenReturnPreconditionFailed() throws Exception {
+        // given
+        final Long id = 1L;
+        final EmployeePatch patch = EmployeePatch.builder()
+                .firstName("Johnny")
+                .build();
+        final Error expectedError = Error.builder()
+                .message("Employee with id : '1' is not at version '3'")
+                .detail("uri=/api/employees/1")
+                .build();
+        when(employeeService.patchEmployee(id, patch, 3L)).thenThrow(new ResourceVersionMismatchException("Employee", "id", id.toString(), 3L));
+        final String body = objectMapper.writeValueAsString(patch);
+
+        // when
+        final ResultActions response = mockMvc.perform(patch(EMPLOYEES_URI + "/" + id)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+
+        // then
+        response.andDo(print())
+                .andExpect(status().isPreconditionFailed())
                 .andExpect(jsonPath(MESSAGE, is(expectedError.getMessage())))
                 .andExpect(jsonPath(DETAIL, is(expectedError.getDetail())));
     }
@@ -249,4 +891,19 @@ public class EmployeeControllerTest {
         response.andDo(print())
                 .andExpect(status().isOk());
     }
+
+    @Test
+    @DisplayName("delete employees")
+    public void givenEmployeeIds_whenDeleteEmployees_thenReturnDeletedCount() throws Exception {
+        // given
+        when(employeeService.deleteEmployees(List.of(1L, 2L, 3L))).thenReturn(2);
+
+        // when
+        final ResultActions response = mockMvc.perform(delete(EMPLOYEES_URI).param("ids", "1,2,3"));
+
+        // then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", is(2)));
+    }
 }
@@ -1,16 +1,31 @@
 package com.github.pedroluiznogueira.testingapi.unit.error;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.pedroluiznogueira.testingapi.config.EmployeeProperties;
+import com.github.pedroluiznogueira.testingapi.exception.InvalidRequestException;
 import com.github.pedroluiznogueira.testingapi.exception.ResourceAlreadyExistException;
+import com.github.pedroluiznogueira.testingapi.exception.ResourceNotFoundException;
 import com.github.pedroluiznogueira.testingapi.exception.error.Error;
+import com.github.pedroluiznogueira.testingapi.exception.error.ErrorCounters;
+import com.github.pedroluiznogueira.testingapi.exception.error.ErrorHandler;
 import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeBulkService;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeChangeFeed;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeExportService;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeImportService;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeIngestionService;
 import com.github.pedroluiznogueira.testingapi.service.EmployeeService;
+import com.github.pedroluiznogueira.testingapi.service.IdempotencyService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
@@ -18,12 +33,15 @@ import org.springframework.test.web.servlet.ResultActions;
 import static com.github.pedroluiznogueira.testingapi.support.ControllerSupport.EMPLOYEES_URI;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @Slf4j
 @WebMvcTest
+@Import(IdempotencyService.class)
+@EnableConfigurationProperties(EmployeeProperties.class)
 public class ErrorHandlerTest {
 
     @Autowired
@@ -32,12 +50,30 @@ public class ErrorHandlerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ErrorHandler errorHandler;
+
     @MockBean
     private EmployeeService employeeService;
 
+    @MockBean
+    private EmployeeBulkService employeeBulkService;
+
+    @MockBean
+    private EmployeeIngestionService employeeIngestionService;
+
+    @MockBean
+    private EmployeeChangeFeed employeeChangeFeed;
+
+    @MockBean
+    private EmployeeExportService employeeExportService;
+
+    @MockBean
+    private EmployeeImportService employeeImportService;
+
     @Test
-    @DisplayName("global handler")
-    public void givenAnyErrorScenario_whenThrowException_thenReturnGlobalError() throws Exception {
+    @DisplayName("already exist handler")
+    public void givenExistingEmail_whenThrowAlreadyExist_thenReturnConflict() throws Exception {
         // given
         final Employee employee = Employee.builder()
                 .firstName("John")
@@ -56,7 +92,93 @@ public class ErrorHandlerTest {
         final Error error = objectMapper.readValue(json, Error.class);
 
         // then
-        response.andDo(print()).andExpect(status().isBadRequest());
+        response.andDo(print()).andExpect(status().isConflict());
         assertThat(error).isNotNull();
+        assertThat(error.getTimestamp()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("not found handler")
+    public void givenMissingEmployee_whenThrowNotFound_thenReturnNotFoundWithoutStackTrace() throws Exception {
+        // given
+        final ResourceNotFoundException exception = new ResourceNotFoundException("Employee", "id", "1");
+        when(employeeService.getEmployeeById(1L)).thenThrow(exception);
+
+        // when
+        final ResultActions response = mockMvc.perform(get(EMPLOYEES_URI + "/1"));
+
+        // then
+        response.andDo(print()).andExpect(status().isNotFound());
+        assertThat(exception.getStackTrace().length).isEqualTo(0);
+        assertThat(exception.getMessage()).isEqualTo("Employee not found with id : '1'");
+    }
+
+    @Test
+    @DisplayName("invalid request handler")
+    public void givenInvalidRequest_whenThrowInvalidRequest_thenReturnBadRequestWithItsMessage() throws Exception {
+        // given
+        when(employeeService.getEmployeeById(1L)).thenThrow(new InvalidRequestException("limit must be between 1 and 1000"));
+
+        // when
+        final ResultActions response = mockMvc.perform(get(EMPLOYEES_URI + "/1"));
+
+        final String json = response.andReturn().getResponse().getContentAsString();
+        final Error error = objectMapper.readValue(json, Error.class);
+
+        // then
+        response.andDo(print()).andExpect(status().isBadRequest());
+        assertThat(error.getMessage()).isEqualTo("limit must be between 1 and 1000");
+    }
+
+    @Test
+    @DisplayName("bad request handler")
+    public void givenIllegalArgument_whenThrowIllegalArgument_thenReturnBadRequestWithoutItsMessage() throws Exception {
+        // given
+        when(employeeService.getEmployeeById(1L)).thenThrow(new IllegalArgumentException("No enum constant com.github.pedroluiznogueira.testingapi.model.EmployeeField.salary"));
+
+        // when
+        final ResultActions response = mockMvc.perform(get(EMPLOYEES_URI + "/1"));
+
+        final String json = response.andReturn().getResponse().getContentAsString();
+        final Error error = objectMapper.readValue(json, Error.class);
+
+        // then
+        response.andDo(print()).andExpect(status().isBadRequest());
+        assertThat(error.getMessage()).isEqualTo("invalid request");
+    }
+
+    @Test
+    @DisplayName("global handler")
+    public void givenUnexpectedError_whenThrowException_thenReturnInternalServerErrorWithoutItsMessage() throws Exception {
+        // given
+        when(employeeService.getEmployeeById(1L)).thenThrow(new IllegalStateException("connection to db-primary:3306 refused"));
+
+        // when
+        final ResultActions response = mockMvc.perform(get(EMPLOYEES_URI + "/1"));
+
+        final String json = response.andReturn().getResponse().getContentAsString();
+        final Error error = objectMapper.readValue(json, Error.class);
+
+        // then
+        response.andDo(print()).andExpect(status().isInternalServerError());
+        assertThat(error.getMessage()).isEqualTo("unexpected error");
+    }
+
+    @Test
+    @DisplayName("error counters")
+    public void givenBoundRegistry_whenHandleErrors_thenCountPerExceptionType() throws Exception {
+        // given
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        errorHandler.bindTo(registry);
+        when(employeeService.getEmployeeById(1L)).thenThrow(new ResourceNotFoundException("Employee", "id", "1"));
+
+        // when
+        mockMvc.perform(get(EMPLOYEES_URI + "/1"));
+        mockMvc.perform(get(EMPLOYEES_URI + "/1"));
+        mockMvc.perform(get(EMPLOYEES_URI + "/x"));
+
+        // then
+        assertThat(registry.get(ErrorCounters.NAME).tags("exception", "ResourceNotFoundException", "status", "404").counter().count()).isEqualTo(2.0);
+        assertThat(registry.get(ErrorCounters.NAME).tags("status", "400").counter().count()).isEqualTo(1.0);
     }
 }
@@ -1,20 +1,26 @@
 package com.github.pedroluiznogueira.testingapi.unit.repository;
 
 import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.EmployeeField;
 import com.github.pedroluiznogueira.testingapi.repository.EmployeeRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Slf4j
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
 public class EmployeeRepositoryTest {
 
     @Autowired private EmployeeRepository employeeRepository;
@@ -37,6 +43,28 @@ public class EmployeeRepositoryTest {
         assertThat(persistedEmployee.getId()).isGreaterThan(0);
     }
 
+    @Test
+    @DisplayName("save() duplicated email")
+    public void givenEmployeeWithExistingEmail_whenSave_thenViolateUniqueEmail() {
+        // given
+        employeeRepository.saveAndFlush(Employee.builder()
+                .firstName("John")
+                .secondName("Wick")
+                .email("johnwick@johnwick.com")
+                .build());
+        final Employee employee = Employee.builder()
+                .firstName("Jocko")
+                .secondName("Willick")
+                .email("johnwick@johnwick.com")
+                .build();
+
+        // when
+        final DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class, () -> employeeRepository.saveAndFlush(employee));
+
+        // then
+        assertThat(exception.getMostSpecificCause().getMessage().toLowerCase()).contains(Employee.EMAIL_CONSTRAINT);
+    }
+
     @Test
     @DisplayName("findAll()")
     public void givenEmployeesList_whenFindAll_thenReturnPersistedEmployees() {
@@ -63,6 +91,56 @@ public class EmployeeRepositoryTest {
         assertThat(persistedEmployees.size()).usingRecursiveComparison().isEqualTo(2);
     }
 
+    @Test
+    @DisplayName("findByIdGreaterThanOrderByIdAsc()")
+    public void givenEmployeesList_whenFindByIdGreaterThan_thenReturnPageAfterCursor() {
+        // given
+        final List<Employee> persistedEmployees = employeeRepository.saveAll(List.of(
+                Employee.builder()
+                        .firstName("John")
+                        .secondName("Wick")
+                        .email("johnwick@johnwick.com")
+                        .build(),
+                Employee.builder()
+                        .firstName("Jocko")
+                        .secondName("Willick")
+                        .email("jockowillick@jockowillick.com")
+                        .build(),
+                Employee.builder()
+                        .firstName("Jack")
+                        .secondName("Reacher")
+                        .email("jackreacher@jackreacher.com")
+                        .build()
+        ));
+        final Long cursor = persistedEmployees.get(0).getId();
+
+        // when
+        final List<Employee> page = employeeRepository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, 1));
+
+        // then
+        assertThat(page.size()).isEqualTo(1);
+        assertThat(page.get(0).getId()).isEqualTo(persistedEmployees.get(1).getId());
+    }
+
+    @Test
+    @DisplayName("findFieldsByIdGreaterThan()")
+    public void givenFields_whenFindFieldsByIdGreaterThan_thenReturnOnlyRequestedFields() {
+        // given
+        final Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("John")
+                .secondName("Wick")
+                .email("johnwick@johnwick.com")
+                .build());
+        final LinkedHashSet<EmployeeField> fields = new LinkedHashSet<>(List.of(EmployeeField.ID, EmployeeField.EMAIL));
+
+        // when
+        final List<Map<String, Object>> page = employeeRepository.findFieldsByIdGreaterThan(fields, 0L, 10);
+
+        // then
+        assertThat(page.size()).isEqualTo(1);
+        assertThat(page.get(0)).isEqualTo(Map.of("id", employee.getId(), "email", "johnwick@johnwick.com"));
+    }
+
     @Test
     @DisplayName("findById()")
     public void givenEmployeeId_whenFindById_thenReturnPersistedEmployeeById() {
@@ -121,6 +199,7 @@ public class EmployeeRepositoryTest {
                 .firstName("Jocko")
                 .secondName(persistedEmployee.getSecondName())
                 .email(persistedEmployee.getEmail())
+                .version(foundEmployee.getVersion())
                 .build();
         final Employee updatedEmployee = employeeRepository.save(foundEmployeeUpdated);
 
@@ -0,0 +1,261 @@
+package com.github.pedroluiznogueira.testingapi.unit.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.pedroluiznogueira.testingapi.config.EmployeeProperties;
+import com.github.pedroluiznogueira.testingapi.event.EmployeeChangedEvent;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.bulk.BulkOperation;
+import com.github.pedroluiznogueira.testingapi.model.bulk.BulkResult;
+import com.github.pedroluiznogueira.testingapi.repository.EmployeeJdbcRepository;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeBulkService;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeEmailFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeBulkServiceTest {
+
+    @Mock
+    private EmployeeJdbcRepository employeeJdbcRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private EmployeeProperties employeeProperties = new EmployeeProperties();
+
+    @Mock
+    private EmployeeEmailFilter employeeEmailFilter;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private EmployeeBulkService employeeBulkService;
+
+    @Test
+    @DisplayName("bulk mixed operations")
+    public void givenMixedOperations_whenApply_thenReturnResultPerOperation() {
+        // given
+        final Employee employee = Employee.builder()
+                .firstName("John")
+                .secondName("Wick")
+                .email("johnwick@johnwick.com")
+                .build();
+        final Employee employeeData = Employee.builder()
+                .id(7L)
+                .firstName("Jocko")
+                .secondName("Willick")
+                .email("jockowillick@jockowillick.com")
+                .build();
+        final List<BulkOperation> operations = List.of(
+                BulkOperation.builder().type(BulkOperation.Type.CREATE).employee(employee).build(),
+                BulkOperation.builder().type(BulkOperation.Type.UPDATE).employee(employeeData).build(),
+                BulkOperation.builder().type(BulkOperation.Type.DELETE).id(8L).build()
+        );
+        when(employeeJdbcRepository.insertAll(anyList())).thenReturn(List.of(1L));
+        when(employeeJdbcRepository.updateAll(anyList())).thenReturn(new int[]{1});
+        when(employeeJdbcRepository.deleteAllById(List.of(8L))).thenReturn(new int[]{0});
+        when(employeeJdbcRepository.findAllById(List.of(1L, 7L))).thenReturn(List.of(
+                Employee.builder().id(1L).firstName("John").secondName("Wick").email("johnwick@johnwick.com").version(0L).build(),
+                Employee.builder().id(7L).firstName("Jocko").secondName("Willick").email("jockowillick@jockowillick.com").version(3L).build()
+        ));
+        final ArgumentCaptor<EmployeeChangedEvent> events = ArgumentCaptor.forClass(EmployeeChangedEvent.class);
+
+        // when
+        final List<BulkResult> results = employeeBulkService.apply(operations.iterator());
+
+        // then
+        assertThat(results).extracting(BulkResult::getIndex).containsExactly(0, 1, 2);
+        assertThat(results).extracting(BulkResult::getStatus).containsExactly(201, 200, 404);
+        assertThat(results).extracting(BulkResult::getId).containsExactly(1L, 7L, 8L);
+        verify(transactionManager, times(1)).commit(any());
+        verify(employeeJdbcRepository, never()).findIdsByEmail(anyCollection());
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertThat(events.getAllValues()).extracting(EmployeeChangedEvent::getType)
+                .containsExactly(EmployeeChangedEvent.Type.CREATED, EmployeeChangedEvent.Type.UPDATED);
+        assertThat(events.getAllValues()).extracting(event -> event.getEmployee().getVersion()).containsExactly(0L, 3L);
+    }
+
+    @Test
+    @DisplayName("bulk create email already exists")
+    public void givenDuplicatedEmails_whenApply_thenRejectDuplicatesWithoutInsertingThem() {
+        // given
+        final Employee existingEmail = Employee.builder()
+                .firstName("John")
+                .secondName("Wick")
+                .email("johnwick@johnwick.com")
+                .build();
+        final Employee newEmail = Employee.builder()
+                .firstName("Jocko")
+                .secondName("Willick")
+                .email("jockowillick@jockowillick.com")
+                .build();
+        final List<BulkOperation> operations = List.of(
+                BulkOperation.builder().type(BulkOperation.Type.CREATE).employee(existingEmail).build(),
+                BulkOperation.builder().type(BulkOperation.Type.CREATE).employee(newEmail).build(),
+                BulkOperation.builder().type(BulkOperation.Type.CREATE).employee(newEmail).build(),
+                BulkOperation.builder().type(BulkOperation.Type.CREATE).employee(Employee.builder().build()).build()
+        );
+        when(employeeEmailFilter.mightContain(any(String.class))).thenReturn(true);
+        when(employeeJdbcRepository.findIdsByEmail(anyCollection())).thenReturn(Map.of(existingEmail.getEmail(), 1L));
+        when(employeeJdbcRepository.insertAll(List.of(newEmail))).thenReturn(List.of(2L));
+        when(employeeJdbcRepository.findAllById(List.of(2L))).thenReturn(List.of(Employee.builder().id(2L).version(0L).build()));
+
+        // when
+        final List<BulkResult> results = employeeBulkService.apply(operations.iterator());
+
+        // then
+        assertThat(results).extracting(BulkResult::getStatus).containsExactly(409, 201, 409, 400);
+        assertThat(results.get(0).getError()).isEqualTo("Employee with email : 'johnwick@johnwick.com' already exists");
+    }
+
+    @Test
+    @DisplayName("bulk create email differing only in case")
+    public void givenEmailsDifferingInCase_whenApply_thenRejectThemAsDuplicates() {
+        // given
+        final Employee existingEmail = Employee.builder()
+                .firstName("John")
+                .secondName("Wick")
+                .email("JohnWick@johnwick.com")
+                .build();
+        final Employee newEmail = Employee.builder()
+                .firstName("Jocko")
+                .secondName("Willick")
+                .email("jockowillick@jockowillick.com")
+                .build();
+        final Employee newEmailUpperCase = Employee.builder()
+                .firstName("Jocko")
+                .secondName("Willick")
+                .email("JOCKOWILLICK@jockowillick.com")
+                .build();
+        final List<BulkOperation> operations = List.of(
+                BulkOperation.builder().type(BulkOperation.Type.CREATE).employee(existingEmail).build(),
+                BulkOperation.builder().type(BulkOperation.Type.CREATE).employee(newEmail).build(),
+                BulkOperation.builder().type(BulkOperation.Type.CREATE).employee(newEmailUpperCase).build()
+        );
+        when(employeeEmailFilter.mightContain(any(String.class))).thenReturn(true);
+        when(employeeJdbcRepository.findIdsByEmail(anyCollection())).thenReturn(Map.of("johnwick@johnwick.com", 1L));
+        when(employeeJdbcRepository.insertAll(List.of(newEmail))).thenReturn(List.of(2L));
+        when(employeeJdbcRepository.findAllById(List.of(2L))).thenReturn(List.of(Employee.builder().id(2L).version(0L).build()));
+
+        // when
+        final List<BulkResult> results = employeeBulkService.apply(operations.iterator());
+
+        // then
+        assertThat(results).extracting(BulkResult::getStatus).containsExactly(409, 201, 409);
+    }
+
+    @Test
+    @DisplayName("bulk malformed line")
+    public void givenMalformedLineAfterCommittedChunk_whenApplyStream_thenReportItAndKeepEarlierResults() throws IOException {
+        // given
+        employeeProperties.getBulk().setChunkSize(2);
+        final String body = "{\"type\":\"DELETE\",\"id\":1}\n"
+                + "{\"type\":\"DELETE\",\"id\":2}\n"
+                + "{\"type\":\"DELETE\",\"id\":3}\n"
+                + "{\"type\":\"DELETE\",\"id\":\n"
+                + "{\"type\":\"DELETE\",\"id\":5}\n";
+        final MappingIterator<BulkOperation> operations = new ObjectMapper().readerFor(BulkOperation.class).readValues(body);
+        when(employeeJdbcRepository.deleteAllById(anyList())).thenReturn(new int[]{1, 1}, new int[]{1});
+
+        // when
+        final List<BulkResult> results = employeeBulkService.applyStream(operations);
+
+        // then
+        assertThat(results).extracting(BulkResult::getIndex).containsExactly(0, 1, 2, 3);
+        assertThat(results).extracting(BulkResult::getStatus).containsExactly(200, 200, 200, 400);
+        assertThat(results.get(3).getError()).startsWith("operation is malformed: ");
+        verify(employeeJdbcRepository, times(1)).deleteAllById(List.of(1L, 2L));
+        verify(employeeJdbcRepository, times(1)).deleteAllById(List.of(3L));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    @DisplayName("bulk chunked operations")
+    public void givenMoreOperationsThanChunkSize_whenApply_thenCommitOneTransactionPerChunk() {
+        // given
+        employeeProperties.getBulk().setChunkSize(2);
+        final List<BulkOperation> operations = List.of(
+                BulkOperation.builder().type(BulkOperation.Type.DELETE).id(1L).build(),
+                BulkOperation.builder().type(BulkOperation.Type.DELETE).id(2L).build(),
+                BulkOperation.builder().type(BulkOperation.Type.DELETE).id(3L).build()
+        );
+        when(employeeJdbcRepository.deleteAllById(anyList())).thenReturn(new int[]{1, 1}, new int[]{1});
+
+        // when
+        final List<BulkResult> results = employeeBulkService.apply(operations.iterator());
+
+        // then
+        assertThat(results).extracting(BulkResult::getIndex).containsExactly(0, 1, 2);
+        verify(employeeJdbcRepository, times(1)).deleteAllById(List.of(1L, 2L));
+        verify(employeeJdbcRepository, times(1)).deleteAllById(List.of(3L));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    @DisplayName("bulk chunk rolled back")
+    public void givenConstraintViolation_whenApply_thenReportEveryOperationOfTheChunk() {
+        // given
+        final List<BulkOperation> operations = List.of(
+                BulkOperation.builder().type(BulkOperation.Type.DELETE).id(1L).build(),
+                BulkOperation.builder().type(BulkOperation.Type.DELETE).id(2L).build()
+        );
+        when(employeeJdbcRepository.deleteAllById(anyList())).thenThrow(new DataIntegrityViolationException("constraint"));
+
+        // when
+        final List<BulkResult> results = employeeBulkService.apply(operations.iterator());
+
+        // then
+        assertThat(results).extracting(BulkResult::getStatus).containsExactly(409, 409);
+        assertThat(results).extracting(BulkResult::getError).containsOnly("chunk rolled back: data integrity violation");
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    @DisplayName("bulk create stale email filter")
+    public void givenStaleEmailFilter_whenApply_thenRetryChunkAgainstDatabase() {
+        // given
+        employeeProperties.getEmailFilter().setEnabled(true);
+        final Employee employee = Employee.builder()
+                .firstName("John")
+                .secondName("Wick")
+                .email("johnwick@johnwick.com")
+                .build();
+        final List<BulkOperation> operations = List.of(
+                BulkOperation.builder().type(BulkOperation.Type.CREATE).employee(employee).build()
+        );
+        when(employeeEmailFilter.mightContain(employee.getEmail())).thenReturn(false);
+        when(employeeJdbcRepository.insertAll(List.of(employee))).thenThrow(new DataIntegrityViolationException("uk_employee_email"));
+        when(employeeJdbcRepository.findIdsByEmail(anyCollection())).thenReturn(Map.of(employee.getEmail(), 1L));
+
+        // when
+        final List<BulkResult> results = employeeBulkService.apply(operations.iterator());
+
+        // then
+        assertThat(results).extracting(BulkResult::getStatus).containsExactly(409);
+        verify(employeeJdbcRepository, times(1)).insertAll(anyList());
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, times(1)).commit(any());
+    }
+}
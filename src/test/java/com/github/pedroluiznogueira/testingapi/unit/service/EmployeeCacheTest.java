@@ -0,0 +1,88 @@
+package com.github.pedroluiznogueira.testingapi.unit.service;
+
+import com.github.pedroluiznogueira.testingapi.config.EmployeeProperties;
+import com.github.pedroluiznogueira.testingapi.event.EmployeeChangedEvent;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class EmployeeCacheTest {
+
+    @Test
+    @DisplayName("cache invalidated on change")
+    public void givenCachedEmployee_whenEmployeeChanged_thenLoadAgain() {
+        // given
+        final EmployeeCache employeeCache = new EmployeeCache(new EmployeeProperties());
+        final Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("John")
+                .secondName("Wick")
+                .email("johnwick@johnwick.com")
+                .build();
+        final AtomicInteger loads = new AtomicInteger();
+        employeeCache.get(employee.getId(), id -> {
+            loads.incrementAndGet();
+            return Optional.of(employee);
+        });
+
+        // when
+        employeeCache.onEmployeeChanged(EmployeeChangedEvent.deleted(employee.getId()));
+        final Optional<Employee> found = employeeCache.get(employee.getId(), id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        // then
+        assertThat(found).isEmpty();
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("cache negative entry expires")
+    public void givenExpiredNegativeEntry_whenGet_thenLoadAgain() throws InterruptedException {
+        // given
+        final EmployeeProperties employeeProperties = new EmployeeProperties();
+        employeeProperties.getCache().setNegativeTtl(Duration.ofMillis(1));
+        final EmployeeCache employeeCache = new EmployeeCache(employeeProperties);
+        final AtomicInteger loads = new AtomicInteger();
+        employeeCache.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        Thread.sleep(10);
+
+        // when
+        employeeCache.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        // then
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("cache metrics")
+    public void givenHitAndMiss_whenBindTo_thenExposeCacheMetrics() {
+        // given
+        final EmployeeCache employeeCache = new EmployeeCache(new EmployeeProperties());
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        employeeCache.bindTo(registry);
+        employeeCache.get(1L, id -> Optional.empty());
+
+        // when
+        employeeCache.get(1L, id -> Optional.empty());
+
+        // then
+        assertThat(registry.get("cache.gets").tag("cache", EmployeeCache.NAME).tag("result", "hit").functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("cache.gets").tag("cache", EmployeeCache.NAME).tag("result", "miss").functionCounter().count()).isEqualTo(1.0);
+    }
+}
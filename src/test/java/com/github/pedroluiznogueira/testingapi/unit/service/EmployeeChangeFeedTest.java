@@ -0,0 +1,208 @@
+package com.github.pedroluiznogueira.testingapi.unit.service;
+
+import com.github.pedroluiznogueira.testingapi.config.EmployeeProperties;
+import com.github.pedroluiznogueira.testingapi.event.EmployeeChangedEvent;
+import com.github.pedroluiznogueira.testingapi.exception.ChangesExpiredException;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.EmployeeChange;
+import com.github.pedroluiznogueira.testingapi.repository.EmployeeChangeJdbcRepository;
+import com.github.pedroluiznogueira.testingapi.repository.EmployeeChangeRepository;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeChangeFeed;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeChangeFeedTest {
+
+    @Mock
+    private EmployeeChangeRepository changeRepository;
+
+    @Mock
+    private EmployeeChangeJdbcRepository changeJdbcRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("subscriber replays and then follows live changes")
+    public void givenRecordedChanges_whenSubscribe_thenReplayThemBeforeLiveChanges() throws Exception {
+        // given
+        final EmployeeProperties employeeProperties = new EmployeeProperties();
+        // the replay may run while the live change is still in flight, which lowers how far it is allowed to read
+        when(changeRepository.findBySequenceGreaterThanAndSequenceLessThanEqualOrderBySequenceAsc(eq(0L), anyLong(),
+                eq(PageRequest.of(0, employeeProperties.getChanges().getMaxLimit()))))
+                .thenReturn(List.of(change(1L), change(2L)));
+        givenSavedChangesNumberedFrom(3L);
+        final EmployeeChangeFeed changeFeed = new EmployeeChangeFeed(changeRepository, changeJdbcRepository, transactionManager, employeeProperties, new SimpleMeterRegistry());
+        final RecordingSink sink = new RecordingSink(3, null);
+        changeFeed.start();
+
+        // when
+        changeFeed.subscribe(null, sink);
+        changeFeed.onEmployeeChanged(EmployeeChangedEvent.created(Employee.builder().id(7L).firstName("John").build()));
+        sink.received.await(5, TimeUnit.SECONDS);
+        changeFeed.stop();
+
+        // then
+        assertThat(sink.sequences).containsExactly(1L, 2L, 3L);
+        assertThat(sink.completed.getCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("slow subscriber is dropped")
+    public void givenSubscriberBehindItsBuffer_whenChangesArrive_thenDisconnectIt() throws Exception {
+        // given
+        final EmployeeProperties employeeProperties = new EmployeeProperties();
+        employeeProperties.getChanges().setSubscriberBuffer(2);
+        when(changeRepository.findBySequenceGreaterThanAndSequenceLessThanEqualOrderBySequenceAsc(anyLong(), anyLong(), any())).thenReturn(List.of());
+        givenSavedChangesNumberedFrom(1L);
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final EmployeeChangeFeed changeFeed = new EmployeeChangeFeed(changeRepository, changeJdbcRepository, transactionManager, employeeProperties, registry);
+        final CountDownLatch release = new CountDownLatch(1);
+        final RecordingSink sink = new RecordingSink(1, release);
+        changeFeed.start();
+        changeFeed.subscribe(null, sink);
+
+        // when
+        changeFeed.onEmployeeChanged(EmployeeChangedEvent.deleted(1L));
+        sink.received.await(5, TimeUnit.SECONDS);
+        for (long id = 2; id <= 4; id++) {
+            changeFeed.onEmployeeChanged(EmployeeChangedEvent.deleted(id));
+        }
+        release.countDown();
+        sink.completed.await(5, TimeUnit.SECONDS);
+
+        // then
+        assertThat(sink.completed.getCount()).isZero();
+        assertThat(registry.get(EmployeeChangeFeed.NAME + ".dropped").counter().count()).isEqualTo(1);
+        assertThat(registry.get(EmployeeChangeFeed.NAME + ".subscribers").gauge().value()).isZero();
+        changeFeed.stop();
+    }
+
+    @Test
+    @DisplayName("changes committed out of order reach subscribers in sequence order")
+    public void givenTransactionsCommittingOutOfOrder_whenCommitted_thenReleaseChangesInSequenceOrder() throws Exception {
+        // given
+        when(changeRepository.findBySequenceGreaterThanAndSequenceLessThanEqualOrderBySequenceAsc(anyLong(), anyLong(), any())).thenReturn(List.of());
+        givenSavedChangesNumberedFrom(1L);
+        final EmployeeChangeFeed changeFeed = new EmployeeChangeFeed(changeRepository, changeJdbcRepository, transactionManager, new EmployeeProperties(), new SimpleMeterRegistry());
+        final RecordingSink sink = new RecordingSink(3, null);
+        changeFeed.start();
+        changeFeed.subscribe(null, sink);
+
+        // when
+        final TransactionSynchronization first = recordInTransaction(changeFeed, EmployeeChangedEvent.deleted(1L));
+        final TransactionSynchronization second = recordInTransaction(changeFeed, EmployeeChangedEvent.deleted(2L), EmployeeChangedEvent.deleted(3L));
+        second.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        Thread.sleep(100);
+        final List<Long> beforeFirstCommitted = List.copyOf(sink.sequences);
+        first.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        sink.received.await(5, TimeUnit.SECONDS);
+        changeFeed.stop();
+
+        // then
+        assertThat(beforeFirstCommitted).isEmpty();
+        assertThat(sink.sequences).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    @DisplayName("resume before the oldest kept change")
+    public void givenPurgedSequence_whenGetChanges_thenThrowChangesExpired() {
+        // given
+        when(changeRepository.findMinSequence()).thenReturn(100L);
+        final EmployeeChangeFeed changeFeed = new EmployeeChangeFeed(changeRepository, changeJdbcRepository, transactionManager, new EmployeeProperties(), new SimpleMeterRegistry());
+
+        // when / then
+        assertThrows(ChangesExpiredException.class, () -> changeFeed.getChanges(50L, null));
+    }
+
+    // publishes the events inside a transaction and inserts them as its commit would, leaving it to complete later
+    private static TransactionSynchronization recordInTransaction(final EmployeeChangeFeed changeFeed, final EmployeeChangedEvent... events) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            for (EmployeeChangedEvent event : events) {
+                changeFeed.onEmployeeChanged(event);
+            }
+            final TransactionSynchronization batch = TransactionSynchronizationManager.getSynchronizations().get(0);
+            batch.beforeCommit(false);
+            return batch;
+        } finally {
+            TransactionSynchronizationManager.unbindResourceIfPossible(changeFeed);
+            TransactionSynchronizationManager.clear();
+        }
+    }
+
+    private void givenSavedChangesNumberedFrom(final long first) {
+        final AtomicLong sequence = new AtomicLong(first);
+        when(changeJdbcRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            final List<EmployeeChange> changes = invocation.getArgument(0);
+            changes.forEach(change -> change.setSequence(sequence.getAndIncrement()));
+            return changes;
+        });
+    }
+
+    private static EmployeeChange change(final long sequence) {
+        return EmployeeChange.builder()
+                .sequence(sequence)
+                .type(EmployeeChangedEvent.Type.UPDATED)
+                .employeeId(sequence)
+                .build();
+    }
+
+    private static final class RecordingSink implements EmployeeChangeFeed.Sink {
+        private final List<Long> sequences = new CopyOnWriteArrayList<>();
+        private final CountDownLatch received;
+        private final CountDownLatch release;
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        private RecordingSink(final int expected, final CountDownLatch release) {
+            this.received = new CountDownLatch(expected);
+            this.release = release;
+        }
+
+        @Override
+        public void sendChange(final EmployeeChange change) {
+            sequences.add(change.getSequence());
+            received.countDown();
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void sendHeartbeat() {
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.pedroluiznogueira.testingapi.unit.service;
+
+import com.github.pedroluiznogueira.testingapi.config.EmployeeProperties;
+import com.github.pedroluiznogueira.testingapi.event.EmployeeChangedEvent;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.repository.EmployeeJdbcRepository;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeEmailFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeEmailFilterTest {
+
+    @Mock
+    private EmployeeJdbcRepository employeeJdbcRepository;
+
+    @Spy
+    private EmployeeProperties employeeProperties = new EmployeeProperties();
+
+    @InjectMocks
+    private EmployeeEmailFilter employeeEmailFilter;
+
+    @Test
+    @DisplayName("email filter rebuilt")
+    @SuppressWarnings("unchecked")
+    public void givenPersistedEmails_whenRebuild_thenAnswerDefinitelyNewOnlyForUnknownEmails() {
+        // given
+        employeeProperties.getEmailFilter().setEnabled(true);
+        doAnswer(invocation -> {
+            final Consumer<String> consumer = invocation.getArgument(0);
+            consumer.accept("johnwick@johnwick.com");
+            consumer.accept("jockowillick@jockowillick.com");
+            return null;
+        }).when(employeeJdbcRepository).forEachEmail(any(Consumer.class));
+
+        // when
+        employeeEmailFilter.rebuild();
+
+        // then
+        assertThat(employeeEmailFilter.mightContain("johnwick@johnwick.com")).isTrue();
+        assertThat(employeeEmailFilter.mightContain("jockowillick@jockowillick.com")).isTrue();
+        assertThat(employeeEmailFilter.mightContain("jackreacher@jackreacher.com")).isFalse();
+    }
+
+    @Test
+    @DisplayName("email filter ignores case")
+    @SuppressWarnings("unchecked")
+    public void givenPersistedEmail_whenMightContainDifferingInCase_thenAskTheDatabase() {
+        // given
+        employeeProperties.getEmailFilter().setEnabled(true);
+        doAnswer(invocation -> {
+            final Consumer<String> consumer = invocation.getArgument(0);
+            consumer.accept("JohnWick@johnwick.com");
+            return null;
+        }).when(employeeJdbcRepository).forEachEmail(any(Consumer.class));
+
+        // when
+        employeeEmailFilter.rebuild();
+
+        // then
+        assertThat(employeeEmailFilter.mightContain("johnwick@johnwick.com")).isTrue();
+        assertThat(employeeEmailFilter.mightContain("JOHNWICK@JOHNWICK.COM")).isTrue();
+    }
+
+    @Test
+    @DisplayName("email filter kept up to date")
+    public void givenRebuiltFilter_whenEmployeeChanged_thenRememberNewEmail() {
+        // given
+        employeeProperties.getEmailFilter().setEnabled(true);
+        employeeEmailFilter.rebuild();
+        final Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("John")
+                .secondName("Wick")
+                .email("johnwick@johnwick.com")
+                .build();
+
+        // when
+        employeeEmailFilter.onEmployeeChanged(EmployeeChangedEvent.created(employee));
+
+        // then
+        assertThat(employeeEmailFilter.mightContain(employee.getEmail())).isTrue();
+    }
+
+    @Test
+    @DisplayName("email filter disabled")
+    @SuppressWarnings("unchecked")
+    public void givenDisabledFilter_whenMightContain_thenAlwaysAskTheDatabase() {
+        // when
+        employeeEmailFilter.rebuild();
+
+        // then
+        assertThat(employeeEmailFilter.mightContain("jackreacher@jackreacher.com")).isTrue();
+        verify(employeeJdbcRepository, never()).forEachEmail(any(Consumer.class));
+    }
+}
@@ -0,0 +1,142 @@
+package com.github.pedroluiznogueira.testingapi.unit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.pedroluiznogueira.testingapi.config.EmployeeProperties;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.bulk.BulkOperation;
+import com.github.pedroluiznogueira.testingapi.model.bulk.BulkResult;
+import com.github.pedroluiznogueira.testingapi.model.imports.ImportJob;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeBulkService;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeImportService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeImportServiceTest {
+
+    @Mock
+    private EmployeeBulkService employeeBulkService;
+
+    private final List<List<Employee>> chunks = new CopyOnWriteArrayList<>();
+
+    @Test
+    @DisplayName("ndjson is imported in chunks and rejected rows are reported")
+    public void givenNdjson_whenImport_thenWriteChunksAndReportRejectedRows() throws Exception {
+        // given
+        final EmployeeImportService importService = importService(2);
+        final String body = "{\"firstName\":\"A\",\"secondName\":\"A\",\"email\":\"a@a.com\"}\n"
+                + "{\"firstName\":\"B\",\"secondName\":\"B\",\"email\":\"b@b.com\"}\n"
+                + "{\"firstName\":\"C\",\"secondName\":\"C\",\"email\":\"c@c.com\"}\n"
+                + "{\"firstName\":\"D\",\"secondName\":\"D\",\"email\":\"taken@d.com\"}\n"
+                + "{\"firstName\":\"E\",\"secondName\":\"E\",\"email\":\"e@e.com\"}\n";
+
+        // when
+        final ImportJob accepted = importService.submit(EmployeeImportService.Format.NDJSON, stream(body));
+        final ImportJob job = awaitFinished(importService, accepted.getId());
+        importService.stop();
+
+        // then
+        assertThat(accepted.getState()).isEqualTo(ImportJob.State.QUEUED);
+        assertThat(chunks).extracting(List::size).containsExactly(2, 2, 1);
+        assertThat(job.getState()).isEqualTo(ImportJob.State.COMPLETED);
+        assertThat(job.getProcessed()).isEqualTo(5);
+        assertThat(job.getCreated()).isEqualTo(4);
+        assertThat(job.getRejected()).isEqualTo(1);
+        assertThat(job.getErrors()).extracting(BulkResult::getIndex).containsExactly(3);
+    }
+
+    @Test
+    @DisplayName("csv columns are read by header")
+    public void givenCsv_whenImport_thenReadColumnsByHeader() throws Exception {
+        // given
+        final EmployeeImportService importService = importService(10);
+        final String body = "email,secondName,firstName\r\n"
+                + "john@john.com,\"Willick, Jr.\",John\r\n"
+                + "jane@jane.com,,Jane\r\n";
+
+        // when
+        final ImportJob job = awaitFinished(importService, importService.submit(EmployeeImportService.Format.CSV, stream(body)).getId());
+        importService.stop();
+
+        // then
+        assertThat(job.getState()).isEqualTo(ImportJob.State.COMPLETED);
+        assertThat(chunks).hasSize(1);
+        assertThat(chunks.get(0).get(0)).isEqualTo(Employee.builder().firstName("John").secondName("Willick, Jr.").email("john@john.com").build());
+        assertThat(chunks.get(0).get(1).getSecondName()).isNull();
+    }
+
+    @Test
+    @DisplayName("malformed row fails the import after the rows before it")
+    public void givenMalformedRow_whenImport_thenWriteRowsBeforeItAndFail() throws Exception {
+        // given
+        final EmployeeImportService importService = importService(10);
+        final String body = "{\"firstName\":\"A\",\"secondName\":\"A\",\"email\":\"a@a.com\"}\n"
+                + "{\"firstName\":\"B\",\"secondName\":\"B\",\"email\":\"b@b.com\"}\n"
+                + "{\"firstName\":\"C\",\n";
+
+        // when
+        final ImportJob job = awaitFinished(importService, importService.submit(EmployeeImportService.Format.NDJSON, stream(body)).getId());
+        importService.stop();
+
+        // then
+        assertThat(job.getState()).isEqualTo(ImportJob.State.FAILED);
+        assertThat(job.getCreated()).isEqualTo(2);
+        assertThat(job.getError()).startsWith("row 2 is malformed");
+    }
+
+    private EmployeeImportService importService(final int chunkSize) {
+        final EmployeeProperties employeeProperties = new EmployeeProperties();
+        employeeProperties.getBulk().setChunkSize(chunkSize);
+        when(employeeBulkService.apply(any())).thenAnswer(invocation -> results(invocation.getArgument(0)));
+        final EmployeeImportService importService = new EmployeeImportService(employeeBulkService, employeeProperties, new ObjectMapper());
+        importService.start();
+        return importService;
+    }
+
+    private List<BulkResult> results(final Iterator<BulkOperation> operations) {
+        final List<Employee> chunk = new ArrayList<>();
+        final List<BulkResult> results = new ArrayList<>();
+        while (operations.hasNext()) {
+            final Employee employee = operations.next().getEmployee();
+            final boolean taken = employee.getEmail().startsWith("taken");
+            results.add(BulkResult.builder()
+                    .index(chunk.size())
+                    .type(BulkOperation.Type.CREATE)
+                    .status(taken ? 409 : 201)
+                    .error(taken ? "already exists" : null)
+                    .build());
+            chunk.add(employee);
+        }
+        chunks.add(chunk);
+        return results;
+    }
+
+    private static ImportJob awaitFinished(final EmployeeImportService importService, final String id) throws InterruptedException {
+        for (int attempt = 0; attempt < 500; attempt++) {
+            final ImportJob job = importService.getJob(id).orElseThrow();
+            if (job.getState() == ImportJob.State.COMPLETED || job.getState() == ImportJob.State.FAILED) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("import " + id + " did not finish");
+    }
+
+    private static ByteArrayInputStream stream(final String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
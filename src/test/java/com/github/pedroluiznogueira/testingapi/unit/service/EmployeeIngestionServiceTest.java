@@ -0,0 +1,155 @@
+package com.github.pedroluiznogueira.testingapi.unit.service;
+
+import com.github.pedroluiznogueira.testingapi.config.EmployeeProperties;
+import com.github.pedroluiznogueira.testingapi.exception.IngestionQueueFullException;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.bulk.BulkOperation;
+import com.github.pedroluiznogueira.testingapi.model.bulk.BulkResult;
+import com.github.pedroluiznogueira.testingapi.model.ingestion.IngestionTicket;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeBulkService;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeIngestionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeIngestionServiceTest {
+
+    @Mock
+    private EmployeeBulkService employeeBulkService;
+
+    @Test
+    @DisplayName("queued employees are coalesced into batches")
+    public void givenQueuedEmployees_whenWriterRuns_thenWriteThemInOneBatch() throws Exception {
+        // given
+        final EmployeeProperties employeeProperties = new EmployeeProperties();
+        employeeProperties.getIngestion().setLinger(Duration.ofMillis(200));
+        final List<Integer> batchSizes = new ArrayList<>();
+        final CountDownLatch written = new CountDownLatch(1);
+        when(employeeBulkService.apply(any())).thenAnswer(invocation -> {
+            final List<BulkResult> results = created(invocation.getArgument(0));
+            batchSizes.add(results.size());
+            written.countDown();
+            return results;
+        });
+        final EmployeeIngestionService ingestionService = new EmployeeIngestionService(employeeBulkService, employeeProperties, new SimpleMeterRegistry());
+        ingestionService.start();
+
+        // when
+        final List<IngestionTicket> tickets = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tickets.add(ingestionService.submit(employee(i)));
+        }
+        written.await(5, TimeUnit.SECONDS);
+        ingestionService.stop();
+
+        // then
+        assertThat(batchSizes).containsExactly(10);
+        assertThat(ingestionService.getTicket(tickets.get(3).getId()).orElseThrow().getState()).isEqualTo(IngestionTicket.State.WRITTEN);
+        assertThat(ingestionService.getTicket(tickets.get(3).getId()).orElseThrow().getEmployeeId()).isEqualTo(4L);
+    }
+
+    @Test
+    @DisplayName("full queue rejects")
+    public void givenFullQueue_whenSubmit_thenThrowQueueFull() throws Exception {
+        // given
+        final EmployeeProperties employeeProperties = new EmployeeProperties();
+        employeeProperties.getIngestion().setCapacity(2);
+        employeeProperties.getIngestion().setBatchSize(1);
+        final CountDownLatch firstBatch = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        when(employeeBulkService.apply(any())).thenAnswer(invocation -> {
+            firstBatch.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return created(invocation.getArgument(0));
+        });
+        final EmployeeIngestionService ingestionService = new EmployeeIngestionService(employeeBulkService, employeeProperties, new SimpleMeterRegistry());
+        ingestionService.start();
+        ingestionService.submit(employee(0));
+        firstBatch.await(5, TimeUnit.SECONDS);
+        ingestionService.submit(employee(1));
+        ingestionService.submit(employee(2));
+
+        // when / then
+        try {
+            assertThrows(IngestionQueueFullException.class, () -> ingestionService.submit(employee(3)));
+        } finally {
+            release.countDown();
+            ingestionService.stop();
+        }
+        verify(employeeBulkService, times(3)).apply(any());
+    }
+
+    @Test
+    @DisplayName("stop flushes the queue")
+    public void givenQueuedEmployees_whenStop_thenWriteEveryEmployee() throws Exception {
+        // given
+        final EmployeeProperties employeeProperties = new EmployeeProperties();
+        employeeProperties.getIngestion().setBatchSize(3);
+        final CountDownLatch firstBatch = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicLong writtenEmployees = new AtomicLong();
+        when(employeeBulkService.apply(any())).thenAnswer(invocation -> {
+            firstBatch.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            final List<BulkResult> results = created(invocation.getArgument(0));
+            writtenEmployees.addAndGet(results.size());
+            return results;
+        });
+        final EmployeeIngestionService ingestionService = new EmployeeIngestionService(employeeBulkService, employeeProperties, new SimpleMeterRegistry());
+        ingestionService.start();
+        final List<IngestionTicket> tickets = new ArrayList<>();
+        tickets.add(ingestionService.submit(employee(0)));
+        firstBatch.await(5, TimeUnit.SECONDS);
+        for (int i = 1; i < 8; i++) {
+            tickets.add(ingestionService.submit(employee(i)));
+        }
+
+        // when
+        release.countDown();
+        ingestionService.stop();
+
+        // then
+        assertThat(writtenEmployees.get()).isEqualTo(8);
+        assertThat(tickets).allSatisfy(ticket ->
+                assertThat(ingestionService.getTicket(ticket.getId()).orElseThrow().getState()).isEqualTo(IngestionTicket.State.WRITTEN));
+    }
+
+    private static List<BulkResult> created(final Iterator<BulkOperation> operations) {
+        final List<BulkResult> results = new ArrayList<>();
+        while (operations.hasNext()) {
+            final BulkOperation operation = operations.next();
+            results.add(BulkResult.builder()
+                    .index(results.size())
+                    .type(operation.getType())
+                    .id(Long.valueOf(operation.getEmployee().getFirstName()) + 1)
+                    .status(201)
+                    .build());
+        }
+        return results;
+    }
+
+    private static Employee employee(final int index) {
+        return Employee.builder()
+                .firstName(String.valueOf(index))
+                .secondName("Wick")
+                .email("john" + index + "@johnwick.com")
+                .build();
+    }
+}
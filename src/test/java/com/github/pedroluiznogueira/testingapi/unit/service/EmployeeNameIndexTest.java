@@ -0,0 +1,117 @@
+package com.github.pedroluiznogueira.testingapi.unit.service;
+
+import com.github.pedroluiznogueira.testingapi.config.EmployeeProperties;
+import com.github.pedroluiznogueira.testingapi.event.EmployeeChangedEvent;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.repository.EmployeeJdbcRepository;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeNameIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeNameIndexTest {
+
+    @Mock
+    private EmployeeJdbcRepository employeeJdbcRepository;
+
+    @Spy
+    private EmployeeProperties employeeProperties = new EmployeeProperties();
+
+    @InjectMocks
+    private EmployeeNameIndex employeeNameIndex;
+
+    private final Employee john = Employee.builder().id(1L).firstName("John").secondName("Wick").email("johnwick@johnwick.com").version(0L).build();
+    private final Employee jocko = Employee.builder().id(2L).firstName("Jocko").secondName("Willick").email("jockowillick@jockowillick.com").version(0L).build();
+    private final Employee jack = Employee.builder().id(3L).firstName("Jack").secondName("Reacher").email("jackreacher@jackreacher.com").version(0L).build();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        lenient().doAnswer(invocation -> {
+            final Consumer<Employee> consumer = invocation.getArgument(0);
+            List.of(john, jocko, jack).forEach(consumer);
+            return null;
+        }).when(employeeJdbcRepository).forEachEmployee(any(Consumer.class));
+    }
+
+    @Test
+    @DisplayName("name index prefix search")
+    public void givenBuiltIndex_whenSearchPrefix_thenReturnMatchingEmployees() {
+        // given
+        employeeNameIndex.build();
+
+        // when
+        final List<Employee> employees = employeeNameIndex.search("JO", 10);
+        final List<Employee> fullName = employeeNameIndex.search("john wi", 10);
+
+        // then
+        assertThat(employeeNameIndex.isReady()).isTrue();
+        assertThat(employees).extracting(Employee::getId).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(fullName).extracting(Employee::getId).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("name index typo search")
+    public void givenTypo_whenSearch_thenRankPrefixMatchesBeforeSimilarNames() {
+        // given
+        employeeNameIndex.build();
+
+        // when
+        final List<Employee> employees = employeeNameIndex.search("wikc", 10);
+
+        // then
+        assertThat(employees).extracting(Employee::getId).containsExactly(1L);
+        assertThat(employeeNameIndex.search("reacher", 10)).extracting(Employee::getId).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("name index kept up to date")
+    public void givenChangeEvents_whenSearch_thenReflectChanges() {
+        // given
+        employeeNameIndex.build();
+
+        // when
+        employeeNameIndex.onEmployeeChanged(EmployeeChangedEvent.updated(Employee.builder()
+                .id(1L)
+                .firstName("Jonathan")
+                .secondName("Wick")
+                .email("johnwick@johnwick.com")
+                .build()));
+        employeeNameIndex.onEmployeeChanged(EmployeeChangedEvent.deleted(2L));
+        employeeNameIndex.onEmployeeChanged(EmployeeChangedEvent.created(Employee.builder().id(4L).firstName("Joan").secondName("Watson").build()));
+
+        // then
+        final List<Employee> employees = employeeNameIndex.search("jo", 10);
+        assertThat(employees).extracting(Employee::getId).containsExactlyInAnyOrder(1L, 4L);
+        assertThat(employees.stream().filter(employee -> employee.getId() == 1L).findFirst().orElseThrow())
+                .extracting(Employee::getFirstName, Employee::getSecondName, Employee::getEmail)
+                .containsExactly("Jonathan", "Wick", "johnwick@johnwick.com");
+        assertThat(employeeNameIndex.search("john", 10)).extracting(Employee::getFirstName).containsExactly("Joan");
+    }
+
+    @Test
+    @DisplayName("name index disabled")
+    public void givenIndexDisabled_whenBuild_thenStayCold() {
+        // given
+        employeeProperties.getSearch().setIndexEnabled(false);
+
+        // when
+        employeeNameIndex.build();
+
+        // then
+        assertThat(employeeNameIndex.isReady()).isFalse();
+    }
+}
@@ -1,9 +1,18 @@
 package com.github.pedroluiznogueira.testingapi.unit.service;
 
+import com.github.pedroluiznogueira.testingapi.config.EmployeeProperties;
+import com.github.pedroluiznogueira.testingapi.event.EmployeeChangedEvent;
+import com.github.pedroluiznogueira.testingapi.exception.InvalidRequestException;
 import com.github.pedroluiznogueira.testingapi.exception.ResourceAlreadyExistException;
 import com.github.pedroluiznogueira.testingapi.exception.ResourceNotFoundException;
+import com.github.pedroluiznogueira.testingapi.exception.ResourceVersionMismatchException;
 import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.EmployeeField;
+import com.github.pedroluiznogueira.testingapi.model.EmployeePatch;
+import com.github.pedroluiznogueira.testingapi.repository.EmployeeJdbcRepository;
 import com.github.pedroluiznogueira.testingapi.repository.EmployeeRepository;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeCache;
+import com.github.pedroluiznogueira.testingapi.service.EmployeeNameIndex;
 import com.github.pedroluiznogueira.testingapi.service.EmployeeService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,14 +20,25 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.function.Executable;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +47,27 @@ public class EmployeeServiceTest {
     @Mock
     private EmployeeRepository employeeRepository;
 
+    @Mock
+    private EmployeeJdbcRepository employeeJdbcRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private EmployeeProperties employeeProperties = new EmployeeProperties();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private EmployeeCache employeeCache = new EmployeeCache(new EmployeeProperties());
+
+    @Mock
+    private EmployeeNameIndex employeeNameIndex;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private EmployeeService employeeService;
 
@@ -45,7 +86,7 @@ public class EmployeeServiceTest {
                 .secondName("Wick")
                 .email("johnwick@johnwick.com")
                 .build();
-        when(employeeRepository.save(any(Employee.class))).thenReturn(returnEmployee);
+        when(employeeRepository.saveAndFlush(any(Employee.class))).thenReturn(returnEmployee);
 
         // when
         final Employee persistedEmployee = employeeService.createEmployee(employee);
@@ -54,6 +95,8 @@ public class EmployeeServiceTest {
         assertThat(persistedEmployee).isNotNull();
         assertThat(persistedEmployee.getId()).isGreaterThan(0);
         assertThat(persistedEmployee).usingRecursiveComparison().ignoringFields("id").isEqualTo(employee);
+        verify(employeeRepository, never()).findByEmail(any(String.class));
+        verify(eventPublisher, times(1)).publishEvent(EmployeeChangedEvent.created(returnEmployee));
     }
 
     @Test
@@ -66,14 +109,34 @@ public class EmployeeServiceTest {
                 .secondName("Wick")
                 .email("johnwick@johnwick.com")
                 .build();
-        when(employeeRepository.findByEmail(employee.getEmail())).thenReturn(Optional.of(employee));
+        when(employeeRepository.saveAndFlush(employee)).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new RuntimeException("Duplicate entry 'johnwick@johnwick.com' for key 'employee.uk_employee_email'")));
 
         // when
         final Executable executable = () -> employeeService.createEmployee(employee);
 
         // then
         assertThrows(ResourceAlreadyExistException.class, executable);
-        verify(employeeRepository, never()).save(any(Employee.class));
+        verify(employeeRepository, never()).findByEmail(any(String.class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("create employee other constraint violated")
+    public void givenEmployee_whenCreateEmployeeViolatesOtherConstraint_thenRethrowViolation() {
+        // given
+        final Employee employee = Employee.builder()
+                .firstName("John")
+                .email("johnwick@johnwick.com")
+                .build();
+        when(employeeRepository.saveAndFlush(employee)).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new RuntimeException("Column 'second_name' cannot be null")));
+
+        // when
+        final Executable executable = () -> employeeService.createEmployee(employee);
+
+        // then
+        assertThrows(DataIntegrityViolationException.class, executable);
     }
 
     @Test
@@ -94,10 +157,10 @@ public class EmployeeServiceTest {
                 .build();
         final List<Employee> employees = List.of(firstEmployee, secondEmployee);
 
-        when(employeeRepository.findAll()).thenReturn(employees);
+        when(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 100))).thenReturn(employees);
 
         // when
-        final List<Employee> retrievedEmployees = employeeService.getEmployees();
+        final List<Employee> retrievedEmployees = employeeService.getEmployees(null, null);
 
         // then
         assertThat(retrievedEmployees).isNotNull();
@@ -109,16 +172,139 @@ public class EmployeeServiceTest {
     public void givenEmptyEmployees_whenGetEmployees_thenReturnEmptyEmployees() {
         // given
         final List<Employee> employees = List.of();
-        when(employeeRepository.findAll()).thenReturn(employees);
+        when(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 100))).thenReturn(employees);
 
         // when
-        final List<Employee> retrievedEmployees = employeeService.getEmployees();
+        final List<Employee> retrievedEmployees = employeeService.getEmployees(null, null);
 
         // then
         assertThat(retrievedEmployees).isNotNull();
         assertThat(retrievedEmployees.size()).isEqualTo(0);
     }
 
+    @Test
+    @DisplayName("get employees after cursor")
+    public void givenCursorAndLimit_whenGetEmployees_thenReturnPageAfterCursor() {
+        // given
+        final Employee employee = Employee.builder()
+                .id(11L)
+                .firstName("John")
+                .secondName("Wick")
+                .email("johnwick@johnwick.com")
+                .build();
+        when(employeeRepository.findByIdGreaterThanOrderByIdAsc(10L, PageRequest.of(0, 1000))).thenReturn(List.of(employee));
+
+        // when
+        final List<Employee> retrievedEmployees = employeeService.getEmployees(10L, 5000);
+
+        // then
+        assertThat(retrievedEmployees.size()).isEqualTo(1);
+        assertThat(retrievedEmployees.get(0).getId()).isEqualTo(11L);
+    }
+
+    @Test
+    @DisplayName("get employees invalid limit")
+    public void givenInvalidLimit_whenGetEmployees_thenThrowInvalidRequest() {
+        // when
+        final Executable executable = () -> employeeService.getEmployees(null, 0);
+
+        // then
+        assertThrows(InvalidRequestException.class, executable);
+        verify(employeeRepository, never()).findByIdGreaterThanOrderByIdAsc(any(Long.class), any(PageRequest.class));
+    }
+
+    @Test
+    @DisplayName("get employees fields")
+    public void givenFields_whenGetEmployees_thenSelectRequestedFieldsIdAndVersion() {
+        // given
+        final LinkedHashSet<EmployeeField> fields = new LinkedHashSet<>(List.of(EmployeeField.ID, EmployeeField.VERSION, EmployeeField.EMAIL));
+        final List<Map<String, Object>> employees = List.of(Map.of("id", 1L, "version", 0L, "email", "johnwick@johnwick.com"));
+        when(employeeRepository.findFieldsByIdGreaterThan(fields, 0L, 100)).thenReturn(employees);
+
+        // when
+        final List<Map<String, Object>> foundEmployees = employeeService.getEmployees(null, null, "email");
+
+        // then
+        assertThat(foundEmployees).isEqualTo(employees);
+        verify(employeeRepository, never()).findByIdGreaterThanOrderByIdAsc(any(Long.class), any(PageRequest.class));
+    }
+
+    @Test
+    @DisplayName("get employees unknown field")
+    public void givenUnknownField_whenGetEmployees_thenThrowInvalidRequest() {
+        // when
+        final Executable executable = () -> employeeService.getEmployees(null, null, "email,salary");
+
+        // then
+        assertThrows(InvalidRequestException.class, executable);
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    @DisplayName("stream employees")
+    public void givenEmployees_whenStreamEmployees_thenConsumeAndDetachEachEmployee() {
+        // given
+        final Employee firstEmployee = Employee.builder()
+                .id(1L)
+                .firstName("John")
+                .secondName("Wick")
+                .email("johnwick@johnwick.com")
+                .build();
+        final Employee secondEmployee = Employee.builder()
+                .id(2L)
+                .firstName("Jocko")
+                .secondName("Willick")
+                .email("jockowillick@jockowillick.com")
+                .build();
+        when(employeeRepository.streamAll()).thenReturn(Stream.of(firstEmployee, secondEmployee));
+        final List<Employee> consumedEmployees = new ArrayList<>();
+
+        // when
+        employeeService.streamEmployees(consumedEmployees::add);
+
+        // then
+        assertThat(consumedEmployees.size()).isEqualTo(2);
+        verify(entityManager, times(1)).detach(firstEmployee);
+        verify(entityManager, times(1)).detach(secondEmployee);
+    }
+
+    @Test
+    @DisplayName("search employees")
+    public void givenReadyIndex_whenSearchEmployees_thenSearchIndex() {
+        // given
+        final Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("John")
+                .secondName("Wick")
+                .email("johnwick@johnwick.com")
+                .build();
+        when(employeeNameIndex.isReady()).thenReturn(true);
+        when(employeeNameIndex.search("jo", 10)).thenReturn(List.of(employee));
+
+        // when
+        final List<Employee> employees = employeeService.searchEmployees("jo", null);
+
+        // then
+        assertThat(employees).isEqualTo(List.of(employee));
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    @DisplayName("search employees cold index")
+    public void givenColdIndex_whenSearchEmployees_thenSearchDatabaseByPrefix() {
+        // given
+        when(employeeNameIndex.isReady()).thenReturn(false);
+        when(employeeRepository.findByFirstNameStartingWithIgnoreCaseOrSecondNameStartingWithIgnoreCaseOrderByIdAsc("jo", "jo", PageRequest.of(0, 100)))
+                .thenReturn(List.of());
+
+        // when
+        final List<Employee> employees = employeeService.searchEmployees(" jo wi ", 500);
+
+        // then
+        assertThat(employees).isEqualTo(List.of());
+        verify(employeeNameIndex, never()).search(any(String.class), anyInt());
+    }
+
     @Test
     @DisplayName("find employe by id")
     public void givenEmployeeId_whenGetEmployeeById_thenReturnEmployee() {
@@ -160,6 +346,43 @@ public class EmployeeServiceTest {
         verify(employeeRepository, times(1)).findById(employee.getId());
     }
 
+    @Test
+    @DisplayName("find employe by id cached")
+    public void givenCachedEmployee_whenGetEmployeeById_thenSkipRepository() {
+        // given
+        final Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("John")
+                .secondName("Wick")
+                .email("johnwick@johnwick.com")
+                .build();
+        when(employeeRepository.findById(employee.getId())).thenReturn(Optional.of(employee));
+        employeeService.getEmployeeById(employee.getId());
+
+        // when
+        final Employee foundEmployee = employeeService.getEmployeeById(employee.getId());
+
+        // then
+        assertThat(foundEmployee).isEqualTo(employee);
+        verify(employeeRepository, times(1)).findById(employee.getId());
+    }
+
+    @Test
+    @DisplayName("find employe by id not found cached")
+    public void givenCachedMiss_whenGetEmployeeById_thenThrowEmployeeNotFoundWithoutRepository() {
+        // given
+        final Long id = 1L;
+        when(employeeRepository.findById(id)).thenReturn(Optional.empty());
+        assertThrows(ResourceNotFoundException.class, () -> employeeService.getEmployeeById(id));
+
+        // when
+        final Executable executable = () -> employeeService.getEmployeeById(id);
+
+        // then
+        assertThrows(ResourceNotFoundException.class, executable);
+        verify(employeeRepository, times(1)).findById(id);
+    }
+
     @Test
     @DisplayName("update employee")
     public void givenEmployeData_whenUpdateEmployee_thenReturnUpdatedEmployee() {
@@ -183,7 +406,7 @@ public class EmployeeServiceTest {
                 .email(employeeData.getEmail())
                 .build();
         when(employeeRepository.findById(employeeData.getId())).thenReturn(Optional.of(employeeToUpdate));
-        when(employeeRepository.save(employeeDataToUpdate)).thenReturn(employeeDataToUpdate);
+        when(employeeRepository.saveAndFlush(employeeDataToUpdate)).thenReturn(employeeDataToUpdate);
 
         // when
         final Employee updatedEmployee = employeeService.updateEmployee(employeeDataToUpdate);
@@ -212,28 +435,88 @@ public class EmployeeServiceTest {
 
         // then
         assertThrows(ResourceNotFoundException.class, executable);
-        verify(employeeRepository, never()).save(any(Employee.class));
+        verify(employeeRepository, never()).saveAndFlush(any(Employee.class));
     }
 
     @Test
-    @DisplayName("delete employee")
-    public void givenEmployeId_whenDeleteEmployee_thenRemoveEmployee() {
+    @DisplayName("patch employee")
+    public void givenEmployeePatchAndVersion_whenPatchEmployee_thenUpdateOnceAndReturnNextVersion() {
         // given
         final Long id = 1L;
-        final Employee returnEmployee = Employee.builder()
-                .id(1L)
+        final EmployeePatch patch = EmployeePatch.builder()
+                .email("johnwillick@johnwillick.com")
+                .build();
+        final Employee patchedEmployee = Employee.builder()
+                .id(id)
                 .firstName("John")
-                .secondName("Wick")
-                .email("johnwick@johnwick.com")
+                .secondName("Willick")
+                .email("johnwillick@johnwillick.com")
+                .version(4L)
+                .build();
+        when(employeeJdbcRepository.patch(id, patch, 3L)).thenReturn(1);
+        when(employeeJdbcRepository.findById(id)).thenReturn(Optional.of(patchedEmployee));
+
+        // when
+        final Long version = employeeService.patchEmployee(id, patch, 3L);
+
+        // then
+        assertThat(version).isEqualTo(4L);
+        verify(employeeRepository, never()).findById(any(Long.class));
+        verify(employeeJdbcRepository, never()).findVersionById(any(Long.class));
+        verify(eventPublisher, times(1)).publishEvent(EmployeeChangedEvent.updated(patchedEmployee));
+    }
+
+    @Test
+    @DisplayName("patch employee stale version")
+    public void givenStaleVersion_whenPatchEmployee_thenThrowVersionMismatch() {
+        // given
+        final Long id = 1L;
+        final EmployeePatch patch = EmployeePatch.builder()
+                .firstName("Johnny")
+                .build();
+        when(employeeJdbcRepository.patch(id, patch, 3L)).thenReturn(0);
+        when(employeeJdbcRepository.findVersionById(id)).thenReturn(Optional.of(4L));
+
+        // when
+        final Executable executable = () -> employeeService.patchEmployee(id, patch, 3L);
+
+        // then
+        assertThrows(ResourceVersionMismatchException.class, executable);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("patch employee not found")
+    public void givenUnknownId_whenPatchEmployee_thenThrowEmployeeNotFound() {
+        // given
+        final Long id = 1L;
+        final EmployeePatch patch = EmployeePatch.builder()
+                .firstName("Johnny")
                 .build();
-        when(employeeRepository.findById(id)).thenReturn(Optional.of(returnEmployee));
+        when(employeeJdbcRepository.patch(id, patch, null)).thenReturn(0);
+
+        // when
+        final Executable executable = () -> employeeService.patchEmployee(id, patch, null);
+
+        // then
+        assertThrows(ResourceNotFoundException.class, executable);
+        verify(employeeJdbcRepository, never()).findVersionById(any(Long.class));
+    }
+
+    @Test
+    @DisplayName("delete employee")
+    public void givenEmployeId_whenDeleteEmployee_thenRemoveEmployee() {
+        // given
+        final Long id = 1L;
+        when(employeeJdbcRepository.deleteById(id)).thenReturn(1);
 
         // when
         employeeService.deleteEmployee(id);
 
         // then
-        verify(employeeRepository, times(1)).delete(any(Employee.class));
-        verify(employeeRepository, times(1)).findById(any(Long.class));
+        verify(employeeJdbcRepository, times(1)).deleteById(id);
+        verify(employeeRepository, never()).findById(any(Long.class));
+        verify(eventPublisher, times(1)).publishEvent(EmployeeChangedEvent.deleted(id));
     }
 
     @Test
@@ -241,14 +524,31 @@ public class EmployeeServiceTest {
     public void givenEmployeId_whenDeleteEmployee_thenThrowEmployeeNotFound() {
         // given
         final Long id = 1L;
-        when(employeeRepository.findById(id)).thenReturn(Optional.empty());
+        when(employeeJdbcRepository.deleteById(id)).thenReturn(0);
 
         // when
         final Executable executable = () -> employeeService.deleteEmployee(id);
 
         // then
         assertThrows(ResourceNotFoundException.class, executable);
-        verify(employeeRepository, never()).delete(any(Employee.class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("delete employees")
+    public void givenEmployeeIds_whenDeleteEmployees_thenDeleteInChunks() {
+        // given
+        employeeProperties.getDelete().setChunkSize(2);
+        when(employeeJdbcRepository.deleteByIdIn(List.of(1L, 2L))).thenReturn(2);
+        when(employeeJdbcRepository.deleteByIdIn(List.of(3L))).thenReturn(0);
+
+        // when
+        final int deleted = employeeService.deleteEmployees(List.of(1L, 2L, 2L, 3L));
+
+        // then
+        assertThat(deleted).isEqualTo(2);
+        verify(employeeJdbcRepository, times(2)).deleteByIdIn(any());
+        verify(eventPublisher, times(3)).publishEvent(any(EmployeeChangedEvent.class));
     }
 
 }
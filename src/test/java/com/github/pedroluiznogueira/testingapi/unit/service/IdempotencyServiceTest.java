@@ -0,0 +1,164 @@
+package com.github.pedroluiznogueira.testingapi.unit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.pedroluiznogueira.testingapi.config.EmployeeProperties;
+import com.github.pedroluiznogueira.testingapi.exception.ResourceAlreadyExistException;
+import com.github.pedroluiznogueira.testingapi.model.Employee;
+import com.github.pedroluiznogueira.testingapi.model.IdempotencyRecord;
+import com.github.pedroluiznogueira.testingapi.repository.IdempotencyRecordRepository;
+import com.github.pedroluiznogueira.testingapi.service.IdempotencyService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyServiceTest {
+
+    private static final String OPERATION = "POST /api/employees";
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Mock
+    private ObjectProvider<IdempotencyRecordRepository> recordRepositoryProvider;
+
+    @Mock
+    private IdempotencyRecordRepository recordRepository;
+
+    @Test
+    @DisplayName("concurrent retry waits for the first request")
+    public void givenRequestInFlight_whenRetrySameKey_thenWaitAndReplay() throws Exception {
+        // given
+        final IdempotencyService idempotencyService = new IdempotencyService(new EmployeeProperties(), recordRepositoryProvider, objectMapper);
+        final Employee employee = employee();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger executions = new AtomicInteger();
+        final CompletableFuture<IdempotencyService.Result<Employee>> first = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute(OPERATION, "key", employee, Employee.class, () -> {
+                    executions.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return created(employee);
+                }));
+        started.await(5, TimeUnit.SECONDS);
+
+        // when
+        final CompletableFuture<IdempotencyService.Result<Employee>> retry = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute(OPERATION, "key", employee, Employee.class, () -> {
+                    executions.incrementAndGet();
+                    return created(employee);
+                }));
+        release.countDown();
+
+        // then
+        assertThat(first.get(5, TimeUnit.SECONDS).isReplayed()).isFalse();
+        assertThat(retry.get(5, TimeUnit.SECONDS).isReplayed()).isTrue();
+        assertThat(retry.get().getValue().getId()).isEqualTo(1L);
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("failures are not remembered")
+    public void givenFailedRequest_whenRetrySameKey_thenExecuteAgain() {
+        // given
+        final IdempotencyService idempotencyService = new IdempotencyService(new EmployeeProperties(), recordRepositoryProvider, objectMapper);
+        final Employee employee = employee();
+        assertThrows(ResourceAlreadyExistException.class, () -> idempotencyService.execute(OPERATION, "key", employee, Employee.class, () -> {
+            throw new ResourceAlreadyExistException("Employee", "email", employee.getEmail());
+        }));
+
+        // when
+        final IdempotencyService.Result<Employee> result = idempotencyService.execute(OPERATION, "key", employee, Employee.class, () -> created(employee));
+
+        // then
+        assertThat(result.isReplayed()).isFalse();
+        assertThat(result.getValue().getId()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("replay from the table")
+    public void givenRecordedKey_whenMissingInMemory_thenReplayFromTable() throws Exception {
+        // given
+        final EmployeeProperties employeeProperties = new EmployeeProperties();
+        employeeProperties.getIdempotency().setTableEnabled(true);
+        when(recordRepositoryProvider.getObject()).thenReturn(recordRepository);
+        final Employee employee = employee();
+        new IdempotencyService(employeeProperties, recordRepositoryProvider, objectMapper)
+                .execute(OPERATION, "key", employee, Employee.class, () -> created(employee));
+        final ArgumentCaptor<IdempotencyRecord> recorded = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(recordRepository).save(recorded.capture());
+        when(recordRepository.findById(OPERATION + " key")).thenReturn(Optional.of(recorded.getValue()));
+
+        // when
+        final IdempotencyService.Result<Employee> result = new IdempotencyService(employeeProperties, recordRepositoryProvider, objectMapper)
+                .execute(OPERATION, "key", employee, Employee.class, () -> {
+                    throw new IllegalStateException("must not run again");
+                });
+
+        // then
+        assertThat(result.isReplayed()).isTrue();
+        assertThat(result.getValue()).isEqualTo(created(employee));
+        verify(recordRepository, times(1)).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    @DisplayName("no key runs every time")
+    public void givenNoKey_whenExecuteTwice_thenRunBoth() {
+        // given
+        final IdempotencyService idempotencyService = new IdempotencyService(new EmployeeProperties(), recordRepositoryProvider, objectMapper);
+        final AtomicInteger executions = new AtomicInteger();
+
+        // when
+        idempotencyService.execute(OPERATION, null, employee(), Employee.class, () -> created(employee(), executions.incrementAndGet()));
+        idempotencyService.execute(OPERATION, null, employee(), Employee.class, () -> created(employee(), executions.incrementAndGet()));
+
+        // then
+        assertThat(executions.get()).isEqualTo(2);
+        verifyNoInteractions(recordRepositoryProvider);
+    }
+
+    private static Employee employee() {
+        return Employee.builder()
+                .firstName("John")
+                .secondName("Wick")
+                .email("johnwick@johnwick.com")
+                .build();
+    }
+
+    private static Employee created(final Employee employee) {
+        return created(employee, 1L);
+    }
+
+    private static Employee created(final Employee employee, final long id) {
+        return Employee.builder()
+                .id(id)
+                .firstName(employee.getFirstName())
+                .secondName(employee.getSecondName())
+                .email(employee.getEmail())
+                .version(0L)
+                .build();
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}